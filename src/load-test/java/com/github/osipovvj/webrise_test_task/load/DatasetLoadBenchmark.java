@@ -0,0 +1,287 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+import com.github.osipovvj.webrise_test_task.pagination.Cursors;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Нагрузочный прогон на синтетическом наборе данных: заливка через COPY с распределением Ципфа, затем смесь
+ * запросов к API от фиксированного числа клиентов. По каждому эндпоинту печатаются пропускная способность и
+ * перцентили задержки, полные гистограммы сохраняются в {@code target/load/*.hgrm}.
+ * <p>
+ * С {@code load.rate} клиенты отправляют запросы по расписанию с заданной суммарной частотой (открытая модель),
+ * а задержка отсчитывается от запланированного времени отправки: запрос, который ждал освободившегося клиента,
+ * учитывается вместе с ожиданием. Без {@code load.rate} каждый клиент шлёт следующий запрос сразу после ответа
+ * (замкнутая модель): так измеряется предельная пропускная способность, но перцентили занижены, потому что
+ * во время медленного ответа клиент не отправляет запросов, которые иначе тоже бы ждали (coordinated omission).
+ * <p>
+ * Запуск на встроенном PostgreSQL: {@code mvn test -Pload -Dtest=DatasetLoadBenchmark}. Размеры и нагрузка
+ * задаются свойствами {@code load.users}, {@code load.subscriptions}, {@code load.subscriptions-per-user}, {@code load.skew},
+ * {@code load.seed}, {@code load.clients}, {@code load.rate}, {@code load.warmup-seconds}, {@code load.seconds}
+ * и {@code load.mix}. Для локально запущенного PostgreSQL добавить
+ * {@code -Dload.jdbc-url=... -Dload.username=... -Dload.password=...} и {@code -Dload.clean=true}: схема в этой базе
+ * пересоздаётся.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.github.osipovvj=WARN",
+        "logging.level.com.github.osipovvj.webrise_test_task.controller=OFF",
+        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF",
+        "spring.flyway.enabled=true",
+        "spring.flyway.clean-disabled=false",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class DatasetLoadBenchmark {
+    private static final LoadDataset DATASET = LoadDataset.fromSystemProperties();
+    private static final LoadMix MIX = LoadMix.parse(System.getProperty("load.mix", LoadMix.DEFAULT));
+    private static final int CLIENTS = Integer.getInteger("load.clients", 32);
+    private static final int RATE = Integer.getInteger("load.rate", 0);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("load.seconds", 60));
+    private static final Path REPORT_DIR = Path.of(System.getProperty("load.report-dir", "target/load"));
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int PAGE_SIZE = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PopularityService popularityService;
+
+    @Autowired
+    private Clock clock;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong createdUsers = new AtomicLong();
+
+    private ZipfSampler users;
+    private ZipfSampler subscriptions;
+
+    /**
+     * Нагрузка идёт на схему из миграций, с теми же индексами, что и в production.
+     */
+    @TestConfiguration
+    static class CleanSchema {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) throws IOException {
+        String url = LoadDatabase.externalUrl();
+        if (url != null) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("load.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("load.password", ""));
+            return;
+        }
+
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        long seedStarted = System.nanoTime();
+        long userSubscriptions = new DatasetSeeder(dataSource, DATASET, LocalDateTime.now(clock)).seed();
+        popularityService.reconcile();
+        System.out.printf("dataset: users=%d subscriptions=%d user_subscription=%d skew=%.2f seed=%d, loaded in %d s%n",
+                DATASET.users(), DATASET.subscriptions(), userSubscriptions, DATASET.skew(), DATASET.seed(),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStarted));
+
+        users = new ZipfSampler(1, DATASET.users(), DATASET.skew(), DATASET.seed() + 1);
+        subscriptions = new ZipfSampler(1, DATASET.subscriptions(), DATASET.skew(), DATASET.seed());
+
+        measure(WARMUP, DATASET.seed());
+        Map<LoadOperation, Tally> results = measure(MEASUREMENT, DATASET.seed() + CLIENTS);
+
+        System.out.printf("clients=%d seconds=%d mix=%s%n", CLIENTS, MEASUREMENT.toSeconds(), MIX);
+        System.out.println(RATE > 0
+                ? "open loop: target rate " + RATE + " req/s, latency from scheduled send time"
+                : "closed loop: latency from actual send time, percentiles exclude queueing (coordinated omission)");
+        System.out.printf("%-32s %10s %10s %9s %9s %9s %9s %9s %7s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "4xx", "errors");
+        Files.createDirectories(REPORT_DIR);
+        for (Map.Entry<LoadOperation, Tally> entry : results.entrySet()) {
+            Histogram histogram = entry.getValue().histogram;
+            System.out.printf("%-32s %10d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d%n",
+                    entry.getKey().getEndpoint(),
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / (MEASUREMENT.toNanos() / 1e9),
+                    millis(histogram, 50),
+                    millis(histogram, 90),
+                    millis(histogram, 99),
+                    millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1e3,
+                    entry.getValue().clientErrors,
+                    entry.getValue().errors);
+
+            Path report = REPORT_DIR.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(report))) {
+                histogram.outputPercentileDistribution(out, 1e3);
+            }
+        }
+
+        assertThat(results.values()).allSatisfy(tally -> assertThat(tally.histogram.getTotalCount()).isPositive());
+    }
+
+    private Map<LoadOperation, Tally> measure(Duration duration, long seed) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        long intervalNanos = RATE > 0 ? TimeUnit.SECONDS.toNanos(CLIENTS) / RATE : 0;
+
+        try {
+            List<Future<Map<LoadOperation, Tally>>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                SplittableRandom random = new SplittableRandom(seed + c);
+                long firstSend = start + intervalNanos * c / CLIENTS;
+                futures.add(executor.submit(() -> runClient(random, firstSend, intervalNanos, deadline)));
+            }
+
+            Map<LoadOperation, Tally> results = new EnumMap<>(LoadOperation.class);
+            for (Future<Map<LoadOperation, Tally>> future : futures) {
+                future.get().forEach((operation, tally) -> results.computeIfAbsent(operation, o -> new Tally()).add(tally));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * При нулевом интервале следующий запрос уходит сразу после ответа. Иначе запросы идут по расписанию, а отставший
+     * клиент отправляет просроченные запросы без паузы, пока не догонит его.
+     */
+    private Map<LoadOperation, Tally> runClient(SplittableRandom random, long firstSend, long intervalNanos, long deadline)
+            throws InterruptedException {
+        Map<LoadOperation, Tally> tallies = new EnumMap<>(LoadOperation.class);
+        long scheduled = firstSend;
+        while (true) {
+            long started = intervalNanos > 0 ? scheduled : System.nanoTime();
+            if (started >= deadline) {
+                return tallies;
+            }
+            long wait = started - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            scheduled += intervalNanos;
+
+            LoadOperation operation = MIX.next(random);
+            Tally tally = tallies.computeIfAbsent(operation, o -> new Tally());
+            try {
+                int status = client.send(request(operation, random), HttpResponse.BodyHandlers.discarding()).statusCode();
+                tally.record(status, System.nanoTime() - started);
+            } catch (IOException e) {
+                tally.errors++;
+            }
+        }
+    }
+
+    private HttpRequest request(LoadOperation operation, SplittableRandom random) {
+        return switch (operation) {
+            case GET_USER -> get("/api/v1/users/" + users.sample(random));
+            case GET_USER_SUBSCRIPTIONS -> get("/api/v1/users/" + users.sample(random) + "/subscriptions?limit=" + PAGE_SIZE);
+            case GET_SUBSCRIPTIONS -> get("/api/v1/subscriptions?limit=" + PAGE_SIZE
+                    + "&after=" + Cursors.encode(random.nextLong(DATASET.subscriptions())));
+            case GET_TOP_SUBSCRIPTIONS -> get("/api/v1/subscriptions/top?limit=10&window=" + (random.nextBoolean() ? "7d" : "all"));
+            case ADD_USER_SUBSCRIPTION -> post("/api/v1/users/" + users.sample(random) + "/subscriptions",
+                    "{\"subscriptionId\":" + subscriptions.sample(random) + ",\"price\":9.99}");
+            case CREATE_USER -> {
+                long id = createdUsers.incrementAndGet();
+                yield post("/api/v1/users", "{\"username\":\"load-" + id + "\",\"email\":\"load-" + id + "@example.com\"}");
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    /**
+     * Задержки в микросекундах и число ответов с ошибкой для одной операции.
+     */
+    private static final class Tally {
+        private final Histogram histogram = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        private long clientErrors;
+        private long errors;
+
+        void record(int status, long elapsedNanos) {
+            histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_LATENCY_MICROS));
+            if (status >= 500) {
+                errors++;
+            } else if (status >= 400) {
+                clientErrors++;
+            }
+        }
+
+        void add(Tally other) {
+            histogram.add(other.histogram);
+            clientErrors += other.clientErrors;
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+/**
+ * Заливка синтетического набора данных через COPY. Id назначаются подряд с единицы, после заливки
+ * последовательности сдвигаются за максимальный id, чтобы новые записи приложения не конфликтовали с набором.
+ */
+final class DatasetSeeder {
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    private static final int HISTORY_SECONDS = 90 * 24 * 60 * 60;
+    private static final int ACTIVE_PERCENT = 85;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final DataSource dataSource;
+    private final LoadDataset dataset;
+    private final LocalDateTime now;
+
+    DatasetSeeder(DataSource dataSource, LoadDataset dataset, LocalDateTime now) {
+        this.dataSource = dataSource;
+        this.dataset = dataset;
+        this.now = now;
+    }
+
+    /**
+     * @return число созданных подписок пользователей
+     */
+    long seed() throws SQLException {
+        SplittableRandom random = new SplittableRandom(dataset.seed());
+        ZipfSampler popularity = new ZipfSampler(1, dataset.subscriptions(), dataset.skew(), dataset.seed());
+
+        try (Connection connection = dataSource.getConnection()) {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copySubscriptions(copyManager, random);
+            copyUsers(copyManager, random);
+            long userSubscriptions = copyUserSubscriptions(copyManager, random, popularity);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(restartSequence("subscriptions_seq", dataset.subscriptions()));
+                statement.execute(restartSequence("users_seq", dataset.users()));
+                statement.execute(restartSequence("user_subscription_seq", userSubscriptions));
+                statement.execute("""
+                        INSERT INTO user_spend (user_id, active_spend, subscriptions, active_subscriptions)
+                        SELECT u.id, COALESCE(SUM(us.price) FILTER (WHERE us.status = 'ACTIVE'), 0),
+                               COUNT(us.id), COUNT(us.id) FILTER (WHERE us.status = 'ACTIVE')
+                        FROM users u LEFT JOIN user_subscription us ON us.user_id = u.id GROUP BY u.id
+                        """);
+                statement.execute("ANALYZE subscriptions, users, user_subscription, user_spend");
+            }
+            return userSubscriptions;
+        }
+    }
+
+    private void copySubscriptions(CopyManager copyManager, SplittableRandom random) throws SQLException {
+        try (CopyStream copy = new CopyStream(copyManager,
+                "COPY subscriptions (id, subscription_name, service_name, service_url, created_at, updated_at, version) FROM STDIN")) {
+            for (long id = 1; id <= dataset.subscriptions(); id++) {
+                String createdAt = timestamp(random);
+                copy.buffer()
+                        .append(id).append('\t')
+                        .append("Subscription ").append(id).append('\t')
+                        .append("Service ").append(id).append('\t')
+                        .append("https://service").append(id).append(".example.com").append('\t')
+                        .append(createdAt).append('\t')
+                        .append(createdAt).append('\t')
+                        .append(0);
+                copy.endRow();
+            }
+            copy.finish();
+        }
+    }
+
+    private void copyUsers(CopyManager copyManager, SplittableRandom random) throws SQLException {
+        try (CopyStream copy = new CopyStream(copyManager,
+                "COPY users (id, username, email, created_at, updated_at, version) FROM STDIN")) {
+            for (long id = 1; id <= dataset.users(); id++) {
+                String createdAt = timestamp(random);
+                copy.buffer()
+                        .append(id).append('\t')
+                        .append("user").append(id).append('\t')
+                        .append("user").append(id).append("@example.com").append('\t')
+                        .append(createdAt).append('\t')
+                        .append(createdAt).append('\t')
+                        .append(0);
+                copy.endRow();
+            }
+            copy.finish();
+        }
+    }
+
+    private long copyUserSubscriptions(CopyManager copyManager, SplittableRandom random, ZipfSampler popularity) throws SQLException {
+        long[] chosen = new long[dataset.maxSubscriptionsPerUser()];
+        long id = 0;
+
+        try (CopyStream copy = new CopyStream(copyManager,
+                "COPY user_subscription (id, user_id, subscription_id, price, status, subscribed_at, updated_at, version) FROM STDIN")) {
+            for (long userId = 1; userId <= dataset.users(); userId++) {
+                int count = 1 + random.nextInt(dataset.maxSubscriptionsPerUser());
+                for (int i = 0; i < count; i++) {
+                    long subscriptionId;
+                    do {
+                        subscriptionId = popularity.sample(random);
+                    } while (contains(chosen, i, subscriptionId));
+                    chosen[i] = subscriptionId;
+
+                    String subscribedAt = timestamp(random);
+                    SubscriptionStatus status = random.nextInt(100) < ACTIVE_PERCENT
+                            ? SubscriptionStatus.ACTIVE
+                            : SubscriptionStatus.INACTIVE;
+                    long priceCents = 199 + subscriptionId * 37 % 1800;
+                    copy.buffer()
+                            .append(++id).append('\t')
+                            .append(userId).append('\t')
+                            .append(subscriptionId).append('\t')
+                            .append(BigDecimal.valueOf(priceCents, 2).toPlainString()).append('\t')
+                            .append(status.name()).append('\t')
+                            .append(subscribedAt).append('\t')
+                            .append(subscribedAt).append('\t')
+                            .append(0);
+                    copy.endRow();
+                }
+            }
+            copy.finish();
+        }
+        return id;
+    }
+
+    private String timestamp(SplittableRandom random) {
+        return now.minusSeconds(random.nextInt(HISTORY_SECONDS)).format(TIMESTAMP);
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * При pooled-lo nextval возвращает нижнюю границу блока id, поэтому следующий блок должен начинаться за maxId.
+     */
+    private static String restartSequence(String sequence, long maxId) {
+        return "SELECT setval('" + sequence + "', " + (maxId + 1) + ", false)";
+    }
+
+    private static final class CopyStream implements AutoCloseable {
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD * 2);
+
+        CopyStream(CopyManager copyManager, String sql) throws SQLException {
+            copyIn = copyManager.copyIn(sql);
+        }
+
+        StringBuilder buffer() {
+            return buffer;
+        }
+
+        void endRow() throws SQLException {
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_THRESHOLD) {
+                flush();
+            }
+        }
+
+        void finish() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+}
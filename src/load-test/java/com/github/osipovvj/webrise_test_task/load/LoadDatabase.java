@@ -0,0 +1,23 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+/**
+ * Внешняя база для нагрузочных прогонов. Прогон очищает в ней схему, поэтому без явного {@code -Dload.clean=true}
+ * указанный {@code load.jdbc-url} отклоняется.
+ */
+final class LoadDatabase {
+
+    private LoadDatabase() {
+    }
+
+    /**
+     * Адрес внешней базы или {@code null}, если прогон идёт на встроенном PostgreSQL.
+     */
+    static String externalUrl() {
+        String url = System.getProperty("load.jdbc-url");
+        if (url != null && !Boolean.getBoolean("load.clean")) {
+            throw new IllegalStateException("Прогон удаляет все объекты схемы в " + url
+                    + ". Чтобы подтвердить это, добавьте -Dload.clean=true.");
+        }
+        return url;
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+/**
+ * Размеры синтетического набора данных. Одинаковые параметры и {@code seed} дают одинаковые строки.
+ *
+ * @param users                число пользователей
+ * @param subscriptions        число сервисов в каталоге
+ * @param subscriptionsPerUser среднее число подписок на пользователя
+ * @param skew                 показатель распределения Ципфа для популярности сервисов и активности пользователей
+ * @param seed                 начальное значение генератора случайных чисел
+ */
+record LoadDataset(int users, int subscriptions, int subscriptionsPerUser, double skew, long seed) {
+
+    LoadDataset {
+        if (users < 1 || subscriptions < 1 || subscriptionsPerUser < 1) {
+            throw new IllegalArgumentException("Размеры набора данных должны быть положительными.");
+        }
+        if (subscriptionsPerUser * 2 - 1 > subscriptions) {
+            throw new IllegalArgumentException("Каталог меньше максимального числа подписок пользователя.");
+        }
+    }
+
+    static LoadDataset fromSystemProperties() {
+        return new LoadDataset(
+                Integer.getInteger("load.users", 1_000_000),
+                Integer.getInteger("load.subscriptions", 10_000),
+                Integer.getInteger("load.subscriptions-per-user", 10),
+                Double.parseDouble(System.getProperty("load.skew", "1.1")),
+                Long.getLong("load.seed", 42)
+        );
+    }
+
+    /**
+     * Максимальное число подписок одного пользователя; в среднем выходит {@link #subscriptionsPerUser()}.
+     */
+    int maxSubscriptionsPerUser() {
+        return subscriptionsPerUser * 2 - 1;
+    }
+}
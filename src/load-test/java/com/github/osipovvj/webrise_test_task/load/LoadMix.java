@@ -0,0 +1,64 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Доли операций в нагрузке, например {@code GET_USER:20,GET_USER_SUBSCRIPTIONS:40,CREATE_USER:5}.
+ */
+final class LoadMix {
+    static final String DEFAULT = "GET_USER:20,GET_USER_SUBSCRIPTIONS:40,GET_SUBSCRIPTIONS:15,"
+            + "GET_TOP_SUBSCRIPTIONS:10,ADD_USER_SUBSCRIPTION:10,CREATE_USER:5";
+
+    private final List<LoadOperation> operations;
+    private final int[] cumulativeWeights;
+
+    private LoadMix(List<LoadOperation> operations, int[] cumulativeWeights) {
+        this.operations = operations;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    static LoadMix parse(String spec) {
+        List<LoadOperation> operations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || Integer.parseInt(parts[1].trim()) < 0) {
+                throw new IllegalArgumentException("Некорректная доля операции: " + entry);
+            }
+            operations.add(LoadOperation.valueOf(parts[0].trim()));
+            weights.add(Integer.parseInt(parts[1].trim()));
+        }
+
+        int[] cumulative = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulative[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Сумма долей операций должна быть положительной.");
+        }
+        return new LoadMix(List.copyOf(operations), cumulative);
+    }
+
+    LoadOperation next(SplittableRandom random) {
+        int target = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= target) {
+            index++;
+        }
+        return operations.get(index);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < operations.size(); i++) {
+            int weight = cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+            result.append(i == 0 ? "" : ",").append(operations.get(i)).append(':').append(weight);
+        }
+        return result.toString();
+    }
+}
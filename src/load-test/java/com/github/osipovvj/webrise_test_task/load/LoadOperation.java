@@ -0,0 +1,20 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Эндпоинты {@code UserController} и {@code SubscriptionController}, которые участвуют в нагрузке.
+ */
+@Getter
+@RequiredArgsConstructor
+enum LoadOperation {
+    GET_USER("GET /users/{id}"),
+    GET_USER_SUBSCRIPTIONS("GET /users/{id}/subscriptions"),
+    GET_SUBSCRIPTIONS("GET /subscriptions"),
+    GET_TOP_SUBSCRIPTIONS("GET /subscriptions/top"),
+    ADD_USER_SUBSCRIPTION("POST /users/{id}/subscriptions"),
+    CREATE_USER("POST /users");
+
+    private final String endpoint;
+}
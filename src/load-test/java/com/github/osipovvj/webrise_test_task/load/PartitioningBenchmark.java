@@ -0,0 +1,259 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Сравнение обычной и секционированной по хешу user_id таблицы user_subscription (профиль partitioned)
+ * на одном наборе данных: заливка, размер, выборки подписок пользователя, агрегат популярности и VACUUM
+ * после обновления части строк. Схемы {@code plain} и {@code partitioned} создаются миграциями приложения.
+ * <p>
+ * Запуск на встроенном PostgreSQL: {@code mvn test -Pload -Dtest=PartitioningBenchmark}. Набор на 50 млн строк:
+ * {@code -Dload.users=5000000 -Dload.subscriptions-per-user=10}. Число секций задаёт {@code load.partitions},
+ * долю обновляемых перед VACUUM строк в процентах — {@code load.churn-percent}, число выборок —
+ * {@code load.lookups}. Для локально запущенного PostgreSQL добавить
+ * {@code -Dload.jdbc-url=... -Dload.username=... -Dload.password=...} и {@code -Dload.clean=true}: схемы plain
+ * и partitioned в этой базе пересоздаются.
+ */
+@Tag("load")
+class PartitioningBenchmark {
+    private static final LoadDataset DATASET = LoadDataset.fromSystemProperties();
+    private static final int PARTITIONS = Integer.getInteger("load.partitions", 16);
+    private static final int CHURN_PERCENT = Integer.getInteger("load.churn-percent", 10);
+    private static final int LOOKUPS = Integer.getInteger("load.lookups", 20_000);
+    private static final int AGGREGATE_RUNS = 5;
+    private static final int PAGE_SIZE = 20;
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final String PAGE_SQL = """
+            SELECT us.id, us.price, us.status, us.subscribed_at, us.updated_at, us.version,
+                   s.id, s.subscription_name, s.service_name, s.service_url
+            FROM user_subscription us JOIN subscriptions s ON s.id = us.subscription_id
+            WHERE us.user_id = ? AND us.id > ? ORDER BY us.id LIMIT ?
+            """;
+    private static final String FIND_SQL = """
+            SELECT id, price, status, subscribed_at, updated_at, version
+            FROM user_subscription WHERE user_id = ? AND subscription_id = ?
+            """;
+    private static final String POPULARITY_SQL = """
+            SELECT s.id, c.status, COALESCE(c.subscribers, 0)
+            FROM subscriptions s LEFT JOIN (
+                SELECT subscription_id, status, COUNT(id) AS subscribers
+                FROM user_subscription GROUP BY subscription_id, status
+            ) c ON c.subscription_id = s.id
+            """;
+
+    private static EmbeddedPostgres postgres;
+    private static String url;
+    private static String username;
+    private static String password;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        url = LoadDatabase.externalUrl();
+        username = System.getProperty("load.username", "postgres");
+        password = System.getProperty("load.password", "");
+        if (url == null) {
+            postgres = EmbeddedPostgres.builder().start();
+            url = postgres.getJdbcUrl("postgres", "postgres");
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void plainVersusPartitioned() throws SQLException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        results.put("plain", run("plain", "classpath:db/migration"));
+        results.put("partitioned", run("partitioned", "classpath:db/migration", "classpath:db/partitioned"));
+
+        System.out.printf("dataset: users=%d subscriptions=%d subscriptions-per-user=%d skew=%.2f seed=%d partitions=%d%n",
+                DATASET.users(), DATASET.subscriptions(), DATASET.subscriptionsPerUser(), DATASET.skew(),
+                DATASET.seed(), PARTITIONS);
+        System.out.printf("%-12s %12s %8s %8s %8s %8s %8s %8s %11s %9s %11s %11s%n",
+                "schema", "rows", "seed s", "size MB", "page p50", "page p99", "find p50", "find p99",
+                "popular ms", "churn s", "vacuum ms", "vac max ms");
+        results.forEach((schema, result) -> System.out.printf(
+                "%-12s %12d %8d %8d %8.3f %8.3f %8.3f %8.3f %11d %9d %11d %11d%n",
+                schema,
+                result.rows,
+                result.seedSeconds,
+                result.sizeBytes >> 20,
+                millis(result.page, 50),
+                millis(result.page, 99),
+                millis(result.find, 50),
+                millis(result.find, 99),
+                result.popularityMillis,
+                result.churnSeconds,
+                result.vacuumMillis,
+                result.vacuumMaxMillis));
+
+        assertThat(results.values()).allSatisfy(result -> assertThat(result.page.getTotalCount()).isEqualTo(LOOKUPS));
+    }
+
+    private Result run(String schema, String... locations) throws SQLException {
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(schema)
+                .locations(locations)
+                .placeholders(Map.of("userSubscriptionPartitions", String.valueOf(PARTITIONS)))
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser(username);
+        dataSource.setPassword(password);
+        dataSource.setCurrentSchema(schema);
+        dataSource.setOptions("-c enable_partitionwise_aggregate=on -c enable_partitionwise_join=on");
+
+        Result result = new Result();
+        long started = System.nanoTime();
+        result.rows = new DatasetSeeder(dataSource, DATASET, LocalDateTime.now()).seed();
+        result.seedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+
+        try (Connection connection = dataSource.getConnection()) {
+            for (String table : tables(connection)) {
+                result.sizeBytes += queryLong(connection, "SELECT pg_total_relation_size('" + table + "')");
+            }
+            lookups(connection, result);
+            result.popularityMillis = popularity(connection);
+            churnAndVacuum(connection, result);
+        }
+        return result;
+    }
+
+    /**
+     * Те же запросы, что выполняет Hibernate для страницы подписок пользователя и для поиска подписки
+     * по пользователю и сервису. Пользователи выбираются с тем же перекосом, что и в нагрузочном прогоне.
+     */
+    private void lookups(Connection connection, Result result) throws SQLException {
+        ZipfSampler users = new ZipfSampler(1, DATASET.users(), DATASET.skew(), DATASET.seed() + 1);
+        ZipfSampler subscriptions = new ZipfSampler(1, DATASET.subscriptions(), DATASET.skew(), DATASET.seed());
+        SplittableRandom random = new SplittableRandom(DATASET.seed());
+
+        try (PreparedStatement page = connection.prepareStatement(PAGE_SQL);
+             PreparedStatement find = connection.prepareStatement(FIND_SQL)) {
+            for (int i = 0; i < LOOKUPS; i++) {
+                page.setLong(1, users.sample(random));
+                page.setLong(2, 0);
+                page.setInt(3, PAGE_SIZE);
+                result.page.recordValue(timeMicros(page));
+
+                find.setLong(1, users.sample(random));
+                find.setLong(2, subscriptions.sample(random));
+                result.find.recordValue(timeMicros(find));
+            }
+        }
+    }
+
+    private long popularity(Connection connection) throws SQLException {
+        long[] runs = new long[AGGREGATE_RUNS];
+        try (PreparedStatement statement = connection.prepareStatement(POPULARITY_SQL)) {
+            for (int i = 0; i < AGGREGATE_RUNS; i++) {
+                runs[i] = TimeUnit.MICROSECONDS.toMillis(timeMicros(statement));
+            }
+        }
+        Arrays.sort(runs);
+        return runs[AGGREGATE_RUNS / 2];
+    }
+
+    /**
+     * Обновляет {@link #CHURN_PERCENT}% строк и очищает таблицу. Секционированная таблица очищается по секциям,
+     * как это делает autovacuum; {@code vacuumMaxMillis} — самый долгий отдельный VACUUM.
+     */
+    private void churnAndVacuum(Connection connection, Result result) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            long started = System.nanoTime();
+            statement.executeUpdate("UPDATE user_subscription SET version = version + 1, updated_at = updated_at "
+                    + "WHERE id % 100 < " + CHURN_PERCENT);
+            result.churnSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+
+            for (String table : tables(connection)) {
+                started = System.nanoTime();
+                statement.execute("VACUUM " + table);
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                result.vacuumMillis += elapsed;
+                result.vacuumMaxMillis = Math.max(result.vacuumMaxMillis, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Секции user_subscription или сама таблица, если она не секционирована.
+     */
+    private static List<String> tables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT relid::regclass::text FROM pg_partition_tree('user_subscription') WHERE isleaf")) {
+            while (rows.next()) {
+                tables.add(rows.getString(1));
+            }
+        }
+        return tables.isEmpty() ? List.of("user_subscription") : tables;
+    }
+
+    private static long timeMicros(PreparedStatement statement) throws SQLException {
+        long started = System.nanoTime();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                rows.getLong(1);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    private static final class Result {
+        final Histogram page = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        final Histogram find = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long rows;
+        long seedSeconds;
+        long sizeBytes;
+        long popularityMillis;
+        long churnSeconds;
+        long vacuumMillis;
+        long vacuumMaxMillis;
+    }
+}
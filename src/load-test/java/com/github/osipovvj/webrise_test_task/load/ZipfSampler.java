@@ -0,0 +1,43 @@
+package com.github.osipovvj.webrise_test_task.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Выбор id с вероятностью, обратной степени ранга. Ранги перемешаны, чтобы популярные записи не шли подряд по id.
+ */
+final class ZipfSampler {
+    private final double[] cumulative;
+    private final long[] ids;
+
+    /**
+     * @param firstId  минимальный id диапазона
+     * @param count    число id в диапазоне
+     * @param exponent показатель распределения, 0 даёт равномерный выбор
+     * @param seed     начальное значение для перестановки рангов
+     */
+    ZipfSampler(long firstId, int count, double exponent, long seed) {
+        cumulative = new double[count];
+        double total = 0;
+        for (int rank = 0; rank < count; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+
+        ids = new long[count];
+        Arrays.setAll(ids, rank -> firstId + rank);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+    }
+
+    long sample(SplittableRandom random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int rank = Arrays.binarySearch(cumulative, target);
+        return ids[rank >= 0 ? rank : Math.min(-rank - 1, ids.length - 1)];
+    }
+}
@@ -2,8 +2,10 @@ package com.github.osipovvj.webrise_test_task;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class WebriseTestTaskApplication {
 
     public static void main(String[] args) {
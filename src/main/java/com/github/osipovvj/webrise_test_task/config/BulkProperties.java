@@ -0,0 +1,10 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.bulk")
+public record BulkProperties(
+        @DefaultValue("1000") int chunkSize
+) {
+}
@@ -0,0 +1,48 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.github.osipovvj.webrise_test_task.entity.CacheRegions;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Метрики cache.gets, cache.puts, cache.evictions и cache.size по каждому региону кэша второго уровня.
+     * Регионы запросов Hibernate создаёт при первом запросе, поэтому они перечислены явно.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            Set<String> regions = new TreeSet<>(CacheRegions.QUERY_REGIONS);
+            hibernateCacheManager.getCacheNames().forEach(regions::add);
+
+            regions.forEach(name -> CaffeineCacheMetrics.monitor(
+                    registry,
+                    hibernateCacheManager.getCache(name).unwrap(Cache.class),
+                    name
+            ));
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import com.github.osipovvj.webrise_test_task.datasource.BulkheadDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * В режиме виртуальных потоков число потоков не ограничивает обращения к БД, поэтому пул Hikari
+ * закрывается семафором того же размера. Семафор оборачивает пул и поверх других обёрток, например
+ * {@link com.github.osipovvj.webrise_test_task.datasource.SlowQueryDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.db-bulkhead", name = "enabled", havingValue = "true")
+public class DbBulkheadConfig {
+    /**
+     * Размер пула, который Hikari подставляет при старте, если maximum-pool-size не задан.
+     */
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Порядок Spring определяет по типу фабричного метода, поэтому возвращается конкретный класс.
+     */
+    @Bean
+    public static DbBulkheadPostProcessor dbBulkheadPostProcessor(ObjectProvider<DbBulkheadProperties> properties) {
+        return new DbBulkheadPostProcessor(properties);
+    }
+
+    @Bean
+    public MeterBinder dbBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            BulkheadDataSource bulkhead = DataSourceUnwrapper.unwrap(dataSource, BulkheadDataSource.class);
+            if (bulkhead != null) {
+                Gauge.builder("db.bulkhead.available", bulkhead, BulkheadDataSource::availablePermits)
+                        .description("Свободные разрешения на соединение с БД")
+                        .register(registry);
+                Gauge.builder("db.bulkhead.queued", bulkhead, BulkheadDataSource::queueLength)
+                        .description("Потоки, ожидающие соединение с БД")
+                        .register(registry);
+            }
+        };
+    }
+
+    record DbBulkheadPostProcessor(ObjectProvider<DbBulkheadProperties> properties)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                return bean;
+            }
+            HikariDataSource pool = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+            if (pool == null) {
+                return bean;
+            }
+
+            DbBulkheadProperties bulkhead = properties.getObject();
+            int poolSize = pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+            int permits = bulkhead.permits() != null ? bulkhead.permits() : poolSize;
+            return new BulkheadDataSource(dataSource, permits, bulkhead.acquireTimeout());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 1;
+        }
+    }
+}
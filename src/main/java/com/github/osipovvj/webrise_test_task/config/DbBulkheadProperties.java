@@ -0,0 +1,17 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param permits число одновременно выданных соединений, по умолчанию равно размеру пула Hikari
+ */
+@ConfigurationProperties(prefix = "app.db-bulkhead")
+public record DbBulkheadProperties(
+        @DefaultValue("false") boolean enabled,
+        Integer permits,
+        @DefaultValue("2s") Duration acquireTimeout
+) {
+}
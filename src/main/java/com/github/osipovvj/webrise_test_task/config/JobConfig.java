@@ -0,0 +1,17 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class JobConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService jobExecutor(JobProperties properties) {
+        return Executors.newFixedThreadPool(properties.threads(), new CustomizableThreadFactory("job-"));
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.jobs")
+public record JobProperties(
+        @DefaultValue("2") int threads,
+        @DefaultValue("1h") Duration retention
+) {
+}
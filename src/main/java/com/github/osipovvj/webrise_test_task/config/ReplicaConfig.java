@@ -0,0 +1,177 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import com.github.osipovvj.webrise_test_task.datasource.ReadYourWrites;
+import com.github.osipovvj.webrise_test_task.datasource.ReplicaCacheModeListener;
+import com.github.osipovvj.webrise_test_task.datasource.ReadYourWritesFilter;
+import com.github.osipovvj.webrise_test_task.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Транзакции только для чтения выполняются на репликах ({@code app.replicas.urls}), остальные — в основной БД.
+ * Пулы реплик создаются с настройками основного пула Hikari.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.replicas", name = "enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    /**
+     * Маршрутизация оборачивает пул последней, поверх {@link WatchdogConfig} и {@link DbBulkheadConfig}:
+     * запись идёт через их обёртки, чтение с реплик — мимо семафора основного пула. Пулы реплик создаются вне
+     * контекста, поэтому обёртку {@link WatchdogConfig} на них накладывает сама маршрутизация.
+     */
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+            ObjectProvider<ReplicaProperties> properties,
+            ObjectProvider<ReadYourWrites> readYourWrites,
+            ObjectProvider<WatchdogConfig.SlowQueryPostProcessor> slowQueryPostProcessor) {
+        return new ReplicaRoutingPostProcessor(properties, readYourWrites, slowQueryPostProcessor);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites();
+    }
+
+    /**
+     * Boot сам передаёт слушатели транзакций менеджеру транзакций.
+     */
+    @Bean
+    public ReplicaCacheModeListener replicaCacheModeListener(EntityManagerFactory entityManagerFactory,
+                                                             ReadYourWrites readYourWrites) {
+        return new ReplicaCacheModeListener(entityManagerFactory, readYourWrites);
+    }
+
+    /**
+     * Hibernate по умолчанию держит соединение до закрытия EntityManager, а при open-in-view это весь HTTP-запрос.
+     * Соединение отпускается после каждой транзакции, чтобы следующая транзакция запроса выбрала БД заново.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWrites readYourWrites,
+                                                                             ReplicaProperties properties,
+                                                                             Clock clock) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(readYourWrites, properties.readYourWrites(), clock));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        registration.setEnabled(!properties.readYourWrites().isZero());
+        return registration;
+    }
+
+    @Bean
+    public SchedulingConfigurer replicaHealthCheck(DataSource dataSource, ReplicaProperties properties) {
+        ReplicaRoutingDataSource routing = DataSourceUnwrapper.unwrap(dataSource, ReplicaRoutingDataSource.class);
+        return registrar -> {
+            if (routing != null) {
+                registrar.addFixedDelayTask(routing::checkReplicas, properties.healthCheckInterval());
+            }
+        };
+    }
+
+    @Bean
+    public DisposableBean replicaPoolsShutdown(DataSource dataSource) {
+        ReplicaRoutingDataSource routing = DataSourceUnwrapper.unwrap(dataSource, ReplicaRoutingDataSource.class);
+        return () -> {
+            if (routing != null) {
+                routing.close();
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaMetrics(DataSource dataSource) {
+        ReplicaRoutingDataSource routing = DataSourceUnwrapper.unwrap(dataSource, ReplicaRoutingDataSource.class);
+        return registry -> {
+            if (routing != null) {
+                Gauge.builder("db.replicas.available", routing, ReplicaRoutingDataSource::availableReplicas)
+                        .description("Реплики, на которые направляются чтения")
+                        .register(registry);
+            }
+        };
+    }
+
+    record ReplicaRoutingPostProcessor(ObjectProvider<ReplicaProperties> properties,
+                                       ObjectProvider<ReadYourWrites> readYourWrites,
+                                       ObjectProvider<WatchdogConfig.SlowQueryPostProcessor> slowQueryPostProcessor)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)
+                    || DataSourceUnwrapper.unwrap(dataSource, ReplicaRoutingDataSource.class) != null) {
+                return bean;
+            }
+            HikariDataSource primary = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+            if (primary == null) {
+                return bean;
+            }
+
+            ReplicaProperties replicas = properties.getObject();
+            WatchdogConfig.SlowQueryPostProcessor watchdog = slowQueryPostProcessor.getIfAvailable();
+            Map<String, DataSource> pools = new LinkedHashMap<>();
+            List<String> urls = replicas.urls();
+            for (int i = 0; i < urls.size(); i++) {
+                HikariDataSource pool = replicaPool(primary, replicas, urls.get(i), i + 1);
+                pools.put(pool.getPoolName(), watchdog != null
+                        ? (DataSource) watchdog.postProcessAfterInitialization(pool, pool.getPoolName())
+                        : pool);
+            }
+            if (pools.isEmpty()) {
+                return bean;
+            }
+            return new LazyConnectionDataSourceProxy(
+                    new ReplicaRoutingDataSource(dataSource, pools, replicas.maxLag(), readYourWrites.getObject()));
+        }
+
+        /**
+         * Пул реплики не проверяет соединение при создании, чтобы недоступная реплика не мешала старту.
+         */
+        private static HikariDataSource replicaPool(HikariDataSource primary, ReplicaProperties replicas,
+                                                    String url, int number) {
+            HikariDataSource pool = new HikariDataSource();
+            primary.copyStateTo(pool);
+            pool.setPoolName((primary.getPoolName() != null ? primary.getPoolName() : "HikariPool") + "-replica-" + number);
+            pool.setJdbcUrl(url);
+            if (replicas.username() != null) {
+                pool.setUsername(replicas.username());
+                pool.setPassword(replicas.password());
+            }
+            pool.setReadOnly(true);
+            pool.setConnectionTimeout(replicas.connectTimeout().toMillis());
+            pool.setInitializationFailTimeout(-1);
+            return pool;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
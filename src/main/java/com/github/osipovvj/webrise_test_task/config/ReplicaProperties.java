@@ -0,0 +1,27 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param urls           JDBC URL реплик
+ * @param username       пользователь реплик, по умолчанию как у основной БД
+ * @param connectTimeout сколько ждать соединение с репликой, прежде чем перейти к следующей
+ * @param maxLag         реплика с большим отставанием не получает запросов до следующей проверки
+ * @param readYourWrites сколько после изменяющего запроса клиента его чтения идут в основную БД; 0 отключает
+ */
+@ConfigurationProperties(prefix = "app.replicas")
+public record ReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("1s") Duration connectTimeout,
+        @DefaultValue("5s") Duration healthCheckInterval,
+        @DefaultValue("10s") Duration maxLag,
+        @DefaultValue("5s") Duration readYourWrites
+) {
+}
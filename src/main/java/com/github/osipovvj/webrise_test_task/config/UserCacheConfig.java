@@ -0,0 +1,49 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+@Configuration
+public class UserCacheConfig {
+
+    /**
+     * Кэш ответов GET /users/{id}. Пустое значение означает, что пользователя нет: такие записи живут
+     * меньше и защищают БД от повторных запросов несуществующих id.
+     */
+    @Bean
+    public Cache<Long, Optional<UserResponse>> userResponseCache(UserCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new Expiry<Long, Optional<UserResponse>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<UserResponse> user, long currentTime) {
+                        return (user.isPresent() ? properties.ttl() : properties.negativeTtl()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<UserResponse> user, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<UserResponse> user, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public MeterBinder userResponseCacheMetrics(Cache<Long, Optional<UserResponse>> userResponseCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, userResponseCache, "users");
+    }
+}
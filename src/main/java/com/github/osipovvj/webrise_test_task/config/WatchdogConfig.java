@@ -0,0 +1,95 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import com.github.osipovvj.webrise_test_task.datasource.SlowQueryDataSource;
+import com.github.osipovvj.webrise_test_task.metrics.SqlStatementCounter;
+import com.github.osipovvj.webrise_test_task.watchdog.PerformanceWatchdog;
+import com.github.osipovvj.webrise_test_task.watchdog.SlowRequestFilter;
+import com.github.osipovvj.webrise_test_task.watchdog.WatchdogEndpoint;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск медленных HTTP- и SQL-запросов. SQL замеряется на уровне JDBC, поэтому в отчёт попадают
+ * и запросы Hibernate, и нативные запросы, и JdbcTemplate.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.watchdog", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WatchdogConfig {
+    /**
+     * Сколько запросов на EXPLAIN может ждать в очереди; остальные отбрасываются.
+     */
+    private static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+    /**
+     * Оборачивает пул раньше {@link DbBulkheadConfig}, чтобы семафор оставался внешним слоем. Порядок
+     * Spring определяет по типу фабричного метода, поэтому возвращается конкретный класс.
+     */
+    @Bean
+    public static SlowQueryPostProcessor slowQueryPostProcessor(ObjectProvider<WatchdogProperties> properties,
+                                                                ObjectProvider<PerformanceWatchdog> watchdog) {
+        return new SlowQueryPostProcessor(properties, watchdog);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService watchdogExplainExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY),
+                new CustomizableThreadFactory("watchdog-explain-"),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Bean
+    public PerformanceWatchdog performanceWatchdog(WatchdogProperties properties, Clock clock,
+                                                   @Qualifier("watchdogExplainExecutor") ExecutorService explainExecutor) {
+        return new PerformanceWatchdog(properties, clock, explainExecutor);
+    }
+
+    @Bean
+    public WatchdogEndpoint watchdogEndpoint(PerformanceWatchdog performanceWatchdog) {
+        return new WatchdogEndpoint(performanceWatchdog);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SlowRequestFilter> slowRequestFilter(PerformanceWatchdog performanceWatchdog,
+                                                                       SqlStatementCounter sqlStatementCounter) {
+        FilterRegistrationBean<SlowRequestFilter> registration =
+                new FilterRegistrationBean<>(new SlowRequestFilter(performanceWatchdog, sqlStatementCounter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    record SlowQueryPostProcessor(ObjectProvider<WatchdogProperties> properties,
+                                  ObjectProvider<PerformanceWatchdog> watchdog)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource dataSource)) {
+                return bean;
+            }
+
+            return new SlowQueryDataSource(dataSource, properties.getObject().slowQueryThreshold(),
+                    (target, sql, parameters, elapsedNanos) ->
+                            watchdog.getObject().slowQuery(target, sql, parameters, elapsedNanos));
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
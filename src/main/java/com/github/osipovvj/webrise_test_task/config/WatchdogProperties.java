@@ -0,0 +1,23 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param capacity    сколько последних медленных HTTP- и SQL-запросов хранить
+ * @param explainRate доля медленных SELECT, для которых снимается EXPLAIN (ANALYZE, BUFFERS); 0 отключает
+ * @param captureParameters сохранять значения параметров SQL и строки запроса; по умолчанию они маскируются,
+ *                          потому что содержат персональные данные (email, имена пользователей)
+ */
+@ConfigurationProperties(prefix = "app.watchdog")
+public record WatchdogProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500ms") Duration slowRequestThreshold,
+        @DefaultValue("100ms") Duration slowQueryThreshold,
+        @DefaultValue("100") int capacity,
+        @DefaultValue("0") double explainRate,
+        @DefaultValue("false") boolean captureParameters
+) {
+}
@@ -0,0 +1,17 @@
+package com.github.osipovvj.webrise_test_task.config;
+
+import com.github.osipovvj.webrise_test_task.enums.ExportFormat;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, PopularityWindow.class, PopularityWindow::fromValue);
+        registry.addConverter(String.class, ExportFormat.class, ExportFormat::fromValue);
+    }
+}
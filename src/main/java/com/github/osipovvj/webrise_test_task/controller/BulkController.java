@@ -0,0 +1,241 @@
+package com.github.osipovvj.webrise_test_task.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkChangeStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkSubscribeRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkUsersRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkItemResult;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkOperationResponse;
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.service.UserImportService;
+import com.github.osipovvj.webrise_test_task.service.UserSubscriptionBulkService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Tag(name = "BulkController", description = "Пакетные операции.")
+public class BulkController {
+    private static final Logger log = LoggerFactory.getLogger(BulkController.class);
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserImportService userImportService;
+    private final UserSubscriptionBulkService userSubscriptionBulkService;
+    private final ObjectMapper objectMapper;
+
+    @Operation(
+            summary = "Метод пакетного импорта пользователей из NDJSON.",
+            requestBody = @RequestBody(
+                    description = "По одному объекту UserRequest в строке.",
+                    content = @Content(mediaType = NDJSON, schema = @Schema(implementation = UserRequest.class))
+            )
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Построчный отчёт об импорте, по одному объекту BulkItemResult в строке.",
+            content = @Content(mediaType = NDJSON, schema = @Schema(implementation = BulkItemResult.class))
+    )
+    @PostMapping(value = "/users:bulk", consumes = NDJSON, produces = NDJSON)
+    public void importUsersNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.atInfo().addKeyValue("format", "ndjson").log("Запрос на пакетный импорт пользователей");
+        importUsers(request, response, false);
+    }
+
+    @Operation(
+            summary = "Метод пакетного импорта пользователей из JSON-массива.",
+            requestBody = @RequestBody(
+                    description = "Массив объектов UserRequest.",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserRequest[].class))
+            )
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Поэлементный отчёт об импорте, по одному объекту BulkItemResult в строке.",
+            content = @Content(mediaType = NDJSON, schema = @Schema(implementation = BulkItemResult.class))
+    )
+    @PostMapping(value = "/users:bulk", consumes = "application/json", produces = NDJSON)
+    public void importUsersJson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.atInfo().addKeyValue("format", "json").log("Запрос на пакетный импорт пользователей");
+        importUsers(request, response, true);
+    }
+
+    @Operation(summary = "Метод подписки группы пользователей на сервис.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Пользователи подписаны, в отчёте перечислены пропущенные.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkOperationResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Сервис не найден.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/subscriptions/{id}/users:subscribe", consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<BulkOperationResponse> subscribeUsers(
+            @Parameter(description = "ID сервиса.", example = "12")
+            @PathVariable Long id,
+
+            @Valid @org.springframework.web.bind.annotation.RequestBody BulkSubscribeRequest request
+    ) {
+        log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("users", request.userIds().size())
+                .log("Запрос на пакетную подписку пользователей");
+        try {
+            BulkOperationResponse response = userSubscriptionBulkService.subscribe(id, request);
+            logCompleted(id, response, "Пакетная подписка завершена");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.atError().addKeyValue("subscriptionId", id).setCause(e).log("Ошибка при пакетной подписке");
+            throw e;
+        }
+    }
+
+    @Operation(summary = "Метод отписки группы пользователей от сервиса.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Пользователи отписаны, в отчёте перечислены пропущенные.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkOperationResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Сервис не найден.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/subscriptions/{id}/users:unsubscribe", consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<BulkOperationResponse> unsubscribeUsers(
+            @Parameter(description = "ID сервиса.", example = "12")
+            @PathVariable Long id,
+
+            @Valid @org.springframework.web.bind.annotation.RequestBody BulkUsersRequest request
+    ) {
+        log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("users", request.userIds().size())
+                .log("Запрос на пакетную отписку пользователей");
+        try {
+            BulkOperationResponse response = userSubscriptionBulkService.unsubscribe(id, request);
+            logCompleted(id, response, "Пакетная отписка завершена");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.atError().addKeyValue("subscriptionId", id).setCause(e).log("Ошибка при пакетной отписке");
+            throw e;
+        }
+    }
+
+    @Operation(summary = "Метод изменения статуса подписки группы пользователей или всех подписчиков сервиса.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Статус подписок изменён, в отчёте перечислены пропущенные пользователи.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkOperationResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Сервис не найден.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/subscriptions/{id}/users:changeStatus", consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<BulkOperationResponse> changeUsersStatus(
+            @Parameter(description = "ID сервиса.", example = "12")
+            @PathVariable Long id,
+
+            @Valid @org.springframework.web.bind.annotation.RequestBody BulkChangeStatusRequest request
+    ) {
+        log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("status", request.subscriptionStatus())
+                .log("Запрос на пакетное изменение статуса подписок");
+        try {
+            BulkOperationResponse response = userSubscriptionBulkService.changeStatus(id, request);
+            logCompleted(id, response, "Пакетное изменение статуса подписок завершено");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.atError().addKeyValue("subscriptionId", id).setCause(e).log("Ошибка при пакетном изменении статуса подписок");
+            throw e;
+        }
+    }
+
+    private void importUsers(HttpServletRequest request, HttpServletResponse response, boolean jsonArray) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        Map<BulkItemStatus, Long> summary = new EnumMap<>(BulkItemStatus.class);
+        OutputStream out = response.getOutputStream();
+        Consumer<BulkItemResult> writer = result -> {
+            summary.merge(result.status(), 1L, Long::sum);
+            writeLine(out, result);
+        };
+
+        try {
+            if (jsonArray) {
+                userImportService.importJsonArray(request.getInputStream(), writer);
+            } else {
+                userImportService.importNdjson(request.getInputStream(), writer);
+            }
+            out.flush();
+            log.atInfo().addKeyValue("results", summary).log("Пакетный импорт пользователей завершён");
+        } catch (Exception e) {
+            log.atError().addKeyValue("results", summary).setCause(e).log("Ошибка при пакетном импорте пользователей");
+            throw e;
+        }
+    }
+
+    private static void logCompleted(Long id, BulkOperationResponse response, String message) {
+        log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("processed", response.processed())
+                .addKeyValue("applied", response.applied()).addKeyValue("failures", response.failures().size())
+                .log(message);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
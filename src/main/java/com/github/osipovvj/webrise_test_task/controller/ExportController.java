@@ -0,0 +1,196 @@
+package com.github.osipovvj.webrise_test_task.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.osipovvj.webrise_test_task.dto.request.UserExportFilter;
+import com.github.osipovvj.webrise_test_task.enums.ExportFormat;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSubscriptionExportRow;
+import com.github.osipovvj.webrise_test_task.service.UserExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Tag(name = "ExportController", description = "Выгрузка данных.")
+public class ExportController {
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+    private static final String CSV_HEADER = "user_id,username,email,user_subscription_id,subscription_id,"
+            + "subscription_name,service_name,price,status,subscribed_at,updated_at\n";
+
+    private final UserExportService userExportService;
+    private final ObjectMapper objectMapper;
+
+    @Operation(summary = "Метод выгрузки пользователей с их подписками.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "По строке на подписку пользователя; пользователь без подписок выгружается одной строкой "
+                            + "с пустыми полями подписки. При Accept-Encoding: gzip ответ сжимается.",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = UserSubscriptionExportRow.class)),
+                            @Content(mediaType = "text/csv")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные параметры выгрузки.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/users:export", produces = {"application/x-ndjson", "text/csv", "application/problem+json"})
+    public void exportUsers(
+            @Parameter(description = "Формат выгрузки: ndjson или csv.", example = "csv")
+            @RequestParam(defaultValue = "ndjson") ExportFormat format,
+
+            @Parameter(description = "Выгружать только подписки с указанным статусом.", example = "ACTIVE")
+            @RequestParam(required = false) SubscriptionStatus status,
+
+            @Parameter(description = "Подписки, оформленные не раньше указанного момента.", example = "2025-09-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Подписки, оформленные раньше указанного момента.", example = "2025-10-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        log.atInfo().addKeyValue("format", format.getValue()).addKeyValue("status", status)
+                .addKeyValue("from", from).addKeyValue("to", to).log("Запрос на выгрузку пользователей");
+        UserExportFilter filter = UserExportFilter.of(status, from, to);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + format.getValue() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptsGzip(request);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        long rows = 0;
+        try (OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream()) : response.getOutputStream()) {
+            Consumer<UserSubscriptionExportRow> writer;
+            if (format == ExportFormat.CSV) {
+                write(out, CSV_HEADER);
+                writer = row -> write(out, csvLine(row));
+            } else {
+                writer = row -> writeLine(out, row);
+            }
+            rows = userExportService.exportUserSubscriptions(filter, writer);
+            log.atInfo().addKeyValue("format", format.getValue()).addKeyValue("rows", rows).log("Выгрузка пользователей завершена");
+        } catch (Exception e) {
+            log.atError().addKeyValue("format", format.getValue()).addKeyValue("rows", rows).setCause(e)
+                    .log("Ошибка при выгрузке пользователей");
+            throw e;
+        }
+    }
+
+    /**
+     * Клиент выгрузки присылает Accept: text/csv или application/x-ndjson, и общий обработчик не смог бы записать
+     * ответ об ошибке в JSON. Тип ответа задаётся явно, поэтому согласование по Accept не выполняется.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ProblemDetailResponse> handleInvalidRequestException(
+            InvalidRequestException exception,
+            HttpServletRequest request
+    ) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(new ProblemDetailResponse(
+                        LocalDateTime.now(),
+                        "/error/bad-request",
+                        "Bad Request Error",
+                        HttpStatus.BAD_REQUEST.value(),
+                        exception.getMessage(),
+                        request.getRequestURI(),
+                        null
+                ));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(OutputStream out, String value) {
+        try {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvLine(UserSubscriptionExportRow row) {
+        return String.join(",",
+                csv(row.userId()),
+                csv(row.username()),
+                csv(row.email()),
+                csv(row.userSubscriptionId()),
+                csv(row.subscriptionId()),
+                csv(row.subscriptionName()),
+                csv(row.serviceName()),
+                row.price() == null ? "" : row.price().toPlainString(),
+                csv(row.status()),
+                csv(row.subscribedAt()),
+                csv(row.updatedAt())
+        ) + "\n";
+    }
+
+    /**
+     * Поле CSV по RFC 4180: значения с запятой, кавычкой или переводом строки берутся в кавычки.
+     */
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.osipovvj.webrise_test_task.controller;
+
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
+import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+@Tag(name = "JobController", description = "Состояние фоновых задач.")
+public class JobController {
+    private static final Logger log = LoggerFactory.getLogger(JobController.class);
+
+    private final JobService jobService;
+
+    @Operation(summary = "Метод получения состояния фоновой задачи.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние задачи успешно получено.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = JobResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Задача не найдена или её результат уже удалён.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/{id}", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<JobResponse> getJob(
+            @Parameter(description = "ID задачи.", example = "3f1c2a8e-5b7d-4c1e-9a0f-2d6b8e4c7a11")
+            @PathVariable UUID id
+    ) {
+        log.atInfo().addKeyValue("jobId", id).log("Запрос на получение задачи");
+        try {
+            JobResponse response = jobService.getJob(id);
+            log.atInfo().addKeyValue("jobId", id).addKeyValue("status", response.status()).log("Задача получена");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.atError().addKeyValue("jobId", id).setCause(e).log("Ошибка при получении задачи");
+            throw e;
+        }
+    }
+
+    static URI location(JobResponse job) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/v1/jobs/{id}")
+                .buildAndExpand(job.id())
+                .toUri();
+    }
+}
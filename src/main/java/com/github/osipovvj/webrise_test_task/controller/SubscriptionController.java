@@ -1,11 +1,17 @@
 package com.github.osipovvj.webrise_test_task.controller;
 
 import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
 import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.service.CascadeDeleteService;
 import com.github.osipovvj.webrise_test_task.service.SubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,8 +22,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/subscriptions")
@@ -27,25 +35,47 @@ public class SubscriptionController {
     private static final Logger log = LoggerFactory.getLogger(SubscriptionController.class);
 
     private final SubscriptionService subscriptionService;
+    private final CascadeDeleteService cascadeDeleteService;
 
-    @Operation(summary = "Метод получения топ 3 самых популярных сервиса.")
-    @ApiResponse(
-            responseCode = "200",
-            description = "Список успешно получен.",
-            content = @Content(
-                    mediaType = "application/json",
-                    schema = @Schema(implementation = TopSubscriptionsResponse.class)
+    @Operation(summary = "Метод получения самых популярных сервисов.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Список успешно получен.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TopSubscriptionsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Неверные параметры запроса.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
             )
-    )
-    @GetMapping(value = "/top", produces = "application/json")
-    public ResponseEntity<TopSubscriptionsResponse> getTopSubscriptions() {
-        log.info("Запрос на получение топ-3 популярных сервисов");
+    })
+    @GetMapping(value = "/top", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<TopSubscriptionsResponse> getTopSubscriptions(
+            @Parameter(description = "Количество сервисов в рейтинге.", example = "3")
+            @RequestParam(defaultValue = "3") int limit,
+
+            @Parameter(description = "Учитывать только подписки с указанным статусом.", example = "ACTIVE")
+            @RequestParam(required = false) SubscriptionStatus status,
+
+            @Parameter(description = "Период, за который оформлены подписки: 7d, 30d или all.", example = "7d")
+            @RequestParam(defaultValue = "all") PopularityWindow window
+    ) {
+        log.atInfo().addKeyValue("limit", limit).addKeyValue("status", status).addKeyValue("window", window.getValue())
+                .log("Запрос на получение топа популярных сервисов");
         try {
-            TopSubscriptionsResponse response = subscriptionService.getTopSubscriptions();
-            log.info("Топ-3 сервисов успешно получены: {}", response);
+            TopSubscriptionsResponse response = subscriptionService.getTopSubscriptions(limit, status, window);
+            log.atInfo().addKeyValue("limit", limit).addKeyValue("count", response.subscriptions().size()).log("Топ сервисов получен");
+            log.debug("Топ-{} сервисов: {}", limit, response);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Ошибка при получении топ-3 сервисов", e);
+            log.atError().addKeyValue("limit", limit).setCause(e).log("Ошибка при получении топа сервисов");
             throw e;
         }
     }
@@ -71,18 +101,19 @@ public class SubscriptionController {
     })
     @PostMapping(consumes = "application/json", produces = {"application/json", "application/problem+json"})
     public ResponseEntity<SubscriptionResponse> createSubscription(@RequestBody SubscriptionRequest request) {
-        log.info("Запрос на создание сервиса: {}", request);
+        log.info("Запрос на создание сервиса");
+        log.debug("Данные сервиса: {}", request);
         try {
             SubscriptionResponse response = subscriptionService.createSubscription(request);
-            log.info("Сервис создан: {}", response);
+            log.atInfo().addKeyValue("subscriptionId", response.id()).log("Сервис создан");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Ошибка при создании сервиса: {}", request, e);
+            log.atError().addKeyValue("subscriptionName", request.subscriptionName()).setCause(e).log("Ошибка при создании сервиса");
             throw e;
         }
     }
 
-    @Operation(summary = "Метод получения списка всех сервисов.")
+    @Operation(summary = "Метод получения страницы списка сервисов.")
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
@@ -91,17 +122,43 @@ public class SubscriptionController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = SubscriptionsResponse.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Список не изменился с версии из If-None-Match.",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректный курсор или размер страницы.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
             )
     })
-    @GetMapping(produces = "application/json")
-    public ResponseEntity<SubscriptionsResponse> updateSubscription() {
-        log.info("Запрос на получение всех сервисов");
+    @GetMapping(produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<SubscriptionsResponse> updateSubscription(
+            @Parameter(description = "Курсор из поля nextCursor предыдущей страницы.", example = "aWQ6MjA")
+            @RequestParam(required = false) String after,
+
+            @Parameter(description = "Размер страницы, не больше " + KeysetRequest.MAX_LIMIT + ".", example = "20")
+            @RequestParam(required = false) Integer limit,
+
+            @Parameter(hidden = true) WebRequest webRequest
+    ) {
+        log.atInfo().addKeyValue("after", after).addKeyValue("limit", limit).log("Запрос на получение страницы сервисов");
         try {
-            SubscriptionsResponse response = subscriptionService.getSubscriptions();
-            log.info("Список сервисов успешно получен: {}", response);
+            if (webRequest.checkNotModified(subscriptionService.getSubscriptionsETag())) {
+                log.atInfo().addKeyValue("after", after).log("Список сервисов не изменился");
+                return null;
+            }
+            SubscriptionsResponse response = subscriptionService.getSubscriptions(KeysetRequest.of(after, limit));
+            log.atInfo().addKeyValue("count", response.count()).log("Страница сервисов получена");
+            log.debug("Страница сервисов: {}", response);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Ошибка при получении списка сервисов", e);
+            log.atError().addKeyValue("after", after).setCause(e).log("Ошибка при получении списка сервисов");
             throw e;
         }
     }
@@ -126,7 +183,15 @@ public class SubscriptionController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "Сервис с таким именем уже существует.",
+                    description = "Сервис с таким именем уже существует или изменён параллельным запросом.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Версия из If-Match устарела.",
                     content = @Content(
                             mediaType = "application/problem+json",
                             schema = @Schema(implementation = ProblemDetailResponse.class)
@@ -137,15 +202,19 @@ public class SubscriptionController {
     public ResponseEntity<SubscriptionResponse> updateSubscription(
             @Parameter(description = "ID сервиса.", example = "20")
             @PathVariable Long id,
-            @RequestBody SubscriptionRequest request
+            @RequestBody SubscriptionRequest request,
+
+            @Parameter(description = "ETag сервиса, полученный ранее.", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        log.info("Запрос на обновление сервиса id={}, данные: {}", id, request);
+        log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("ifMatch", ifMatch).log("Запрос на обновление сервиса");
+        log.debug("Новые данные сервиса id={}: {}", id, request);
         try {
-            SubscriptionResponse response = subscriptionService.updateSubscription(id, request);
-            log.info("Сервис обновлён: {}", response);
-            return ResponseEntity.ok(response);
+            SubscriptionResponse response = subscriptionService.updateSubscription(id, request, ETags.expectedVersion(ifMatch));
+            log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("version", response.version()).log("Сервис обновлён");
+            return ResponseEntity.ok().eTag(ETags.ofVersion(response.version())).body(response);
         } catch (Exception e) {
-            log.error("Ошибка при обновлении сервиса id={}, данные: {}", id, request, e);
+            log.atError().addKeyValue("subscriptionId", id).setCause(e).log("Ошибка при обновлении сервиса");
             throw e;
         }
     }
@@ -157,6 +226,14 @@ public class SubscriptionController {
                     description = "Сервис успешно удалён.",
                     content = @Content
             ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Удаление запущено фоновой задачей, её состояние доступно по адресу из заголовка Location.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = JobResponse.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Сервис не найден.",
@@ -166,18 +243,26 @@ public class SubscriptionController {
                     )
             )
     })
-    @DeleteMapping(value = "/{id}", produces = "application/problem+json")
-    public ResponseEntity<Void> deleteSubscription(
+    @DeleteMapping(value = "/{id}", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<JobResponse> deleteSubscription(
             @Parameter(description = "ID сервиса.", example = "20")
-            @PathVariable long id
+            @PathVariable long id,
+
+            @Parameter(description = "Удалить в фоновой задаче.", example = "true")
+            @RequestParam(defaultValue = "false") boolean async
     ) {
-        log.info("Запрос на удаление сервиса id={}", id);
+        log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("async", async).log("Запрос на удаление сервиса");
         try {
-            subscriptionService.deleteSubscription(id);
-            log.info("Сервис id={} успешно удалён", id);
+            if (async) {
+                JobResponse job = cascadeDeleteService.deleteSubscriptionAsync(id);
+                log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("jobId", job.id()).log("Удаление сервиса запущено задачей");
+                return ResponseEntity.accepted().location(JobController.location(job)).body(job);
+            }
+            cascadeDeleteService.deleteSubscription(id);
+            log.atInfo().addKeyValue("subscriptionId", id).log("Сервис удалён");
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            log.error("Ошибка при удалении сервиса id={}", id, e);
+            log.atError().addKeyValue("subscriptionId", id).setCause(e).log("Ошибка при удалении сервиса");
             throw e;
         }
     }
@@ -3,12 +3,17 @@ package com.github.osipovvj.webrise_test_task.controller;
 import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
 import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
 import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
 import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.service.CascadeDeleteService;
 import com.github.osipovvj.webrise_test_task.service.UserService;
 import com.github.osipovvj.webrise_test_task.service.UserSubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,11 +23,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/v1/users")
 @RequiredArgsConstructor
@@ -32,6 +41,7 @@ public class UserController {
 
     private final UserService userService;
     private final UserSubscriptionService userSubscriptionService;
+    private final CascadeDeleteService cascadeDeleteService;
 
     @Operation(summary = "Метод регистрации нового пользователя.")
     @ApiResponses(value = {
@@ -64,13 +74,14 @@ public class UserController {
     public ResponseEntity<UserResponse> createUser(
             @Valid @RequestBody UserRequest request
     ) {
-        log.info("Запрос на создание пользователя: {}", request);
+        log.info("Запрос на создание пользователя");
+        log.debug("Данные пользователя: {}", request);
         try {
             UserResponse response = userService.createUser(request);
-            log.info("Пользователь создан: {}", response);
+            log.atInfo().addKeyValue("userId", response.id()).log("Пользователь создан");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Ошибка при создании пользователя: {}", request, e);
+            log.atError().addKeyValue("username", request.username()).setCause(e).log("Ошибка при создании пользователя");
             throw e;
         }
     }
@@ -85,6 +96,11 @@ public class UserController {
                             schema = @Schema(implementation = UserResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Пользователь не изменился с версии из If-None-Match или If-Modified-Since.",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Пользователь не найден.",
@@ -97,15 +113,21 @@ public class UserController {
     @GetMapping(value = "/{id}", produces = {"application/json", "application/problem+json"})
     public ResponseEntity<UserResponse> getUser(
             @Parameter(description = "ID пользователя.", example = "123")
-            @PathVariable long id
+            @PathVariable long id,
+
+            @Parameter(hidden = true) WebRequest webRequest
     ) {
-        log.info("Запрос на получение пользователя с id={}", id);
+        log.atInfo().addKeyValue("userId", id).log("Запрос на получение пользователя");
         try {
             UserResponse response = userService.getUserById(id);
-            log.info("Получен пользователь: {}", response);
+            if (webRequest.checkNotModified(ETags.ofVersion(response.version()), ETags.lastModified(response.updatedAt()))) {
+                log.atInfo().addKeyValue("userId", id).log("Пользователь не изменился");
+                return null;
+            }
+            log.atInfo().addKeyValue("userId", id).addKeyValue("version", response.version()).log("Пользователь получен");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Ошибка при получении пользователя с id={}", id, e);
+            log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при получении пользователя");
             throw e;
         }
     }
@@ -130,7 +152,15 @@ public class UserController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "Пользователь с указанными данными уже существует.",
+                    description = "Пользователь с указанными данными уже существует или изменён параллельным запросом.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Версия из If-Match устарела.",
                     content = @Content(
                             mediaType = "application/problem+json",
                             schema = @Schema(implementation = ProblemDetailResponse.class)
@@ -142,15 +172,19 @@ public class UserController {
             @Parameter(description = "ID пользователя.", example = "123")
             @PathVariable long id,
 
-            @Valid @RequestBody UserRequest userRequest
+            @Valid @RequestBody UserRequest userRequest,
+
+            @Parameter(description = "ETag пользователя, полученный ранее.", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        log.info("Запрос на обновление пользователя id={}, данные: {}", id, userRequest);
+        log.atInfo().addKeyValue("userId", id).addKeyValue("ifMatch", ifMatch).log("Запрос на обновление пользователя");
+        log.debug("Новые данные пользователя id={}: {}", id, userRequest);
         try {
-            UserResponse response = userService.updateUser(id, userRequest);
-            log.info("Пользователь обновлён: {}", response);
-            return ResponseEntity.ok(response);
+            UserResponse response = userService.updateUser(id, userRequest, ETags.expectedVersion(ifMatch));
+            log.atInfo().addKeyValue("userId", id).addKeyValue("version", response.version()).log("Пользователь обновлён");
+            return ResponseEntity.ok().eTag(ETags.ofVersion(response.version())).body(response);
         } catch (Exception e) {
-            log.error("Ошибка при обновлении пользователя id={}, данные: {}", id, userRequest, e);
+            log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при обновлении пользователя");
             throw e;
         }
     }
@@ -162,6 +196,14 @@ public class UserController {
                     description = "Пользователь успешно удалён.",
                     content = @Content
             ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Удаление запущено фоновой задачей, её состояние доступно по адресу из заголовка Location.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = JobResponse.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Пользователь не найден.",
@@ -171,18 +213,26 @@ public class UserController {
                     )
             )
     })
-    @DeleteMapping(value = "/{id}", produces = "application/problem+json")
-    public ResponseEntity<Void> deleteUser(
+    @DeleteMapping(value = "/{id}", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<JobResponse> deleteUser(
             @Parameter(description = "ID пользователя.", example = "123")
-            @PathVariable long id
+            @PathVariable long id,
+
+            @Parameter(description = "Удалить в фоновой задаче.", example = "true")
+            @RequestParam(defaultValue = "false") boolean async
     ) {
-        log.info("Запрос на удаление пользователя id={}", id);
+        log.atInfo().addKeyValue("userId", id).addKeyValue("async", async).log("Запрос на удаление пользователя");
         try {
-            userService.deleteUserById(id);
-            log.info("Пользователь id={} удалён", id);
+            if (async) {
+                JobResponse job = cascadeDeleteService.deleteUserAsync(id);
+                log.atInfo().addKeyValue("userId", id).addKeyValue("jobId", job.id()).log("Удаление пользователя запущено задачей");
+                return ResponseEntity.accepted().location(JobController.location(job)).body(job);
+            }
+            cascadeDeleteService.deleteUser(id);
+            log.atInfo().addKeyValue("userId", id).log("Пользователь удалён");
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            log.error("Ошибка при удалении пользователя id={}", id, e);
+            log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при удалении пользователя");
             throw e;
         }
     }
@@ -221,18 +271,19 @@ public class UserController {
 
             @RequestBody UserSubscriptionRequest request
     ) {
-        log.info("Запрос на добавление подписки пользователю id={}, данные: {}", id, request);
+        log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", request.subscriptionId()).log("Запрос на добавление подписки пользователю");
+        log.debug("Данные подписки пользователя id={}: {}", id, request);
         try {
             UserSubscriptionResponse response = userSubscriptionService.addUserSubscription(id, request);
-            log.info("Подписка добавлена пользователю id={}: {}", id, response);
+            log.atInfo().addKeyValue("userId", id).addKeyValue("userSubscriptionId", response.id()).log("Подписка добавлена пользователю");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Ошибка при добавлении подписки пользователю id={}, данные: {}", id, request, e);
+            log.atError().addKeyValue("userId", id).addKeyValue("subscriptionId", request.subscriptionId()).setCause(e).log("Ошибка при добавлении подписки пользователю");
             throw e;
         }
     }
 
-    @Operation(summary = "Метод получения списка пользовательских подписок.")
+    @Operation(summary = "Метод получения страницы списка пользовательских подписок.")
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
@@ -242,6 +293,19 @@ public class UserController {
                             schema = @Schema(implementation = UserSubscriptionsResponse.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Список не изменился с версии из If-None-Match.",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректный курсор или размер страницы.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Пользователь не найден.",
@@ -253,16 +317,67 @@ public class UserController {
     })
     @GetMapping(value = "/{id}/subscriptions", produces = {"application/json", "application/problem+json"})
     public ResponseEntity<UserSubscriptionsResponse> getUsersSubscriptions(
+            @Parameter(description = "ID пользователя.", example = "123")
+            @PathVariable long id,
+
+            @Parameter(description = "Курсор из поля nextCursor предыдущей страницы.", example = "aWQ6MTA")
+            @RequestParam(required = false) String after,
+
+            @Parameter(description = "Размер страницы, не больше " + KeysetRequest.MAX_LIMIT + ".", example = "20")
+            @RequestParam(required = false) Integer limit,
+
+            @Parameter(hidden = true) WebRequest webRequest
+    ) {
+        log.atInfo().addKeyValue("userId", id).addKeyValue("after", after).addKeyValue("limit", limit).log("Запрос на получение подписок пользователя");
+        try {
+            Optional<String> eTag = userSubscriptionService.getUserSubscriptionsETag(id);
+            if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+                log.atInfo().addKeyValue("userId", id).log("Подписки пользователя не изменились");
+                return null;
+            }
+            UserSubscriptionsResponse response = userSubscriptionService.getUserSubscriptions(id, KeysetRequest.of(after, limit));
+            log.atInfo().addKeyValue("userId", id).addKeyValue("count", response.count()).log("Подписки пользователя получены");
+            log.debug("Подписки пользователя id={}: {}", id, response);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при получении подписок пользователя");
+            throw e;
+        }
+    }
+
+    @Operation(summary = "Метод получения сводки трат пользователя по подпискам.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Сводка успешно получена.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = UserSpendResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Пользователь не найден.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/{id}/spend", produces = {"application/json", "application/problem+json"})
+    public ResponseEntity<UserSpendResponse> getUserSpend(
             @Parameter(description = "ID пользователя.", example = "123")
             @PathVariable long id
     ) {
-        log.info("Запрос на получение подписок пользователя id={}", id);
+        log.atInfo().addKeyValue("userId", id).log("Запрос на получение сводки трат пользователя");
         try {
-            UserSubscriptionsResponse response = userSubscriptionService.getUserSubscriptions(id);
-            log.info("Получены подписки пользователя id={}: {}", id, response);
+            UserSpendResponse response = userSubscriptionService.getUserSpend(id);
+            log.atInfo().addKeyValue("userId", id).addKeyValue("activeSubscriptions", response.activeSubscriptionCount())
+                    .log("Сводка трат пользователя получена");
+            log.debug("Сводка трат пользователя id={}: {}", id, response);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Ошибка при получении подписок пользователя id={}", id, e);
+            log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при получении сводки трат пользователя");
             throw e;
         }
     }
@@ -284,6 +399,22 @@ public class UserController {
                             mediaType = "application/problem+json",
                             schema = @Schema(implementation = ProblemDetailResponse.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Подписка изменена параллельным запросом.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Версия из If-Match устарела.",
+                    content = @Content(
+                            mediaType = "application/problem+json",
+                            schema = @Schema(implementation = ProblemDetailResponse.class)
+                    )
             )
     })
     @PatchMapping(value = "/{id}/subscription/{sub_id}", consumes = "application/json", produces = {"application/json", "application/problem+json"})
@@ -294,15 +425,22 @@ public class UserController {
             @Parameter(description = "ID сервиса.", example = "12")
             @PathVariable Long sub_id,
 
-            @RequestBody ChangeSubscriptionStatusRequest request
+            @RequestBody ChangeSubscriptionStatusRequest request,
+
+            @Parameter(description = "ETag подписки, полученный ранее.", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        log.info("Запрос на изменение статуса подписки: userId={}, subscriptionId={}, данные: {}", id, sub_id, request);
+        log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).addKeyValue("status", request.subscriptionStatus())
+                .addKeyValue("ifMatch", ifMatch).log("Запрос на изменение статуса подписки");
         try {
-            UserSubscriptionResponse response = userSubscriptionService.changeUserSubscriptionStatus(id, sub_id, request);
-            log.info("Статус подписки изменён: {}", response);
-            return ResponseEntity.ok(response);
+            UserSubscriptionResponse response = userSubscriptionService.changeUserSubscriptionStatus(
+                    id, sub_id, request, ETags.expectedVersion(ifMatch)
+            );
+            log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).addKeyValue("status", response.status())
+                    .log("Статус подписки изменён");
+            return ResponseEntity.ok().eTag(ETags.ofVersion(response.version())).body(response);
         } catch (Exception e) {
-            log.error("Ошибка при изменении статуса подписки: userId={}, subscriptionId={}, данные: {}", id, sub_id, request, e);
+            log.atError().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).setCause(e).log("Ошибка при изменении статуса подписки");
             throw e;
         }
     }
@@ -331,13 +469,13 @@ public class UserController {
             @Parameter(description = "ID сервиса.", example = "12")
             @PathVariable long sub_id
     ) {
-        log.info("Запрос на удаление подписки: userId={}, subscriptionId={}", id, sub_id);
+        log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).log("Запрос на удаление подписки");
         try {
             userSubscriptionService.removeUserSubscription(id, sub_id);
-            log.info("Подписка удалена: userId={}, subscriptionId={}", id, sub_id);
+            log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).log("Подписка удалена");
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            log.error("Ошибка при удалении подписки: userId={}, subscriptionId={}", id, sub_id, e);
+            log.atError().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).setCause(e).log("Ошибка при удалении подписки");
             throw e;
         }
     }
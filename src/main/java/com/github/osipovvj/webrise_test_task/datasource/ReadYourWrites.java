@@ -0,0 +1,21 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+/**
+ * Закрепляет чтения текущего потока за основной БД, чтобы клиент видел свои изменения,
+ * ещё не дошедшие до реплик.
+ */
+public class ReadYourWrites {
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    public void pin() {
+        pinned.set(Boolean.TRUE);
+    }
+
+    public void release() {
+        pinned.remove();
+    }
+
+    public boolean isPinned() {
+        return pinned.get() != null;
+    }
+}
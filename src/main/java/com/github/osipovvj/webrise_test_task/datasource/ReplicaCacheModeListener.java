@@ -0,0 +1,58 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Транзакция только для чтения может попасть на отстающую реплику, поэтому её сессия работает мимо кэша второго
+ * уровня и кэша запросов: иначе устаревшие данные жили бы в общем кэше до истечения записи. Режим только чтения
+ * кэша ({@code CacheMode.GET}) не подходит: после промаха Hibernate всё равно кладёт результат в кэш запросов.
+ * Чтения, закреплённые за основной БД ({@link ReadYourWrites}), и транзакции на запись работают с кэшем как обычно.
+ */
+public class ReplicaCacheModeListener implements TransactionExecutionListener {
+    private static final String RETRIEVE_MODE = "jakarta.persistence.cache.retrieveMode";
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaCacheModeListener(EntityManagerFactory entityManagerFactory, ReadYourWrites readYourWrites) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null || !transaction.isReadOnly() || readYourWrites.isPinned()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager == null) {
+            return;
+        }
+
+        // При open-in-view сессия переживает транзакцию, поэтому режим возвращается после её завершения.
+        Map<String, Object> properties = entityManager.getProperties();
+        Object retrieveMode = properties.getOrDefault(RETRIEVE_MODE, CacheRetrieveMode.USE);
+        Object storeMode = properties.getOrDefault(STORE_MODE, CacheStoreMode.USE);
+        entityManager.setProperty(RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
+        entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entityManager.setProperty(RETRIEVE_MODE, retrieveMode);
+                entityManager.setProperty(STORE_MODE, storeMode);
+            }
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Соединения для транзакций только для чтения выдаются репликами по кругу, остальные — основной БД.
+ * Реплика, к которой не удалось подключиться или которая отстала больше {@code maxLag}, исключается
+ * до следующей успешной проверки {@link #checkReplicas()}. Если доступных реплик нет или чтения потока
+ * закреплены за основной БД ({@link ReadYourWrites}), соединение выдаёт основная БД.
+ * <p>
+ * Признак read-only транзакции выставляется после получения соединения, поэтому источник оборачивается
+ * в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: физическое соединение
+ * берётся при первом запросе, когда транзакция уже начата.
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * Отставание реплики в секундах. Если всё полученное уже применено, реплика не отстаёт,
+     * даже когда основная БД давно ничего не меняла. После перезапуска реплики полученная позиция
+     * указывает на начало сегмента WAL, поэтому сравнение нестрогое.
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END
+            """;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxLag;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    ReadYourWrites readYourWrites) {
+        super(primary);
+        this.maxLag = maxLag;
+        this.readYourWrites = readYourWrites;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readYourWrites.isPinned()) {
+            return obtainTargetDataSource().getConnection();
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+        return obtainTargetDataSource().getConnection();
+    }
+
+    /**
+     * Проверяет доступность и отставание реплик: отставшие и недоступные исключаются, восстановившиеся
+     * возвращаются в ротацию.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(LAG_SQL)) {
+                rows.next();
+                double lagSeconds = rows.getDouble(1);
+                if (lagSeconds * 1000 > maxLag.toMillis()) {
+                    eject(replica, "отставание " + lagSeconds + " с");
+                } else if (!replica.available) {
+                    replica.available = true;
+                    log.atInfo().addKeyValue("replica", replica.name).log("Реплика возвращена в ротацию");
+                }
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+    }
+
+    public int availableReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.available).count();
+    }
+
+    /**
+     * Закрывает пулы реплик, в том числе под обёртками. Основная БД закрывается своим владельцем.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource.isWrapperFor(AutoCloseable.class)) {
+                replica.dataSource.unwrap(AutoCloseable.class).close();
+            }
+        }
+    }
+
+    private void eject(Replica replica, String reason) {
+        if (replica.available) {
+            replica.available = false;
+            log.atWarn().addKeyValue("replica", replica.name).log("Реплика исключена из ротации: {}", reason);
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean available = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Замеряет выполнение каждого SQL-запроса и передаёт запросы дольше {@code threshold} вместе с параметрами
+ * в {@link SlowQueryListener}. Соединения и statement'ы оборачиваются динамическими прокси,
+ * остальные вызовы уходят в исходные объекты без изменений.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"
+    );
+
+    private final long thresholdNanos;
+    private final SlowQueryListener listener;
+
+    public SlowQueryDataSource(DataSource target, Duration threshold, SlowQueryListener listener) {
+        super(target);
+        this.thresholdNanos = threshold.toNanos();
+        this.listener = listener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timing(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timing(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection timing(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (method.getName().equals("prepareStatement")) {
+                return timing((PreparedStatement) result, (String) args[0]);
+            }
+            if (method.getName().equals("createStatement")) {
+                return timing((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement timing(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return invoke(statement, method, args);
+            }
+            return execute(statement, method, args, sql, parameters);
+        });
+    }
+
+    private Statement timing(Statement statement) {
+        String[] lastSql = new String[1];
+        return proxy(Statement.class, (proxy, method, args) -> {
+            if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                lastSql[0] = sql;
+            }
+            if (!EXECUTE_METHODS.contains(method.getName())) {
+                return invoke(statement, method, args);
+            }
+            return execute(statement, method, args, lastSql[0], Map.of());
+        });
+    }
+
+    private Object execute(Statement statement, Method method, Object[] args, String sql, Map<Integer, Object> parameters)
+            throws Throwable {
+        long started = System.nanoTime();
+        try {
+            return invoke(statement, method, args);
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            if (elapsed >= thresholdNanos) {
+                listener.slowQuery(obtainTargetDataSource(), sql, new ArrayList<>(parameters.values()), elapsed);
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    public interface SlowQueryListener {
+        /**
+         * @param target     источник соединений без замера, на нём можно повторить запрос
+         * @param sql        текст запроса
+         * @param parameters параметры в порядке позиций
+         */
+        void slowQuery(DataSource target, String sql, List<Object> parameters, long elapsedNanos);
+    }
+}
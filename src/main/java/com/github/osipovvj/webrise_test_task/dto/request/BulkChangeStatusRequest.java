@@ -0,0 +1,18 @@
+package com.github.osipovvj.webrise_test_task.dto.request;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@Schema(name = "BulkChangeStatusRequest", description = "Запрос на изменение статуса подписки группы пользователей.")
+public record BulkChangeStatusRequest(
+        @Schema(description = "Новый статус подписки.", example = "INACTIVE")
+        @NotNull
+        SubscriptionStatus subscriptionStatus,
+
+        @Schema(description = "ID пользователей. Если не указаны, статус меняется у всех подписчиков сервиса.", example = "[1, 2, 3]")
+        List<Long> userIds
+) {
+}
@@ -0,0 +1,18 @@
+package com.github.osipovvj.webrise_test_task.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(name = "BulkSubscribeRequest", description = "Запрос на подписку группы пользователей на сервис.")
+public record BulkSubscribeRequest(
+        @Schema(description = "ID пользователей.", example = "[1, 2, 3]")
+        @NotEmpty
+        List<Long> userIds,
+
+        @Schema(description = "Стоимость подписки для каждого пользователя.", example = "4.875")
+        BigDecimal price
+) {
+}
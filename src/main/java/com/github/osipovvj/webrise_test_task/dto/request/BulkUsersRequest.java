@@ -0,0 +1,14 @@
+package com.github.osipovvj.webrise_test_task.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+@Schema(name = "BulkUsersRequest", description = "Запрос на отписку группы пользователей от сервиса.")
+public record BulkUsersRequest(
+        @Schema(description = "ID пользователей.", example = "[1, 2, 3]")
+        @NotEmpty
+        List<Long> userIds
+) {
+}
@@ -0,0 +1,20 @@
+package com.github.osipovvj.webrise_test_task.dto.request;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр выгрузки по подпискам. Интервал {@code [from, to)}, любая граница может отсутствовать.
+ */
+public record UserExportFilter(SubscriptionStatus status, LocalDateTime from, LocalDateTime to) {
+
+    public static UserExportFilter of(SubscriptionStatus status, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidRequestException("Параметр from должен быть раньше to.");
+        }
+
+        return new UserExportFilter(status, from, to);
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.osipovvj.webrise_test_task.dto.response;
+
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "BulkItemResult", description = "Результат обработки одной записи пакетного запроса.")
+public record BulkItemResult(
+        @Schema(description = "Номер строки (или элемента массива) во входных данных, начиная с 1.", example = "42")
+        long line,
+
+        @Schema(description = "Результат обработки записи.", example = "CREATED")
+        BulkItemStatus status,
+
+        @Schema(description = "ID созданной записи.", example = "123")
+        Long id,
+
+        @Schema(description = "Описание ошибки.", example = "Пользователь с именем User_1 уже существует.")
+        String message
+) {
+        public static BulkItemResult created(final long line, final Long id) {
+                return new BulkItemResult(line, BulkItemStatus.CREATED, id, null);
+        }
+
+        public static BulkItemResult rejected(final long line, final BulkItemStatus status, final String message) {
+                return new BulkItemResult(line, status, null, message);
+        }
+}
@@ -0,0 +1,18 @@
+package com.github.osipovvj.webrise_test_task.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "BulkOperationResponse", description = "Отчёт о пакетной операции над подписками пользователей.")
+public record BulkOperationResponse(
+        @Schema(description = "Количество обработанных пользователей.", example = "1000")
+        long processed,
+
+        @Schema(description = "Количество пользователей, к которым операция применена.", example = "998")
+        long applied,
+
+        @Schema(description = "Пользователи, к которым операция не применена.")
+        List<BulkUserFailure> failures
+) {
+}
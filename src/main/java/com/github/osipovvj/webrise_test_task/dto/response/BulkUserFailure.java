@@ -0,0 +1,17 @@
+package com.github.osipovvj.webrise_test_task.dto.response;
+
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "BulkUserFailure", description = "Причина, по которой операция не применена к пользователю.")
+public record BulkUserFailure(
+        @Schema(description = "ID пользователя.", example = "123")
+        Long userId,
+
+        @Schema(description = "Результат обработки.", example = "DUPLICATE")
+        BulkItemStatus status,
+
+        @Schema(description = "Описание ошибки.", example = "Пользователь с id 123 уже подписан на сервис с id 12")
+        String message
+) {
+}
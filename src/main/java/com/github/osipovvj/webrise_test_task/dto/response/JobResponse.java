@@ -0,0 +1,33 @@
+package com.github.osipovvj.webrise_test_task.dto.response;
+
+import com.github.osipovvj.webrise_test_task.enums.JobStatus;
+import com.github.osipovvj.webrise_test_task.enums.JobType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(name = "JobResponse", description = "Состояние фоновой задачи.")
+public record JobResponse(
+        @Schema(description = "ID задачи.", example = "3f1c2a8e-5b7d-4c1e-9a0f-2d6b8e4c7a11")
+        UUID id,
+
+        @Schema(description = "Тип задачи.", example = "DELETE_SUBSCRIPTION")
+        JobType type,
+
+        @Schema(description = "Статус задачи.", example = "RUNNING")
+        JobStatus status,
+
+        @Schema(description = "Сколько записей уже обработано.", example = "25000")
+        long processed,
+
+        @Schema(description = "Причина ошибки, если задача завершилась неудачно.")
+        String error,
+
+        @Schema(description = "Время запуска задачи.", example = "2025-09-01T09:49:19.275039200")
+        LocalDateTime startedAt,
+
+        @Schema(description = "Время завершения задачи.", example = "2025-09-01T09:51:02.118204700")
+        LocalDateTime finishedAt
+) {
+}
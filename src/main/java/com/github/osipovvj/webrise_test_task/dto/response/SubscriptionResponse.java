@@ -20,7 +20,10 @@ public record SubscriptionResponse(
         String serviceUrl,
 
         @Schema(description = "Дата создания подписки.", example = "2021-02-22T09:49:19.275039200")
-        LocalDateTime createdAt
+        LocalDateTime createdAt,
+
+        @Schema(description = "Версия данных сервиса для заголовка If-Match.", example = "3")
+        Long version
 ) {
         public static SubscriptionResponse toResponse(final Subscription subscription) {
                 return new SubscriptionResponse(
@@ -28,7 +31,8 @@ public record SubscriptionResponse(
                         subscription.getSubscriptionName(),
                         subscription.getServiceName(),
                         subscription.getServiceUrl(),
-                        subscription.getCreatedAt()
+                        subscription.getCreatedAt(),
+                        subscription.getVersion()
                 );
         }
 }
@@ -1,25 +1,30 @@
 package com.github.osipovvj.webrise_test_task.dto.response;
 
 import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.util.List;
 
-@Schema(name = "SubscriptionsResponse", description = "Ответ сервера со списком всех сервисов.")
+@Schema(name = "SubscriptionsResponse", description = "Ответ сервера со страницей списка сервисов.")
 public record SubscriptionsResponse(
-        @Schema(description = "Количество сервисов.", example = "20")
+        @Schema(description = "Количество сервисов на странице.", example = "20")
         Integer count,
 
         @Schema(description = "Список сервисов.")
-        List<SubscriptionResponse> subscriptions
+        List<SubscriptionResponse> subscriptions,
+
+        @Schema(description = "Курсор следующей страницы, null для последней страницы.", example = "aWQ6MjA")
+        String nextCursor
 ) {
-        public static SubscriptionsResponse toResponse(final List<Subscription> subscriptions) {
+        public static SubscriptionsResponse toResponse(final KeysetSlice<Subscription> slice) {
                 return new SubscriptionsResponse(
-                        subscriptions.size(),
-                        subscriptions
+                        slice.items().size(),
+                        slice.items()
                                 .stream()
                                 .map(SubscriptionResponse::toResponse)
-                                .toList()
+                                .toList(),
+                        slice.nextCursor()
                 );
         }
 }
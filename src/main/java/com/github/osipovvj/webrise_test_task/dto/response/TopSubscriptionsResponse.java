@@ -5,7 +5,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.util.List;
 
-@Schema(name = "TopThreeSubscriptionsResponse", description = "Ответ сервера со списком топ 3 самых популярных сервиса.")
+@Schema(name = "TopThreeSubscriptionsResponse", description = "Ответ сервера со списком самых популярных сервисов.")
 public record TopSubscriptionsResponse(
         @Schema(description = "Список самых популярных сервисов.")
         List<SubscriptionResponse> subscriptions
@@ -21,7 +21,10 @@ public record UserResponse(
         LocalDateTime createdAt,
 
         @Schema(description = "Дата изменения данных пользователя.", example = "2025-09-01T09:49:19.275039200")
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+
+        @Schema(description = "Версия данных пользователя для заголовка If-Match.", example = "3")
+        Long version
 ) {
 
     public static UserResponse toResponse(final User user) {
@@ -30,7 +33,8 @@ public record UserResponse(
                 user.getUsername(),
                 user.getEmail(),
                 user.getCreatedAt(),
-                user.getUpdatedAt()
+                user.getUpdatedAt(),
+                user.getVersion()
         );
     }
 }
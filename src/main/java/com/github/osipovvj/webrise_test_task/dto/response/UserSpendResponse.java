@@ -0,0 +1,35 @@
+package com.github.osipovvj.webrise_test_task.dto.response;
+
+import com.github.osipovvj.webrise_test_task.entity.UserSpend;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(name = "UserSpendResponse", description = "Сводка по подпискам пользователя.")
+public record UserSpendResponse(
+        @Schema(description = "ID пользователя.", example = "123")
+        Long userId,
+
+        @Schema(description = "Суммарная стоимость активных подписок.", example = "14.97")
+        BigDecimal totalActiveSpend,
+
+        @Schema(description = "Число подписок пользователя.", example = "5")
+        long subscriptionCount,
+
+        @Schema(description = "Число активных подписок пользователя.", example = "3")
+        long activeSubscriptionCount
+) {
+
+        public static UserSpendResponse toResponse(final UserSpend userSpend) {
+                return new UserSpendResponse(
+                        userSpend.getUserId(),
+                        userSpend.getActiveSpend(),
+                        userSpend.getSubscriptions(),
+                        userSpend.getActiveSubscriptions()
+                );
+        }
+
+        public static UserSpendResponse empty(final Long userId) {
+                return new UserSpendResponse(userId, BigDecimal.ZERO, 0, 0);
+        }
+}
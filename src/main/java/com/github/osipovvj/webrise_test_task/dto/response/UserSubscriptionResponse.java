@@ -24,6 +24,9 @@ public record UserSubscriptionResponse(
         @Schema(description = "Дата измениния состояния.", example = "2025-09-01T09:49:19.275039200")
         LocalDateTime updatedAt,
 
+        @Schema(description = "Версия подписки для заголовка If-Match.", example = "3")
+        Long version,
+
         @Schema(description = "Подробная информация о сервисе.")
         SubscriptionResponse subscription
 ) {
@@ -35,6 +38,7 @@ public record UserSubscriptionResponse(
                         userSubscription.getStatus(),
                         userSubscription.getSubscribedAt(),
                         userSubscription.getUpdatedAt(),
+                        userSubscription.getVersion(),
                         SubscriptionResponse.toResponse(userSubscription.getSubscription())
                 );
         }
@@ -1,25 +1,30 @@
 package com.github.osipovvj.webrise_test_task.dto.response;
 
 import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.util.List;
 
-@Schema(name = "UserSubscriptionsResponse", description = "Ответ сервера со списком пользовательских подписок.")
+@Schema(name = "UserSubscriptionsResponse", description = "Ответ сервера со страницей списка пользовательских подписок.")
 public record UserSubscriptionsResponse(
-        @Schema(description = "Количество подписок пользователя.", example = "10")
+        @Schema(description = "Количество подписок пользователя на странице.", example = "10")
         Integer count,
 
         @Schema(description = "Список пользовательских подписок.")
-        List<UserSubscriptionResponse> subscriptions
+        List<UserSubscriptionResponse> subscriptions,
+
+        @Schema(description = "Курсор следующей страницы, null для последней страницы.", example = "aWQ6MTA")
+        String nextCursor
 ) {
-        public static UserSubscriptionsResponse toResponse(final List<UserSubscription> subscriptions) {
+        public static UserSubscriptionsResponse toResponse(final KeysetSlice<UserSubscription> slice) {
                 return new UserSubscriptionsResponse(
-                        subscriptions.size(),
-                        subscriptions
+                        slice.items().size(),
+                        slice.items()
                                 .stream()
                                 .map(UserSubscriptionResponse::toResponse)
-                                .toList()
+                                .toList(),
+                        slice.nextCursor()
                 );
         }
 }
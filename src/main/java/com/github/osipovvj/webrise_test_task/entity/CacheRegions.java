@@ -0,0 +1,16 @@
+package com.github.osipovvj.webrise_test_task.entity;
+
+import java.util.List;
+
+/**
+ * Регионы кэша второго уровня. Размер и время жизни каждого задаются в application.conf.
+ */
+public final class CacheRegions {
+    public static final String SUBSCRIPTIONS = "subscriptions";
+    public static final String SUBSCRIPTION_CATALOGUE = "subscription-catalogue";
+
+    public static final List<String> QUERY_REGIONS = List.of(SUBSCRIPTION_CATALOGUE);
+
+    private CacheRegions() {
+    }
+}
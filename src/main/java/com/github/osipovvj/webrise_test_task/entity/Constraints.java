@@ -0,0 +1,16 @@
+package com.github.osipovvj.webrise_test_task.entity;
+
+/**
+ * Имена ограничений целостности. По ним нарушения при вставке переводятся в ошибки API.
+ */
+public final class Constraints {
+    public static final String USERS_USERNAME = "uk_users_username";
+    public static final String USERS_EMAIL = "uk_users_email";
+    public static final String SUBSCRIPTIONS_NAME = "uk_subscriptions_subscription_name";
+    public static final String USER_SUBSCRIPTION_UNIQUE = "uk_user_subscription_user_subscription";
+    public static final String USER_SUBSCRIPTION_USER = "fk_user_subscription_user";
+    public static final String USER_SUBSCRIPTION_SUBSCRIPTION = "fk_user_subscription_subscription";
+
+    private Constraints() {
+    }
+}
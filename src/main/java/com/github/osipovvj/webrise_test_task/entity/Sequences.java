@@ -0,0 +1,12 @@
+package com.github.osipovvj.webrise_test_task.entity;
+
+/**
+ * Шаг sequence-генераторов идентификаторов. Должен совпадать с INCREMENT BY последовательностей в БД,
+ * поэтому задаётся константой, а не настройкой окружения.
+ */
+public final class Sequences {
+    public static final int ALLOCATION_SIZE = 50;
+
+    private Sequences() {
+    }
+}
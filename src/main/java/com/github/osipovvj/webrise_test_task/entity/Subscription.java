@@ -2,14 +2,23 @@ package com.github.osipovvj.webrise_test_task.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "subscriptions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.SUBSCRIPTIONS)
+@Table(
+        name = "subscriptions",
+        uniqueConstraints = @UniqueConstraint(name = Constraints.SUBSCRIPTIONS_NAME, columnNames = "subscriptionName")
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -17,10 +26,11 @@ import java.util.List;
 @Builder
 public class Subscription {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscriptions_seq")
+    @SequenceGenerator(name = "subscriptions_seq", sequenceName = "subscriptions_seq", allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String subscriptionName;
 
     @Column(nullable = false)
@@ -32,7 +42,15 @@ public class Subscription {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
-    @OneToMany(mappedBy = "subscription", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @OneToMany(mappedBy = "subscription", fetch = FetchType.LAZY)
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private List<UserSubscription> userSubscriptions = new ArrayList<>();
 }
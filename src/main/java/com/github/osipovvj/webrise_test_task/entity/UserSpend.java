@@ -0,0 +1,32 @@
+package com.github.osipovvj.webrise_test_task.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Сводка по подпискам пользователя. Меняется только приращениями вместе с user_subscription,
+ * строка удаляется каскадом в БД вместе с пользователем.
+ */
+@Entity
+@Table(name = "user_spend")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class UserSpend {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal activeSpend;
+
+    @Column(nullable = false)
+    private long subscriptions;
+
+    @Column(nullable = false)
+    private long activeSubscriptions;
+}
@@ -4,6 +4,9 @@ import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -12,7 +15,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(
         name = "user_subscription",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "subscription_id"})
+        uniqueConstraints = @UniqueConstraint(
+                name = Constraints.USER_SUBSCRIPTION_UNIQUE,
+                columnNames = {"user_id", "subscription_id"}
+        )
 )
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,7 +27,8 @@ import java.time.LocalDateTime;
 @Builder
 public class UserSubscription {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_subscription_seq")
+    @SequenceGenerator(name = "user_subscription_seq", sequenceName = "user_subscription_seq", allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
     private BigDecimal price;
@@ -35,11 +42,35 @@ public class UserSubscription {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = Constraints.USER_SUBSCRIPTION_USER))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
+    /**
+     * Ключ секционирования в профиле partitioned: Hibernate добавляет user_id в условия UPDATE и DELETE,
+     * и запрос идёт в одну секцию. Записывается через {@link #user}.
+     */
+    @PartitionKey
+    @Column(name = "user_id", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private Long userId;
+
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "subscription_id", nullable = false)
+    @JoinColumn(
+            name = "subscription_id",
+            nullable = false,
+            foreignKey = @ForeignKey(name = Constraints.USER_SUBSCRIPTION_SUBSCRIPTION)
+    )
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Subscription subscription;
+
+    @PrePersist
+    void assignUserId() {
+        userId = user.getId();
+    }
 }
@@ -0,0 +1,9 @@
+package com.github.osipovvj.webrise_test_task.enums;
+
+public enum BulkItemStatus {
+    CREATED,
+    DUPLICATE,
+    NOT_FOUND,
+    INVALID,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.github.osipovvj.webrise_test_task.enums;
+
+public enum JobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.github.osipovvj.webrise_test_task.enums;
+
+public enum JobType {
+    DELETE_USER,
+    DELETE_SUBSCRIPTION
+}
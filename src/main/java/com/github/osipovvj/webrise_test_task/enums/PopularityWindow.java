@@ -0,0 +1,40 @@
+package com.github.osipovvj.webrise_test_task.enums;
+
+import java.util.Arrays;
+
+public enum PopularityWindow {
+    LAST_7_DAYS("7d", 7),
+    LAST_30_DAYS("30d", 30),
+    ALL("all", 0);
+
+    private final String value;
+    private final int days;
+
+    PopularityWindow(String value, int days) {
+        this.value = value;
+        this.days = days;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public boolean isBounded() {
+        return days > 0;
+    }
+
+    public static int maxDays() {
+        return Arrays.stream(values()).mapToInt(PopularityWindow::getDays).max().orElse(0);
+    }
+
+    public static PopularityWindow fromValue(String value) {
+        return Arrays.stream(values())
+                .filter(window -> window.value.equalsIgnoreCase(value) || window.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестное окно популярности: " + value));
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.osipovvj.webrise_test_task.exception;
+
+public class DatabaseBusyException extends RuntimeException {
+
+    public DatabaseBusyException(final String message) {
+        super(message);
+    }
+}
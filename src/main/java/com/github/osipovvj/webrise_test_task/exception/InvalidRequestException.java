@@ -0,0 +1,8 @@
+package com.github.osipovvj.webrise_test_task.exception;
+
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.osipovvj.webrise_test_task.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(final String message) {
+        super(message);
+    }
+}
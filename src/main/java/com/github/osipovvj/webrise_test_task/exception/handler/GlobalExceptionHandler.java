@@ -2,9 +2,16 @@ package com.github.osipovvj.webrise_test_task.exception.handler;
 
 import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
 import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.DatabaseBusyException;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
 import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -75,4 +82,95 @@ public class GlobalExceptionHandler {
                 null
         );
     }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ProblemDetailResponse handlePreconditionFailedException(
+            PreconditionFailedException exception,
+            HttpServletRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/precondition-failed",
+                "Precondition Failed Error",
+                HttpStatus.PRECONDITION_FAILED.value(),
+                exception.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ProblemDetailResponse handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException exception,
+            HttpServletRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/concurrent-modification",
+                "Concurrent Modification Error",
+                HttpStatus.CONFLICT.value(),
+                "Данные были изменены параллельным запросом. Получите актуальную версию и повторите запрос.",
+                request.getRequestURI(),
+                null
+        );
+    }
+
+    @ExceptionHandler(DatabaseBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ProblemDetailResponse handleDatabaseBusyException(
+            DatabaseBusyException exception,
+            HttpServletRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/service-unavailable",
+                "Service Unavailable Error",
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                exception.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+    }
+
+    /**
+     * Соединение берётся при открытии транзакции, поэтому отказ семафора приходит обёрнутым в исключение Spring.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ProblemDetailResponse handleDatabaseUnavailableException(
+            RuntimeException exception,
+            HttpServletRequest request
+    ) {
+        String detail = NestedExceptionUtils.getMostSpecificCause(exception) instanceof DatabaseBusyException busy
+                ? busy.getMessage()
+                : "База данных недоступна, повторите запрос позже.";
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/service-unavailable",
+                "Service Unavailable Error",
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                detail,
+                request.getRequestURI(),
+                null
+        );
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetailResponse handleInvalidRequestException(
+            InvalidRequestException exception,
+            HttpServletRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/bad-request",
+                "Bad Request Error",
+                HttpStatus.BAD_REQUEST.value(),
+                exception.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+    }
 }
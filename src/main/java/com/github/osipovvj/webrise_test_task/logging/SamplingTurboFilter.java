@@ -0,0 +1,43 @@
+package com.github.osipovvj.webrise_test_task.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Пропускает в среднем одно из {@code rate} событий уровня INFO и ниже от логгеров, имя которых начинается
+ * с {@code loggerName}. WARN и ERROR проходят всегда. Решение принимается до создания события,
+ * поэтому отброшенный вызов не форматирует сообщение и не попадает в очередь асинхронного appender.
+ * <p>
+ * Для {@code log.atInfo()} logback вызывает фильтр только в проверке {@code isInfoEnabled()}, поэтому
+ * проверка тоже участвует в выборке. Явная проверка {@code isInfoEnabled()} перед обычным вызовом
+ * в этих логгерах даст двойную выборку.
+ */
+@Setter
+public class SamplingTurboFilter extends TurboFilter {
+    private String loggerName;
+    private int rate = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || rate <= 1 || level.isGreaterOrEqual(Level.WARN)
+                || !logger.getName().startsWith(loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null || rate < 1) {
+            addError("Для " + getName() + " нужно задать loggerName и rate не меньше 1.");
+            return;
+        }
+        super.start();
+    }
+}
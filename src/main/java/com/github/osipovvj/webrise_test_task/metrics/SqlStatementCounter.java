@@ -0,0 +1,41 @@
+package com.github.osipovvj.webrise_test_task.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы Hibernate, выполненные в текущем потоке между {@link #start()} и {@link #stop()}.
+ * Вне этого интервала запросы не учитываются.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private final ThreadLocal<int[]> statements = new ThreadLocal<>();
+
+    public void start() {
+        statements.set(new int[1]);
+    }
+
+    /**
+     * @return число запросов с момента {@link #start()} без остановки счёта
+     */
+    public int current() {
+        int[] counter = statements.get();
+        return counter == null ? 0 : counter[0];
+    }
+
+    /**
+     * @return число запросов с момента {@link #start()}
+     */
+    public int stop() {
+        int[] counter = statements.get();
+        statements.remove();
+        return counter == null ? 0 : counter[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] counter = statements.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+        return sql;
+    }
+}
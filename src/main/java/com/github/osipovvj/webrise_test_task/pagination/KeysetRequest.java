@@ -0,0 +1,24 @@
+package com.github.osipovvj.webrise_test_task.pagination;
+
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import org.springframework.data.domain.Limit;
+
+public record KeysetRequest(long afterId, int limit) {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    public static KeysetRequest of(String after, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new InvalidRequestException("Параметр limit должен быть больше 0.");
+        }
+
+        return new KeysetRequest(
+                after == null || after.isBlank() ? 0L : Cursors.decode(after),
+                limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT)
+        );
+    }
+
+    public Limit probe() {
+        return Limit.of(limit + 1);
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.osipovvj.webrise_test_task.pagination;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+public record KeysetSlice<T>(List<T> items, String nextCursor) {
+
+    public static <T> KeysetSlice<T> of(List<T> rows, KeysetRequest request, ToLongFunction<T> id) {
+        if (rows.size() <= request.limit()) {
+            return new KeysetSlice<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, request.limit());
+        return new KeysetSlice<>(items, Cursors.encode(id.applyAsLong(items.get(items.size() - 1))));
+    }
+}
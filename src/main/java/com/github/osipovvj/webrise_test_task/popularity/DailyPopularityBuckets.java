@@ -0,0 +1,114 @@
+package com.github.osipovvj.webrise_test_task.popularity;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Предагрегированные счётчики подписок по дням, сервисам и статусам.
+ * Рейтинг за окно строится слиянием не более чем {@code retentionDays} корзин.
+ */
+public class DailyPopularityBuckets {
+    private static final int STATUSES = SubscriptionStatus.values().length;
+    private static final Comparator<Map.Entry<Long, Long>> ORDER = Map.Entry.<Long, Long>comparingByValue().reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    private final NavigableMap<LocalDate, Map<Long, long[]>> days = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int retentionDays;
+
+    public DailyPopularityBuckets(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    public void adjust(LocalDate day, long subscriptionId, SubscriptionStatus status, long delta, LocalDate today) {
+        if (day.isBefore(oldestRetainedDay(today))) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            long[] counters = days
+                    .computeIfAbsent(day, key -> new HashMap<>())
+                    .computeIfAbsent(subscriptionId, key -> new long[STATUSES]);
+            counters[status.ordinal()] = Math.max(0, counters[status.ordinal()] + delta);
+            days.headMap(oldestRetainedDay(today), false).clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long subscriptionId) {
+        lock.writeLock().lock();
+        try {
+            days.values().forEach(bucket -> bucket.remove(subscriptionId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> top(LocalDate from, SubscriptionStatus status, int limit) {
+        Map<Long, Long> merged = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            days.tailMap(from, true).values().forEach(bucket -> bucket.forEach((subscriptionId, counters) -> {
+                long subscribers = status == null ? sum(counters) : counters[status.ordinal()];
+                if (subscribers > 0) {
+                    merged.merge(subscriptionId, subscribers, Long::sum);
+                }
+            }));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        PriorityQueue<Map.Entry<Long, Long>> heap = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        for (Map.Entry<Long, Long> entry : merged.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Long>> result = new ArrayList<>(heap);
+        result.sort(ORDER);
+        return result.stream().map(Map.Entry::getKey).toList();
+    }
+
+    public void replaceAll(Map<LocalDate, Map<Long, long[]>> snapshot, LocalDate today) {
+        lock.writeLock().lock();
+        try {
+            days.clear();
+            days.putAll(snapshot);
+            days.headMap(oldestRetainedDay(today), false).clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static long[] newCounters() {
+        return new long[STATUSES];
+    }
+
+    private LocalDate oldestRetainedDay(LocalDate today) {
+        return today.minusDays(retentionDays - 1L);
+    }
+
+    private static long sum(long[] counters) {
+        long total = 0;
+        for (long counter : counters) {
+            total += counter;
+        }
+        return total;
+    }
+}
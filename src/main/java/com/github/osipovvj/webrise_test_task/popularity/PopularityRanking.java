@@ -0,0 +1,106 @@
+package com.github.osipovvj.webrise_test_task.popularity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Счётчики подписчиков по сервисам, упорядоченные по убыванию популярности.
+ * Изменение счётчика стоит O(log n), выборка топ-N — O(N).
+ */
+public class PopularityRanking {
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingLong(Entry::subscribers).reversed()
+            .thenComparingLong(Entry::subscriptionId);
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> ranked = new TreeSet<>(ORDER);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void register(long subscriptionId) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(subscriptionId)) {
+                put(new Entry(subscriptionId, 0));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long subscriptionId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.remove(subscriptionId);
+            if (entry != null) {
+                ranked.remove(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void adjust(long subscriptionId, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry current = entries.get(subscriptionId);
+            long subscribers = current == null ? 0 : current.subscribers();
+            if (current != null) {
+                ranked.remove(current);
+            }
+            put(new Entry(subscriptionId, Math.max(0, subscribers + delta)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long subscribers(long subscriptionId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(subscriptionId);
+            return entry == null ? 0 : entry.subscribers();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>(Math.min(limit, ranked.size()));
+            Iterator<Entry> iterator = ranked.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                result.add(iterator.next().subscriptionId());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void replaceAll(Map<Long, Long> subscribers) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ranked.clear();
+            subscribers.forEach((subscriptionId, count) -> put(new Entry(subscriptionId, count)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.subscriptionId(), entry);
+        ranked.add(entry);
+    }
+
+    private record Entry(long subscriptionId, long subscribers) {
+    }
+}
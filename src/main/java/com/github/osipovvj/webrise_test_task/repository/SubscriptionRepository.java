@@ -1,16 +1,48 @@
 package com.github.osipovvj.webrise_test_task.repository;
 
+import com.github.osipovvj.webrise_test_task.entity.CacheRegions;
 import com.github.osipovvj.webrise_test_task.entity.Subscription;
-import org.springframework.data.domain.Pageable;
+import com.github.osipovvj.webrise_test_task.repository.projection.CollectionVersionView;
+import com.github.osipovvj.webrise_test_task.repository.projection.SubscriptionPopularityView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
-    boolean existsBySubscriptionName(String name);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Subscription> findForUpdateById(Long id);
+
     boolean existsBySubscriptionNameAndIdNot(String name, Long id);
 
-    @Query("SELECT s FROM Subscription s LEFT JOIN s.userSubscriptions us GROUP BY s ORDER BY COUNT(us.id) DESC")
-    List<Subscription> findTop3ByPopularity(Pageable pageable);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.SUBSCRIPTION_CATALOGUE)
+    })
+    List<Subscription> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(s.id) AS count, MAX(s.updatedAt) AS lastModified FROM Subscription s")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.SUBSCRIPTION_CATALOGUE)
+    })
+    CollectionVersionView findCatalogueVersion();
+
+    /**
+     * Подписки группируются до соединения с каталогом: агрегат идёт по одной таблице user_subscription
+     * и в профиле partitioned считается по секциям.
+     */
+    @Query("SELECT s.id AS subscriptionId, c.status AS status, COALESCE(c.subscribers, 0) AS subscribers " +
+            "FROM Subscription s LEFT JOIN (" +
+            "SELECT us.subscription.id AS subscriptionId, us.status AS status, COUNT(us.id) AS subscribers " +
+            "FROM UserSubscription us GROUP BY us.subscription.id, us.status" +
+            ") c ON c.subscriptionId = s.id")
+    List<SubscriptionPopularityView> countSubscribers();
 }
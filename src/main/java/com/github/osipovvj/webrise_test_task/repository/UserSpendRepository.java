@@ -0,0 +1,37 @@
+package com.github.osipovvj.webrise_test_task.repository;
+
+import com.github.osipovvj.webrise_test_task.entity.UserSpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+public interface UserSpendRepository extends JpaRepository<UserSpend, Long> {
+    /**
+     * Пустые сводки новых пользователей: приращения к ним обновляют уже готовую строку.
+     */
+    @Modifying
+    @Query("INSERT INTO UserSpend (userId, activeSpend, subscriptions, activeSubscriptions) " +
+            "SELECT u.id, 0BD, 0L, 0L FROM User u WHERE u.id IN :userIds")
+    int createEmpty(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Приращение в одном выражении: параллельные изменения подписок одного пользователя не теряются,
+     * а если строки нет, она создаётся со значениями приращения.
+     */
+    @Modifying
+    @Query("INSERT INTO UserSpend (userId, activeSpend, subscriptions, activeSubscriptions) " +
+            "VALUES (:userId, :activeSpend, :subscriptions, :activeSubscriptions) " +
+            "ON CONFLICT (userId) DO UPDATE SET activeSpend = activeSpend + excluded.activeSpend, " +
+            "subscriptions = subscriptions + excluded.subscriptions, " +
+            "activeSubscriptions = activeSubscriptions + excluded.activeSubscriptions")
+    int upsert(
+            @Param("userId") Long userId,
+            @Param("activeSpend") BigDecimal activeSpend,
+            @Param("subscriptions") long subscriptions,
+            @Param("activeSubscriptions") long activeSubscriptions
+    );
+}
@@ -0,0 +1,215 @@
+package com.github.osipovvj.webrise_test_task.repository;
+
+import com.github.osipovvj.webrise_test_task.entity.Sequences;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.repository.projection.ChangedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.DeletedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Пакетные операции над user_subscription и сводками user_spend, выполняемые одним SQL-выражением на пакет (PostgreSQL).
+ * Строки адресуются парой (user_id, id): в профиле partitioned это первичный ключ, и запрос попадает в нужную секцию.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSubscriptionBulkRepository {
+    private static final RowMapper<ChangedUserSubscription> CHANGED_ROW = (rs, rowNum) -> new ChangedUserSubscription(
+            rs.getLong("user_id"),
+            SubscriptionStatus.valueOf(rs.getString("status")),
+            rs.getTimestamp("subscribed_at").toLocalDateTime(),
+            rs.getBigDecimal("price")
+    );
+    private static final RowMapper<DeletedUserSubscription> DELETED_ROW = (rs, rowNum) -> new DeletedUserSubscription(
+            rs.getLong("subscription_id"),
+            SubscriptionStatus.valueOf(rs.getString("status")),
+            rs.getTimestamp("subscribed_at").toLocalDateTime(),
+            rs.getBigDecimal("price")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<ChangedUserSubscription> subscribe(Long subscriptionId, Collection<Long> userIds, BigDecimal price, LocalDateTime now) {
+        Long[] ids = allocateIds(userIds.size());
+
+        return jdbcTemplate.query("""
+                        INSERT INTO user_subscription (id, user_id, subscription_id, price, status, subscribed_at, updated_at, version)
+                        SELECT c.id, c.user_id, ?, ?, 'ACTIVE', ?, ?, 0
+                        FROM unnest(?::bigint[], ?::bigint[]) AS c(id, user_id)
+                        JOIN users u ON u.id = c.user_id
+                        ON CONFLICT (user_id, subscription_id) DO NOTHING
+                        RETURNING user_id, status, subscribed_at, price
+                        """,
+                ps -> {
+                    ps.setLong(1, subscriptionId);
+                    ps.setBigDecimal(2, price);
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    ps.setTimestamp(4, Timestamp.valueOf(now));
+                    setLongArray(ps, 5, ids);
+                    setLongArray(ps, 6, userIds.toArray(Long[]::new));
+                },
+                CHANGED_ROW);
+    }
+
+    public List<ChangedUserSubscription> unsubscribe(Long subscriptionId, Collection<Long> userIds) {
+        return jdbcTemplate.query("""
+                        DELETE FROM user_subscription
+                        WHERE subscription_id = ? AND user_id = ANY(?::bigint[])
+                        RETURNING user_id, status, subscribed_at, price
+                        """,
+                ps -> {
+                    ps.setLong(1, subscriptionId);
+                    setLongArray(ps, 2, userIds.toArray(Long[]::new));
+                },
+                CHANGED_ROW);
+    }
+
+    public List<ChangedUserSubscription> changeStatus(
+            Long subscriptionId,
+            Collection<Long> userIds,
+            SubscriptionStatus status,
+            LocalDateTime now
+    ) {
+        return jdbcTemplate.query("""
+                        WITH target AS (
+                            SELECT id, user_id, status FROM user_subscription
+                            WHERE subscription_id = ? AND user_id = ANY(?::bigint[])
+                            FOR UPDATE
+                        )
+                        UPDATE user_subscription us SET status = ?, updated_at = ?, version = us.version + 1
+                        FROM target t WHERE us.user_id = t.user_id AND us.id = t.id
+                        RETURNING us.user_id, t.status, us.subscribed_at, us.price
+                        """,
+                ps -> {
+                    ps.setLong(1, subscriptionId);
+                    setLongArray(ps, 2, userIds.toArray(Long[]::new));
+                    ps.setString(3, status.name());
+                    ps.setTimestamp(4, Timestamp.valueOf(now));
+                },
+                CHANGED_ROW);
+    }
+
+    public List<ChangedUserSubscription> changeStatusForAll(
+            Long subscriptionId,
+            SubscriptionStatus status,
+            int limit,
+            LocalDateTime now
+    ) {
+        return jdbcTemplate.query("""
+                        WITH target AS (
+                            SELECT id, user_id, status FROM user_subscription
+                            WHERE subscription_id = ? AND status <> ?
+                            ORDER BY id
+                            LIMIT ?
+                            FOR UPDATE
+                        )
+                        UPDATE user_subscription us SET status = ?, updated_at = ?, version = us.version + 1
+                        FROM target t WHERE us.user_id = t.user_id AND us.id = t.id
+                        RETURNING us.user_id, t.status, us.subscribed_at, us.price
+                        """,
+                ps -> {
+                    ps.setLong(1, subscriptionId);
+                    ps.setString(2, status.name());
+                    ps.setInt(3, limit);
+                    ps.setString(4, status.name());
+                    ps.setTimestamp(5, Timestamp.valueOf(now));
+                },
+                CHANGED_ROW);
+    }
+
+    public List<DeletedUserSubscription> deleteByUserId(Long userId, int limit) {
+        return jdbcTemplate.query("""
+                        DELETE FROM user_subscription
+                        WHERE user_id = ? AND id IN (SELECT id FROM user_subscription WHERE user_id = ? ORDER BY id LIMIT ?)
+                        RETURNING subscription_id, status, subscribed_at, price
+                        """,
+                ps -> {
+                    ps.setLong(1, userId);
+                    ps.setLong(2, userId);
+                    ps.setInt(3, limit);
+                },
+                DELETED_ROW);
+    }
+
+    public List<ChangedUserSubscription> deleteBySubscriptionId(Long subscriptionId, int limit) {
+        return jdbcTemplate.query("""
+                        DELETE FROM user_subscription
+                        WHERE (user_id, id) IN (
+                            SELECT user_id, id FROM user_subscription WHERE subscription_id = ? ORDER BY id LIMIT ?
+                        )
+                        RETURNING user_id, status, subscribed_at, price
+                        """,
+                ps -> {
+                    ps.setLong(1, subscriptionId);
+                    ps.setInt(2, limit);
+                },
+                CHANGED_ROW);
+    }
+
+    /**
+     * Применяет приращения к user_spend одним INSERT ... ON CONFLICT, недостающие строки создаются. Строки
+     * вставляются и блокируются по возрастанию user_id, поэтому параллельные пакеты с пересекающимися
+     * пользователями не взаимоблокируются.
+     */
+    public void adjustSpend(Collection<UserSpendDelta> deltas) {
+        jdbcTemplate.update("""
+                        INSERT INTO user_spend (user_id, active_spend, subscriptions, active_subscriptions)
+                        SELECT * FROM unnest(?::bigint[], ?::numeric[], ?::bigint[], ?::bigint[])
+                        ORDER BY 1
+                        ON CONFLICT (user_id) DO UPDATE
+                        SET active_spend = user_spend.active_spend + EXCLUDED.active_spend,
+                            subscriptions = user_spend.subscriptions + EXCLUDED.subscriptions,
+                            active_subscriptions = user_spend.active_subscriptions + EXCLUDED.active_subscriptions
+                        """,
+                ps -> {
+                    setLongArray(ps, 1, deltas.stream().map(UserSpendDelta::userId).toArray(Long[]::new));
+                    ps.setArray(2, ps.getConnection().createArrayOf(
+                            "numeric", deltas.stream().map(UserSpendDelta::activeSpend).toArray(BigDecimal[]::new)
+                    ));
+                    setLongArray(ps, 3, deltas.stream().map(UserSpendDelta::subscriptions).toArray(Long[]::new));
+                    setLongArray(ps, 4, deltas.stream().map(UserSpendDelta::activeSubscriptions).toArray(Long[]::new));
+                });
+    }
+
+    public List<Long> findExistingUserIds(Collection<Long> userIds) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE id = ANY(?::bigint[])",
+                Long.class,
+                (Object) userIds.toArray(Long[]::new)
+        );
+    }
+
+    /**
+     * Резервирует идентификаторы блоками по {@link Sequences#ALLOCATION_SIZE}, как это делает оптимизатор pooled-lo.
+     */
+    private Long[] allocateIds(int count) {
+        int blocks = (count + Sequences.ALLOCATION_SIZE - 1) / Sequences.ALLOCATION_SIZE;
+        List<Long> starts = jdbcTemplate.queryForList(
+                "SELECT nextval('user_subscription_seq') FROM generate_series(1, ?)", Long.class, blocks
+        );
+
+        List<Long> ids = new ArrayList<>(count);
+        for (Long start : starts) {
+            for (int i = 0; i < Sequences.ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add(start + i);
+            }
+        }
+        return ids.toArray(Long[]::new);
+    }
+
+    private static void setLongArray(PreparedStatement ps, int index, Long[] values) throws SQLException {
+        ps.setArray(index, ps.getConnection().createArrayOf("bigint", values));
+    }
+}
@@ -1,13 +1,67 @@
 package com.github.osipovvj.webrise_test_task.repository;
 
 import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.repository.projection.CollectionVersionView;
+import com.github.osipovvj.webrise_test_task.repository.projection.DailyPopularityView;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSubscriptionExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserSubscriptionRepository extends JpaRepository<UserSubscription, Long> {
-    boolean existsByUserIdAndSubscriptionId(Long userId, Long subscriptionId);
-    List<UserSubscription> findAllByUserId(Long userId);
     Optional<UserSubscription> findByUserIdAndSubscriptionId(Long userId, Long subscriptionId);
+
+    @Query("SELECT us FROM UserSubscription us JOIN FETCH us.subscription " +
+            "WHERE us.user.id = :userId AND us.id > :afterId ORDER BY us.id")
+    List<UserSubscription> findPageWithSubscriptionByUserId(
+            @Param("userId") Long userId,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    /**
+     * Версия списка подписок пользователя: количество и самое позднее изменение подписок и их сервисов.
+     * Пусто, если пользователя нет.
+     */
+    @Query("SELECT COUNT(us.id) AS count, " +
+            "MAX(CASE WHEN s.updatedAt > us.updatedAt THEN s.updatedAt ELSE us.updatedAt END) AS lastModified " +
+            "FROM User u LEFT JOIN u.subscriptions us LEFT JOIN us.subscription s " +
+            "WHERE u.id = :userId GROUP BY u.id")
+    Optional<CollectionVersionView> findVersionByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT us.subscription.id AS subscriptionId, us.status AS status, " +
+            "CAST(us.subscribedAt AS LocalDate) AS day, COUNT(us.id) AS subscribers " +
+            "FROM UserSubscription us WHERE us.subscribedAt >= :from " +
+            "GROUP BY us.subscription.id, us.status, CAST(us.subscribedAt AS LocalDate)")
+    List<DailyPopularityView> countDailySubscribers(@Param("from") LocalDateTime from);
+
+    /**
+     * Строки выгрузки без загрузки сущностей, поэтому контекст персистентности не растёт. PostgreSQL отдаёт строки
+     * курсором порциями по fetch size. Пользователи без подписок попадают в выгрузку, только если фильтры не заданы.
+     * Поток читается и закрывается внутри транзакции.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.github.osipovvj.webrise_test_task.repository.projection.UserSubscriptionExportRow(" +
+            "u.id, u.username, u.email, us.id, s.id, s.subscriptionName, s.serviceName, " +
+            "us.price, us.status, us.subscribedAt, us.updatedAt) " +
+            "FROM User u LEFT JOIN u.subscriptions us LEFT JOIN us.subscription s " +
+            "WHERE (:status IS NULL OR us.status = :status) " +
+            "AND (CAST(:from AS LocalDateTime) IS NULL OR us.subscribedAt >= :from) " +
+            "AND (CAST(:to AS LocalDateTime) IS NULL OR us.subscribedAt < :to) " +
+            "ORDER BY u.id, us.id")
+    Stream<UserSubscriptionExportRow> streamExportRows(
+            @Param("status") SubscriptionStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
 }
@@ -0,0 +1,8 @@
+package com.github.osipovvj.webrise_test_task.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CollectionVersionView {
+    Long getCount();
+    LocalDateTime getLastModified();
+}
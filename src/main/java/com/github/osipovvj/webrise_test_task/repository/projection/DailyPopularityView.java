@@ -0,0 +1,12 @@
+package com.github.osipovvj.webrise_test_task.repository.projection;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.time.LocalDate;
+
+public interface DailyPopularityView {
+    Long getSubscriptionId();
+    SubscriptionStatus getStatus();
+    LocalDate getDay();
+    Long getSubscribers();
+}
@@ -0,0 +1,14 @@
+package com.github.osipovvj.webrise_test_task.repository.projection;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record DeletedUserSubscription(
+        Long subscriptionId,
+        SubscriptionStatus status,
+        LocalDateTime subscribedAt,
+        BigDecimal price
+) {
+}
@@ -0,0 +1,9 @@
+package com.github.osipovvj.webrise_test_task.repository.projection;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+public interface SubscriptionPopularityView {
+    Long getSubscriptionId();
+    SubscriptionStatus getStatus();
+    Long getSubscribers();
+}
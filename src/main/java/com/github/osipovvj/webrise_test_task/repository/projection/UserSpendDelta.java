@@ -0,0 +1,49 @@
+package com.github.osipovvj.webrise_test_task.repository.projection;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Приращение сводки {@link com.github.osipovvj.webrise_test_task.entity.UserSpend} пользователя.
+ */
+public record UserSpendDelta(
+        Long userId,
+        BigDecimal activeSpend,
+        long subscriptions,
+        long activeSubscriptions
+) {
+
+    public static UserSpendDelta none(Long userId) {
+        return new UserSpendDelta(userId, BigDecimal.ZERO, 0, 0);
+    }
+
+    public static UserSpendDelta subscribed(Long userId, SubscriptionStatus status, BigDecimal price) {
+        return new UserSpendDelta(userId, activePrice(status, price), 1, status == SubscriptionStatus.ACTIVE ? 1 : 0);
+    }
+
+    public static UserSpendDelta unsubscribed(Long userId, SubscriptionStatus status, BigDecimal price) {
+        return new UserSpendDelta(userId, activePrice(status, price).negate(), -1, status == SubscriptionStatus.ACTIVE ? -1 : 0);
+    }
+
+    public static UserSpendDelta statusChanged(Long userId, BigDecimal price, SubscriptionStatus from, SubscriptionStatus to) {
+        return unsubscribed(userId, from, price).plus(subscribed(userId, to, price));
+    }
+
+    public UserSpendDelta plus(UserSpendDelta other) {
+        return new UserSpendDelta(
+                userId,
+                activeSpend.add(other.activeSpend),
+                subscriptions + other.subscriptions,
+                activeSubscriptions + other.activeSubscriptions
+        );
+    }
+
+    public boolean isEmpty() {
+        return activeSpend.signum() == 0 && subscriptions == 0 && activeSubscriptions == 0;
+    }
+
+    private static BigDecimal activePrice(SubscriptionStatus status, BigDecimal price) {
+        return status == SubscriptionStatus.ACTIVE && price != null ? price : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.osipovvj.webrise_test_task.repository.projection;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки: пользователь и одна его подписка. У пользователя без подписок поля подписки пустые.
+ */
+public record UserSubscriptionExportRow(
+        Long userId,
+        String username,
+        String email,
+        Long userSubscriptionId,
+        Long subscriptionId,
+        String subscriptionName,
+        String serviceName,
+        BigDecimal price,
+        SubscriptionStatus status,
+        LocalDateTime subscribedAt,
+        LocalDateTime updatedAt
+) {
+}
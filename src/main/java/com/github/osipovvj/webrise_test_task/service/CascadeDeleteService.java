@@ -0,0 +1,10 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
+
+public interface CascadeDeleteService {
+    void deleteUser(Long id);
+    JobResponse deleteUserAsync(Long id);
+    void deleteSubscription(Long id);
+    JobResponse deleteSubscriptionAsync(Long id);
+}
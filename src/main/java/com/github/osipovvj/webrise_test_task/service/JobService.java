@@ -0,0 +1,13 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
+import com.github.osipovvj.webrise_test_task.enums.JobType;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public interface JobService {
+    JobResponse submit(JobType type, Consumer<LongConsumer> work);
+    JobResponse getJob(UUID id);
+}
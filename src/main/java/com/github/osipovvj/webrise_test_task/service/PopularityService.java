@@ -0,0 +1,15 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PopularityService {
+    List<Long> getTopSubscriptionIds(int limit, SubscriptionStatus status, PopularityWindow window);
+    void registerSubscription(Long subscriptionId);
+    void removeSubscription(Long subscriptionId);
+    void adjustSubscribers(Long subscriptionId, SubscriptionStatus status, LocalDateTime subscribedAt, long delta);
+    void reconcile();
+}
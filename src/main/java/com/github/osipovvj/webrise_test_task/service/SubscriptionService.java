@@ -4,11 +4,14 @@ import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
 import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
 
 public interface SubscriptionService {
     SubscriptionResponse createSubscription(SubscriptionRequest request);
-    SubscriptionResponse updateSubscription(Long id, SubscriptionRequest request);
-    SubscriptionsResponse getSubscriptions();
-    void deleteSubscription(Long id);
-    TopSubscriptionsResponse getTopSubscriptions();
+    SubscriptionResponse updateSubscription(Long id, SubscriptionRequest request, Long expectedVersion);
+    SubscriptionsResponse getSubscriptions(KeysetRequest page);
+    String getSubscriptionsETag();
+    TopSubscriptionsResponse getTopSubscriptions(int limit, SubscriptionStatus status, PopularityWindow window);
 }
@@ -0,0 +1,10 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.dto.request.UserExportFilter;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSubscriptionExportRow;
+
+import java.util.function.Consumer;
+
+public interface UserExportService {
+    long exportUserSubscriptions(UserExportFilter filter, Consumer<UserSubscriptionExportRow> rows);
+}
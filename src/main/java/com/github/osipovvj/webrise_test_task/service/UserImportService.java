@@ -0,0 +1,12 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.dto.response.BulkItemResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+    void importNdjson(InputStream body, Consumer<BulkItemResult> results) throws IOException;
+    void importJsonArray(InputStream body, Consumer<BulkItemResult> results) throws IOException;
+}
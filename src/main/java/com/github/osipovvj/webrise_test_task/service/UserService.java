@@ -6,6 +6,5 @@ import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
 public interface UserService {
     UserResponse createUser(UserRequest request);
     UserResponse getUserById(Long id);
-    UserResponse updateUser(Long id, UserRequest request);
-    void deleteUserById(Long id);
+    UserResponse updateUser(Long id, UserRequest request, Long expectedVersion);
 }
@@ -0,0 +1,13 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+
+import java.util.Collection;
+
+/**
+ * Сводки трат пользователей. Вызывается в транзакции, изменившей подписки.
+ */
+public interface UserSpendService {
+    void adjust(UserSpendDelta delta);
+    void adjustAll(Collection<UserSpendDelta> deltas);
+}
@@ -0,0 +1,12 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.dto.request.BulkChangeStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkSubscribeRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkUsersRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkOperationResponse;
+
+public interface UserSubscriptionBulkService {
+    BulkOperationResponse subscribe(Long subscriptionId, BulkSubscribeRequest request);
+    BulkOperationResponse unsubscribe(Long subscriptionId, BulkUsersRequest request);
+    BulkOperationResponse changeStatus(Long subscriptionId, BulkChangeStatusRequest request);
+}
@@ -2,12 +2,18 @@ package com.github.osipovvj.webrise_test_task.service;
 
 import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
 import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+
+import java.util.Optional;
 
 public interface UserSubscriptionService {
     UserSubscriptionResponse addUserSubscription(Long userId, UserSubscriptionRequest request);
-    UserSubscriptionResponse changeUserSubscriptionStatus(Long userId, Long subscriptionId, ChangeSubscriptionStatusRequest request);
-    UserSubscriptionsResponse getUserSubscriptions(Long userId);
+    UserSubscriptionResponse changeUserSubscriptionStatus(Long userId, Long subscriptionId, ChangeSubscriptionStatusRequest request, Long expectedVersion);
+    UserSubscriptionsResponse getUserSubscriptions(Long userId, KeysetRequest page);
+    Optional<String> getUserSubscriptionsETag(Long userId);
     void removeUserSubscription(Long userId, Long subscriptionId);
+    UserSpendResponse getUserSpend(Long userId);
 }
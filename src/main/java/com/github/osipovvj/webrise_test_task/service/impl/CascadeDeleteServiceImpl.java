@@ -0,0 +1,158 @@
+package com.github.osipovvj.webrise_test_task.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.osipovvj.webrise_test_task.config.BulkProperties;
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.entity.User;
+import com.github.osipovvj.webrise_test_task.enums.JobType;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionBulkRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.ChangedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.DeletedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import com.github.osipovvj.webrise_test_task.service.CascadeDeleteService;
+import com.github.osipovvj.webrise_test_task.service.JobService;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
+import com.github.osipovvj.webrise_test_task.service.UserSpendService;
+import com.github.osipovvj.webrise_test_task.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Удаление пользователей и сервисов вместе с подписками пакетами по {@link BulkProperties#chunkSize()} строк,
+ * каждый пакет в своей транзакции.
+ */
+@Service
+@RequiredArgsConstructor
+public class CascadeDeleteServiceImpl implements CascadeDeleteService {
+    private final UserRepository userRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final UserSubscriptionBulkRepository bulkRepository;
+    private final PopularityService popularityService;
+    private final UserSpendService userSpendService;
+    private final JobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkProperties bulkProperties;
+    private final Cache<Long, Optional<UserResponse>> userResponseCache;
+
+    @Override
+    public void deleteUser(Long id) {
+        deleteUserInChunks(id, deleted -> {
+        });
+    }
+
+    @Override
+    public JobResponse deleteUserAsync(Long id) {
+        if (!userRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Пользователь с id " + id + " не найден.");
+        }
+
+        return jobService.submit(JobType.DELETE_USER, progress -> deleteUserInChunks(id, progress));
+    }
+
+    @Override
+    public void deleteSubscription(Long id) {
+        deleteSubscriptionInChunks(id, deleted -> {
+        });
+    }
+
+    @Override
+    public JobResponse deleteSubscriptionAsync(Long id) {
+        if (!subscriptionRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Сервис с id " + id + " не найден.");
+        }
+
+        return jobService.submit(JobType.DELETE_SUBSCRIPTION, progress -> deleteSubscriptionInChunks(id, progress));
+    }
+
+    /**
+     * Каждый пакет удаляется под блокировкой строки пользователя, поэтому новые подписки не появляются
+     * между последним пакетом и удалением самого пользователя.
+     */
+    private void deleteUserInChunks(Long id, LongConsumer progress) {
+        int chunkSize = bulkProperties.chunkSize();
+
+        int deleted;
+        do {
+            deleted = Objects.requireNonNull(transactionTemplate.execute(tx -> {
+                User user = userRepository.findForUpdateById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Пользователь с id " + id + " не найден."));
+
+                List<DeletedUserSubscription> rows = bulkRepository.deleteByUserId(id, chunkSize);
+                decrementSubscribers(rows);
+                if (rows.size() < chunkSize) {
+                    userRepository.delete(user);
+                    TransactionCallbacks.afterCommit(() -> userResponseCache.invalidate(id));
+                } else {
+                    userSpendService.adjust(rows.stream()
+                            .map(row -> UserSpendDelta.unsubscribed(id, row.status(), row.price()))
+                            .reduce(UserSpendDelta.none(id), UserSpendDelta::plus));
+                }
+                return rows.size();
+            }));
+            progress.accept(deleted);
+        } while (deleted >= chunkSize);
+    }
+
+    /**
+     * Подписки, появившиеся после последнего пакета, удаляются в последней транзакции под блокировкой строки
+     * сервиса: она не даёт добавить новые, и сводки трат пользователей не расходятся с каскадным удалением в БД.
+     * Счётчики популярности сервиса сбрасываются целиком.
+     */
+    private void deleteSubscriptionInChunks(Long id, LongConsumer progress) {
+        int chunkSize = bulkProperties.chunkSize();
+
+        int deleted;
+        do {
+            deleted = Objects.requireNonNull(transactionTemplate.execute(tx -> deleteSubscriptionChunk(id, chunkSize)));
+            progress.accept(deleted);
+        } while (deleted >= chunkSize);
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            Subscription subscription = subscriptionRepository.findForUpdateById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Сервис с id " + id + " не найден."));
+            int remaining;
+            do {
+                remaining = deleteSubscriptionChunk(id, chunkSize);
+                progress.accept(remaining);
+            } while (remaining >= chunkSize);
+            subscriptionRepository.delete(subscription);
+            popularityService.removeSubscription(id);
+        });
+    }
+
+    private int deleteSubscriptionChunk(Long id, int chunkSize) {
+        List<ChangedUserSubscription> rows = bulkRepository.deleteBySubscriptionId(id, chunkSize);
+        userSpendService.adjustAll(rows.stream()
+                .map(row -> UserSpendDelta.unsubscribed(row.userId(), row.status(), row.price()))
+                .toList());
+        return rows.size();
+    }
+
+    private void decrementSubscribers(List<DeletedUserSubscription> rows) {
+        Map<CounterKey, Long> counts = new HashMap<>();
+        rows.forEach(row -> counts.merge(
+                new CounterKey(row.subscriptionId(), row.status(), row.subscribedAt().toLocalDate()), 1L, Long::sum
+        ));
+        counts.forEach((key, count) -> popularityService.adjustSubscribers(
+                key.subscriptionId(), key.status(), key.day().atStartOfDay(), -count
+        ));
+    }
+
+    private record CounterKey(Long subscriptionId, SubscriptionStatus status, LocalDate day) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.osipovvj.webrise_test_task.service.impl;
+
+import com.github.osipovvj.webrise_test_task.config.JobProperties;
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
+import com.github.osipovvj.webrise_test_task.enums.JobStatus;
+import com.github.osipovvj.webrise_test_task.enums.JobType;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.service.JobService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Реестр фоновых задач в памяти процесса. Завершённые задачи хранятся {@link JobProperties#retention()}.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobServiceImpl implements JobService {
+    private static final Logger log = LoggerFactory.getLogger(JobServiceImpl.class);
+
+    private final ExecutorService jobExecutor;
+    private final JobProperties jobProperties;
+    private final Clock clock;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    @Override
+    public JobResponse submit(JobType type, Consumer<LongConsumer> work) {
+        purgeFinished();
+
+        Job job = new Job(UUID.randomUUID(), type, LocalDateTime.now(clock));
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> run(job, work));
+        log.atInfo().addKeyValue("jobId", job.id).addKeyValue("type", type).log("Задача запущена");
+
+        return job.toResponse();
+    }
+
+    @Override
+    public JobResponse getJob(UUID id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Задача с id " + id + " не найдена.");
+        }
+
+        return job.toResponse();
+    }
+
+    private void run(Job job, Consumer<LongConsumer> work) {
+        try {
+            work.accept(job.processed::addAndGet);
+            job.finish(JobStatus.COMPLETED, null, LocalDateTime.now(clock));
+            log.atInfo().addKeyValue("jobId", job.id).addKeyValue("processed", job.processed.get()).log("Задача завершена");
+        } catch (RuntimeException e) {
+            job.finish(JobStatus.FAILED, e.getMessage(), LocalDateTime.now(clock));
+            log.atError().addKeyValue("jobId", job.id).setCause(e).log("Задача завершилась с ошибкой");
+        }
+    }
+
+    private void purgeFinished() {
+        LocalDateTime threshold = LocalDateTime.now(clock).minus(jobProperties.retention());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final JobType type;
+        private final LocalDateTime startedAt;
+        private final AtomicLong processed = new AtomicLong();
+        private volatile JobStatus status = JobStatus.RUNNING;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(UUID id, JobType type, LocalDateTime startedAt) {
+            this.id = id;
+            this.type = type;
+            this.startedAt = startedAt;
+        }
+
+        private void finish(JobStatus status, String error, LocalDateTime finishedAt) {
+            this.error = error;
+            this.finishedAt = finishedAt;
+            this.status = status;
+        }
+
+        private JobResponse toResponse() {
+            return new JobResponse(id, type, status, processed.get(), error, startedAt, finishedAt);
+        }
+    }
+}
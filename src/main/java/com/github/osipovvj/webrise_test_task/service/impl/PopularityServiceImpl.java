@@ -0,0 +1,136 @@
+package com.github.osipovvj.webrise_test_task.service.impl;
+
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.popularity.DailyPopularityBuckets;
+import com.github.osipovvj.webrise_test_task.popularity.PopularityRanking;
+import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.DailyPopularityView;
+import com.github.osipovvj.webrise_test_task.repository.projection.SubscriptionPopularityView;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
+import com.github.osipovvj.webrise_test_task.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class PopularityServiceImpl implements PopularityService {
+    private static final Logger log = LoggerFactory.getLogger(PopularityServiceImpl.class);
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final UserSubscriptionRepository userSubscriptionRepository;
+    private final Clock clock;
+
+    private final PopularityRanking ranking = new PopularityRanking();
+    private final Map<SubscriptionStatus, PopularityRanking> statusRankings = newStatusRankings();
+    private final DailyPopularityBuckets dailyBuckets = new DailyPopularityBuckets(PopularityWindow.maxDays());
+    private volatile boolean loaded;
+
+    @Override
+    public List<Long> getTopSubscriptionIds(int limit, SubscriptionStatus status, PopularityWindow window) {
+        if (!loaded) {
+            reconcile();
+        }
+
+        if (window.isBounded()) {
+            LocalDate from = LocalDate.now(clock).minusDays(window.getDays() - 1L);
+            return dailyBuckets.top(from, status, limit);
+        }
+
+        return status == null ? ranking.top(limit) : statusRankings.get(status).top(limit);
+    }
+
+    @Override
+    public void registerSubscription(Long subscriptionId) {
+        TransactionCallbacks.afterCommit(() -> {
+            ranking.register(subscriptionId);
+            statusRankings.values().forEach(statusRanking -> statusRanking.register(subscriptionId));
+        });
+    }
+
+    @Override
+    public void removeSubscription(Long subscriptionId) {
+        TransactionCallbacks.afterCommit(() -> {
+            ranking.remove(subscriptionId);
+            statusRankings.values().forEach(statusRanking -> statusRanking.remove(subscriptionId));
+            dailyBuckets.remove(subscriptionId);
+        });
+    }
+
+    @Override
+    public void adjustSubscribers(Long subscriptionId, SubscriptionStatus status, LocalDateTime subscribedAt, long delta) {
+        TransactionCallbacks.afterCommit(() -> {
+            ranking.adjust(subscriptionId, delta);
+            if (status != null) {
+                statusRankings.get(status).adjust(subscriptionId, delta);
+                LocalDate day = subscribedAt == null ? LocalDate.now(clock) : subscribedAt.toLocalDate();
+                dailyBuckets.adjust(day, subscriptionId, status, delta, LocalDate.now(clock));
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(
+            initialDelayString = "${app.popularity.reconcile-interval}",
+            fixedDelayString = "${app.popularity.reconcile-interval}"
+    )
+    public void reconcile() {
+        LocalDate today = LocalDate.now(clock);
+        List<SubscriptionPopularityView> totals = subscriptionRepository.countSubscribers();
+        List<DailyPopularityView> daily = userSubscriptionRepository.countDailySubscribers(
+                today.minusDays(PopularityWindow.maxDays() - 1L).atStartOfDay()
+        );
+
+        Map<Long, Long> subscribers = new HashMap<>();
+        Map<SubscriptionStatus, Map<Long, Long>> statusSubscribers = new EnumMap<>(SubscriptionStatus.class);
+        for (SubscriptionStatus status : SubscriptionStatus.values()) {
+            statusSubscribers.put(status, new HashMap<>());
+        }
+        for (SubscriptionPopularityView view : totals) {
+            subscribers.merge(view.getSubscriptionId(), view.getSubscribers(), Long::sum);
+            statusSubscribers.forEach((status, counts) -> counts.putIfAbsent(view.getSubscriptionId(), 0L));
+            if (view.getStatus() != null) {
+                statusSubscribers.get(view.getStatus()).put(view.getSubscriptionId(), view.getSubscribers());
+            }
+        }
+
+        Map<LocalDate, Map<Long, long[]>> buckets = new HashMap<>();
+        for (DailyPopularityView view : daily) {
+            long[] counters = buckets
+                    .computeIfAbsent(view.getDay(), day -> new HashMap<>())
+                    .computeIfAbsent(view.getSubscriptionId(), id -> DailyPopularityBuckets.newCounters());
+            counters[view.getStatus().ordinal()] = view.getSubscribers();
+        }
+
+        long drift = subscribers.entrySet().stream()
+                .mapToLong(entry -> Math.abs(entry.getValue() - ranking.subscribers(entry.getKey())))
+                .sum();
+
+        ranking.replaceAll(subscribers);
+        statusSubscribers.forEach((status, counts) -> statusRankings.get(status).replaceAll(counts));
+        dailyBuckets.replaceAll(buckets, today);
+        loaded = true;
+        log.debug("Рейтинг популярности сверен с БД: сервисов={}, корзин={}, расхождение={}",
+                subscribers.size(), buckets.size(), drift);
+    }
+
+    private static Map<SubscriptionStatus, PopularityRanking> newStatusRankings() {
+        Map<SubscriptionStatus, PopularityRanking> rankings = new EnumMap<>(SubscriptionStatus.class);
+        for (SubscriptionStatus status : SubscriptionStatus.values()) {
+            rankings.put(status, new PopularityRanking());
+        }
+        return rankings;
+    }
+}
@@ -4,41 +4,72 @@ import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
 import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Constraints;
 import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
 import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
 import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
 import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.CollectionVersionView;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
 import com.github.osipovvj.webrise_test_task.service.SubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ConstraintViolations;
+import com.github.osipovvj.webrise_test_task.util.ETags;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
+@Timed("app.service")
 @Transactional
 @RequiredArgsConstructor
 public class SubscriptionServiceImpl implements SubscriptionService {
+    private static final int MAX_TOP_SUBSCRIPTIONS_LIMIT = 100;
+
     private final SubscriptionRepository subscriptionRepository;
+    private final PopularityService popularityService;
 
     @Override
     public SubscriptionResponse createSubscription(SubscriptionRequest request) {
-        if (subscriptionRepository.existsBySubscriptionName(request.subscriptionName())) {
-            throw new AlreadyExistsException("Сервис с именем " + request.subscriptionName() + " уже существует.");
-        }
-
         Subscription subscription = Subscription.builder()
                 .subscriptionName(request.subscriptionName())
                 .serviceName(request.serviceName())
                 .serviceUrl(request.serviceUrl())
                 .build();
 
-        return SubscriptionResponse.toResponse(subscriptionRepository.save(subscription));
+        try {
+            subscription = subscriptionRepository.saveAndFlush(subscription);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, Constraints.SUBSCRIPTIONS_NAME)) {
+                throw new AlreadyExistsException("Сервис с именем " + request.subscriptionName() + " уже существует.");
+            }
+            throw e;
+        }
+        popularityService.registerSubscription(subscription.getId());
+
+        return SubscriptionResponse.toResponse(subscription);
     }
 
     @Override
-    public SubscriptionResponse updateSubscription(Long id, SubscriptionRequest request) {
+    public SubscriptionResponse updateSubscription(Long id, SubscriptionRequest request, Long expectedVersion) {
         Subscription subscription = subscriptionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Сервис с id " + id + " не найден."));
+        if (expectedVersion != null && !expectedVersion.equals(subscription.getVersion())) {
+            throw new PreconditionFailedException("Сервис с id " + id + " был изменён, текущая версия " + subscription.getVersion() + ".");
+        }
 
         if (!subscription.getSubscriptionName().equals(request.subscriptionName())) {
             if (subscriptionRepository.existsBySubscriptionNameAndIdNot(request.subscriptionName(), id)) {
@@ -50,26 +81,42 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         subscription.setServiceName(request.serviceName());
         subscription.setServiceUrl(request.serviceUrl());
 
-        return SubscriptionResponse.toResponse(subscriptionRepository.save(subscription));
+        return SubscriptionResponse.toResponse(subscriptionRepository.saveAndFlush(subscription));
     }
 
+    /**
+     * Каталог и его версия читаются в транзакции на запись, то есть из основной БД: результат попадает в общий
+     * кэш запросов, и отстающая реплика положила бы туда старый каталог, а клиент получал бы ложные 304.
+     */
     @Override
-    @Transactional(readOnly = true)
-    public SubscriptionsResponse getSubscriptions() {
-        return SubscriptionsResponse.toResponse(subscriptionRepository.findAll());
+    public SubscriptionsResponse getSubscriptions(KeysetRequest page) {
+        List<Subscription> subscriptions = subscriptionRepository.findByIdGreaterThanOrderByIdAsc(page.afterId(), page.probe());
+
+        return SubscriptionsResponse.toResponse(KeysetSlice.of(subscriptions, page, Subscription::getId));
     }
 
     @Override
-    public void deleteSubscription(Long id) {
-        if (!subscriptionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Сервис с id " + id + " не найден.");
-        }
-
-        subscriptionRepository.deleteById(id);
+    public String getSubscriptionsETag() {
+        CollectionVersionView version = subscriptionRepository.findCatalogueVersion();
+        return ETags.of(version.getCount(), version.getLastModified());
     }
 
     @Override
-    public TopSubscriptionsResponse getTopSubscriptions() {
-        return TopSubscriptionsResponse.toResponse(subscriptionRepository.findTop3ByPopularity(PageRequest.of(0, 3)));
+    @Transactional(readOnly = true)
+    public TopSubscriptionsResponse getTopSubscriptions(int limit, SubscriptionStatus status, PopularityWindow window) {
+        if (limit < 1 || limit > MAX_TOP_SUBSCRIPTIONS_LIMIT) {
+            throw new InvalidRequestException("Параметр limit должен быть от 1 до " + MAX_TOP_SUBSCRIPTIONS_LIMIT + ".");
+        }
+
+        List<Long> topIds = popularityService.getTopSubscriptionIds(limit, status, window);
+        Map<Long, Subscription> subscriptions = subscriptionRepository.findAllById(topIds)
+                .stream()
+                .collect(Collectors.toMap(Subscription::getId, Function.identity()));
+
+        return TopSubscriptionsResponse.toResponse(topIds
+                .stream()
+                .map(subscriptions::get)
+                .filter(Objects::nonNull)
+                .toList());
     }
 }
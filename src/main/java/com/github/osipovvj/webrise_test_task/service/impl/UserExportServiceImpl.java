@@ -0,0 +1,37 @@
+package com.github.osipovvj.webrise_test_task.service.impl;
+
+import com.github.osipovvj.webrise_test_task.dto.request.UserExportFilter;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSubscriptionExportRow;
+import com.github.osipovvj.webrise_test_task.service.UserExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements UserExportService {
+    private final UserSubscriptionRepository userSubscriptionRepository;
+
+    /**
+     * Передаёт строки получателю по мере чтения курсора, транзакция и соединение заняты до конца выгрузки.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUserSubscriptions(UserExportFilter filter, Consumer<UserSubscriptionExportRow> rows) {
+        long count = 0;
+        try (Stream<UserSubscriptionExportRow> stream =
+                     userSubscriptionRepository.streamExportRows(filter.status(), filter.from(), filter.to())) {
+            Iterator<UserSubscriptionExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                rows.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,215 @@
+package com.github.osipovvj.webrise_test_task.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.osipovvj.webrise_test_task.config.BulkProperties;
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkItemResult;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.entity.User;
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
+import com.github.osipovvj.webrise_test_task.service.UserImportService;
+import com.github.osipovvj.webrise_test_task.util.TransactionCallbacks;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+    private static final Logger log = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final UserSpendRepository userSpendRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BulkProperties bulkProperties;
+    private final Cache<Long, Optional<UserResponse>> userResponseCache;
+
+    @Override
+    public void importNdjson(InputStream body, Consumer<BulkItemResult> results) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(UserRequest.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<Item> chunk = new ArrayList<>(bulkProperties.chunkSize());
+
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                chunk.add(validate(lineNumber, reader.readValue(line)));
+            } catch (JsonProcessingException e) {
+                chunk.add(Item.rejected(lineNumber, "Некорректный JSON: " + e.getOriginalMessage()));
+            }
+
+            if (chunk.size() >= bulkProperties.chunkSize()) {
+                flush(chunk, results);
+            }
+        }
+        flush(chunk, results);
+    }
+
+    @Override
+    public void importJsonArray(InputStream body, Consumer<BulkItemResult> results) throws IOException {
+        List<Item> chunk = new ArrayList<>(bulkProperties.chunkSize());
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                results.accept(BulkItemResult.rejected(1, BulkItemStatus.INVALID, "Ожидается JSON-массив пользователей."));
+                return;
+            }
+
+            long index = 0;
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    index++;
+                    JsonNode node = parser.readValueAsTree();
+                    try {
+                        chunk.add(validate(index, objectMapper.treeToValue(node, UserRequest.class)));
+                    } catch (JsonProcessingException e) {
+                        chunk.add(Item.rejected(index, "Некорректный JSON: " + e.getOriginalMessage()));
+                    }
+
+                    if (chunk.size() >= bulkProperties.chunkSize()) {
+                        flush(chunk, results);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                chunk.add(Item.rejected(index, "Некорректный JSON, обработка остановлена: " + e.getOriginalMessage()));
+            }
+        }
+        flush(chunk, results);
+    }
+
+    private Item validate(long line, UserRequest request) {
+        if (request == null) {
+            return Item.rejected(line, "Пустая запись.");
+        }
+
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return new Item(line, request, null);
+        }
+
+        return Item.rejected(line, violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+    }
+
+    private void flush(List<Item> chunk, Consumer<BulkItemResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<BulkItemResult> processed;
+        try {
+            processed = transactionTemplate.execute(status -> insertChunk(chunk));
+        } catch (DataIntegrityViolationException e) {
+            log.atWarn().addKeyValue("records", chunk.size()).log("Конфликт уникальности при пакетном импорте, пакет обрабатывается повторно");
+            try {
+                processed = transactionTemplate.execute(status -> insertChunk(chunk));
+            } catch (DataIntegrityViolationException retryException) {
+                log.atError().addKeyValue("records", chunk.size()).setCause(retryException).log("Не удалось сохранить пакет пользователей");
+                processed = chunk.stream()
+                        .map(item -> item.result() != null
+                                ? item.result()
+                                : BulkItemResult.rejected(item.line(), BulkItemStatus.FAILED, "Не удалось сохранить пользователя."))
+                        .toList();
+            }
+        }
+
+        processed.forEach(results);
+        chunk.clear();
+    }
+
+    private List<BulkItemResult> insertChunk(List<Item> chunk) {
+        List<UserRequest> candidates = chunk.stream()
+                .filter(item -> item.result() == null)
+                .map(Item::request)
+                .toList();
+        Set<String> usernames = candidates.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(userRepository.findExistingUsernames(candidates.stream().map(UserRequest::username).toList()));
+        Set<String> emails = candidates.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(userRepository.findExistingEmails(candidates.stream().map(UserRequest::email).toList()));
+
+        BulkItemResult[] results = new BulkItemResult[chunk.size()];
+        List<User> users = new ArrayList<>(candidates.size());
+        List<Integer> positions = new ArrayList<>(candidates.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Item item = chunk.get(i);
+            if (item.result() != null) {
+                results[i] = item.result();
+            } else if (usernames.contains(item.request().username())) {
+                results[i] = BulkItemResult.rejected(item.line(), BulkItemStatus.DUPLICATE,
+                        "Пользователь с именем " + item.request().username() + " уже существует.");
+            } else if (emails.contains(item.request().email())) {
+                results[i] = BulkItemResult.rejected(item.line(), BulkItemStatus.DUPLICATE,
+                        "Пользователь с email " + item.request().email() + " уже существует.");
+            } else {
+                usernames.add(item.request().username());
+                emails.add(item.request().email());
+                users.add(User.builder()
+                        .username(item.request().username())
+                        .email(item.request().email())
+                        .build());
+                positions.add(i);
+            }
+        }
+
+        if (!users.isEmpty()) {
+            userRepository.saveAll(users);
+            userRepository.flush();
+
+            List<Long> ids = users.stream().map(User::getId).toList();
+            userSpendRepository.createEmpty(ids);
+            TransactionCallbacks.afterCommit(() -> userResponseCache.invalidateAll(ids));
+        }
+
+        for (int i = 0; i < users.size(); i++) {
+            results[positions.get(i)] = BulkItemResult.created(chunk.get(positions.get(i)).line(), users.get(i).getId());
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private record Item(long line, UserRequest request, BulkItemResult result) {
+        static Item rejected(long line, String message) {
+            return new Item(line, null, BulkItemResult.rejected(line, BulkItemStatus.INVALID, message));
+        }
+    }
+}
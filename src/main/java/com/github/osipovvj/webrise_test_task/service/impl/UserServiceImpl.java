@@ -1,52 +1,81 @@
 package com.github.osipovvj.webrise_test_task.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
 import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.entity.Constraints;
 import com.github.osipovvj.webrise_test_task.entity.User;
 import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
 import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
 import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
 import com.github.osipovvj.webrise_test_task.service.UserService;
+import com.github.osipovvj.webrise_test_task.util.ConstraintViolations;
+import com.github.osipovvj.webrise_test_task.util.TransactionCallbacks;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
 
 @Service
+@Timed("app.service")
 @Transactional
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserSpendRepository userSpendRepository;
+    private final Cache<Long, Optional<UserResponse>> userResponseCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public UserResponse createUser(UserRequest request) {
-        if (userRepository.existsByUsername(request.username())) {
-            throw new AlreadyExistsException("Пользователь с именем " + request.username() + " уже существует.");
-        }
-        if (userRepository.existsByEmail(request.email())) {
-            throw new AlreadyExistsException("Пользователь с email " + request.email() + " уже существует.");
-        }
-
         User user = User.builder()
                 .username(request.username())
                 .email(request.email())
                 .build();
 
-        return UserResponse.toResponse(userRepository.save(user));
+        try {
+            UserResponse response = UserResponse.toResponse(userRepository.saveAndFlush(user));
+            userSpendRepository.createEmpty(List.of(response.id()));
+            TransactionCallbacks.afterCommit(() -> userResponseCache.invalidate(response.id()));
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, Constraints.USERS_USERNAME)) {
+                throw new AlreadyExistsException("Пользователь с именем " + request.username() + " уже существует.");
+            }
+            if (ConstraintViolations.isViolated(e, Constraints.USERS_EMAIL)) {
+                throw new AlreadyExistsException("Пользователь с email " + request.email() + " уже существует.");
+            }
+            throw e;
+        }
     }
 
+    /**
+     * Промах кэша читается в транзакции на запись, то есть из основной БД: отстающая реплика вернула бы
+     * на весь срок жизни записи старую версию пользователя или его отсутствие.
+     */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public UserResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
+        return userResponseCache.get(id, key -> transactionTemplate.execute(status ->
+                        userRepository.findById(key).map(UserResponse::toResponse)))
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь с id " + id + " не найден."));
-
-        return UserResponse.toResponse(user);
     }
 
     @Override
-    public UserResponse updateUser(Long id, UserRequest request) {
+    public UserResponse updateUser(Long id, UserRequest request, Long expectedVersion) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь с id " + id + " не найден."));
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("Пользователь с id " + id + " был изменён, текущая версия " + user.getVersion() + ".");
+        }
         if (!user.getUsername().equals(request.username())) {
             if (userRepository.existsByUsernameAndIdNot(request.username(), id)) {
                 throw new AlreadyExistsException("Пользователь с именем " + request.username() + " уже существует.");
@@ -60,15 +89,8 @@ public class UserServiceImpl implements UserService {
 
         user.setUsername(request.username());
         user.setEmail(request.email());
+        TransactionCallbacks.afterCommit(() -> userResponseCache.invalidate(id));
 
-        return UserResponse.toResponse(userRepository.save(user));
-    }
-
-    @Override
-    public void deleteUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Пользователь с id " + id + " не найден."));
-
-        userRepository.delete(user);
+        return UserResponse.toResponse(userRepository.saveAndFlush(user));
     }
 }
@@ -0,0 +1,43 @@
+package com.github.osipovvj.webrise_test_task.service.impl;
+
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionBulkRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import com.github.osipovvj.webrise_test_task.service.UserSpendService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Сводка создаётся вместе с пользователем, поэтому приращение обычно обновляет готовую строку. Если строки нет
+ * (пользователь добавлен в обход приложения), она создаётся той же вставкой со значениями приращения.
+ * Строка пользователя не блокируется: подписки уже держат на ней блокировку внешнего ключа.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+@RequiredArgsConstructor
+public class UserSpendServiceImpl implements UserSpendService {
+    private final UserSpendRepository userSpendRepository;
+    private final UserSubscriptionBulkRepository bulkRepository;
+
+    @Override
+    public void adjust(UserSpendDelta delta) {
+        if (!delta.isEmpty()) {
+            userSpendRepository.upsert(delta.userId(), delta.activeSpend(), delta.subscriptions(), delta.activeSubscriptions());
+        }
+    }
+
+    @Override
+    public void adjustAll(Collection<UserSpendDelta> deltas) {
+        List<UserSpendDelta> changed = deltas.stream()
+                .filter(delta -> !delta.isEmpty())
+                .toList();
+        if (!changed.isEmpty()) {
+            bulkRepository.adjustSpend(changed);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.github.osipovvj.webrise_test_task.service.impl;
+
+import com.github.osipovvj.webrise_test_task.config.BulkProperties;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkChangeStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkSubscribeRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkUsersRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkOperationResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkUserFailure;
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionBulkRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.ChangedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
+import com.github.osipovvj.webrise_test_task.service.UserSpendService;
+import com.github.osipovvj.webrise_test_task.service.UserSubscriptionBulkService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UserSubscriptionBulkServiceImpl implements UserSubscriptionBulkService {
+    private static final Logger log = LoggerFactory.getLogger(UserSubscriptionBulkServiceImpl.class);
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final UserSubscriptionBulkRepository bulkRepository;
+    private final PopularityService popularityService;
+    private final UserSpendService userSpendService;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkProperties bulkProperties;
+    private final Clock clock;
+
+    @Override
+    public BulkOperationResponse subscribe(Long subscriptionId, BulkSubscribeRequest request) {
+        requireSubscription(subscriptionId);
+
+        return forEachChunk(request.userIds(), chunk -> {
+            List<ChangedUserSubscription> rows = bulkRepository.subscribe(
+                    subscriptionId, chunk, request.price(), LocalDateTime.now(clock)
+            );
+            adjustSubscribers(subscriptionId, rows, 1);
+            userSpendService.adjustAll(rows.stream()
+                    .map(row -> UserSpendDelta.subscribed(row.userId(), row.status(), row.price()))
+                    .toList());
+
+            List<Long> skipped = skipped(chunk, rows);
+            Set<Long> existing = skipped.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(bulkRepository.findExistingUserIds(skipped));
+
+            List<BulkUserFailure> failures = skipped.stream()
+                    .map(userId -> existing.contains(userId)
+                            ? new BulkUserFailure(userId, BulkItemStatus.DUPLICATE,
+                                    "Пользователь с id " + userId + " уже подписан на сервис с id " + subscriptionId)
+                            : new BulkUserFailure(userId, BulkItemStatus.NOT_FOUND,
+                                    "Пользователь с id " + userId + " не найден."))
+                    .toList();
+            return new ChunkResult(rows.size(), failures);
+        });
+    }
+
+    @Override
+    public BulkOperationResponse unsubscribe(Long subscriptionId, BulkUsersRequest request) {
+        requireSubscription(subscriptionId);
+
+        return forEachChunk(request.userIds(), chunk -> {
+            List<ChangedUserSubscription> rows = bulkRepository.unsubscribe(subscriptionId, chunk);
+            adjustSubscribers(subscriptionId, rows, -1);
+            userSpendService.adjustAll(rows.stream()
+                    .map(row -> UserSpendDelta.unsubscribed(row.userId(), row.status(), row.price()))
+                    .toList());
+            return new ChunkResult(rows.size(), notSubscribed(subscriptionId, skipped(chunk, rows)));
+        });
+    }
+
+    @Override
+    public BulkOperationResponse changeStatus(Long subscriptionId, BulkChangeStatusRequest request) {
+        requireSubscription(subscriptionId);
+        SubscriptionStatus status = request.subscriptionStatus();
+
+        if (request.userIds() == null || request.userIds().isEmpty()) {
+            return changeStatusForAll(subscriptionId, status);
+        }
+
+        return forEachChunk(request.userIds(), chunk -> {
+            List<ChangedUserSubscription> rows = bulkRepository.changeStatus(
+                    subscriptionId, chunk, status, LocalDateTime.now(clock)
+            );
+            moveSubscribers(subscriptionId, rows, status);
+            return new ChunkResult(rows.size(), notSubscribed(subscriptionId, skipped(chunk, rows)));
+        });
+    }
+
+    private BulkOperationResponse changeStatusForAll(Long subscriptionId, SubscriptionStatus status) {
+        int chunkSize = bulkProperties.chunkSize();
+        long applied = 0;
+
+        int updated;
+        do {
+            updated = Objects.requireNonNull(transactionTemplate.execute(tx -> {
+                List<ChangedUserSubscription> rows = bulkRepository.changeStatusForAll(
+                        subscriptionId, status, chunkSize, LocalDateTime.now(clock)
+                );
+                moveSubscribers(subscriptionId, rows, status);
+                return rows.size();
+            }));
+            applied += updated;
+        } while (updated >= chunkSize);
+
+        return new BulkOperationResponse(applied, applied, List.of());
+    }
+
+    private BulkOperationResponse forEachChunk(List<Long> userIds, Function<List<Long>, ChunkResult> operation) {
+        List<Long> unique = new ArrayList<>(userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        int chunkSize = bulkProperties.chunkSize();
+
+        long applied = 0;
+        List<BulkUserFailure> failures = new ArrayList<>();
+
+        for (int from = 0; from < unique.size(); from += chunkSize) {
+            List<Long> chunk = unique.subList(from, Math.min(from + chunkSize, unique.size()));
+            try {
+                ChunkResult result = Objects.requireNonNull(transactionTemplate.execute(tx -> operation.apply(chunk)));
+                applied += result.applied();
+                failures.addAll(result.failures());
+            } catch (DataAccessException e) {
+                log.atError().addKeyValue("users", chunk.size()).setCause(e).log("Не удалось обработать пакет пользователей");
+                chunk.forEach(userId -> failures.add(new BulkUserFailure(
+                        userId, BulkItemStatus.FAILED, "Не удалось обработать пользователя с id " + userId
+                )));
+            }
+        }
+
+        return new BulkOperationResponse(unique.size(), applied, failures);
+    }
+
+    private void requireSubscription(Long subscriptionId) {
+        if (!subscriptionRepository.existsById(subscriptionId)) {
+            throw new ResourceNotFoundException("Подписка с id " + subscriptionId + " не найдена.");
+        }
+    }
+
+    private void adjustSubscribers(Long subscriptionId, List<ChangedUserSubscription> rows, long sign) {
+        countByStatusAndDay(rows).forEach((key, count) ->
+                popularityService.adjustSubscribers(subscriptionId, key.status(), key.day().atStartOfDay(), sign * count)
+        );
+    }
+
+    private void moveSubscribers(Long subscriptionId, List<ChangedUserSubscription> rows, SubscriptionStatus status) {
+        List<ChangedUserSubscription> changed = rows.stream()
+                .filter(row -> row.status() != status)
+                .toList();
+
+        adjustSubscribers(subscriptionId, changed, -1);
+        adjustSubscribers(subscriptionId, changed.stream()
+                .map(row -> new ChangedUserSubscription(row.userId(), status, row.subscribedAt(), row.price()))
+                .toList(), 1);
+        userSpendService.adjustAll(changed.stream()
+                .map(row -> UserSpendDelta.statusChanged(row.userId(), row.price(), row.status(), status))
+                .toList());
+    }
+
+    private static Map<DayKey, Long> countByStatusAndDay(List<ChangedUserSubscription> rows) {
+        Map<DayKey, Long> counts = new HashMap<>();
+        rows.forEach(row -> counts.merge(new DayKey(row.status(), row.subscribedAt().toLocalDate()), 1L, Long::sum));
+        return counts;
+    }
+
+    private static List<Long> skipped(List<Long> chunk, List<ChangedUserSubscription> rows) {
+        Set<Long> changed = rows.stream()
+                .map(ChangedUserSubscription::userId)
+                .collect(Collectors.toSet());
+
+        return chunk.stream()
+                .filter(userId -> !changed.contains(userId))
+                .toList();
+    }
+
+    private static List<BulkUserFailure> notSubscribed(Long subscriptionId, List<Long> userIds) {
+        return userIds.stream()
+                .map(userId -> new BulkUserFailure(userId, BulkItemStatus.NOT_FOUND,
+                        "Пользователь с id " + userId + " не подписан на сервис с id " + subscriptionId))
+                .toList();
+    }
+
+    private record ChunkResult(long applied, List<BulkUserFailure> failures) {
+    }
+
+    private record DayKey(SubscriptionStatus status, LocalDate day) {
+    }
+}
@@ -2,71 +2,129 @@ package com.github.osipovvj.webrise_test_task.service.impl;
 
 import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
 import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Constraints;
 import com.github.osipovvj.webrise_test_task.entity.Subscription;
-import com.github.osipovvj.webrise_test_task.entity.User;
 import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
 import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
 import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
 import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
 import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
 import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
 import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
+import com.github.osipovvj.webrise_test_task.service.UserSpendService;
 import com.github.osipovvj.webrise_test_task.service.UserSubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ConstraintViolations;
+import com.github.osipovvj.webrise_test_task.util.ETags;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+
 @Service
+@Timed("app.service")
 @Transactional
 @RequiredArgsConstructor
 public class UserSubscriptionServiceImpl implements UserSubscriptionService {
     private final UserRepository userRepository;
     private final SubscriptionRepository subscriptionRepository;
     private final UserSubscriptionRepository userSubscriptionRepository;
+    private final UserSpendRepository userSpendRepository;
+    private final PopularityService popularityService;
+    private final UserSpendService userSpendService;
 
     @Override
     public UserSubscriptionResponse addUserSubscription(Long userId, UserSubscriptionRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Пользователь с id " + userId + " не найден."));
         Subscription subscription = subscriptionRepository.findById(request.subscriptionId())
                 .orElseThrow(() -> new ResourceNotFoundException("Подписка с id " + request.subscriptionId() + " не найдена."));
 
-        if (userSubscriptionRepository.existsByUserIdAndSubscriptionId(userId, subscription.getId())) {
-            throw new AlreadyExistsException("Пользователь с id " + userId + " уже подписан на сервис с id " + subscription.getId());
-        }
-
         UserSubscription userSubscription = new UserSubscription();
 
-        userSubscription.setUser(user);
+        userSubscription.setUser(userRepository.getReferenceById(userId));
         userSubscription.setSubscription(subscription);
         userSubscription.setPrice(request.price());
         userSubscription.setStatus(SubscriptionStatus.ACTIVE);
 
-        userSubscription = userSubscriptionRepository.save(userSubscription);
+        try {
+            userSubscription = userSubscriptionRepository.saveAndFlush(userSubscription);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, Constraints.USER_SUBSCRIPTION_UNIQUE)) {
+                throw new AlreadyExistsException("Пользователь с id " + userId + " уже подписан на сервис с id " + subscription.getId());
+            }
+            if (ConstraintViolations.isViolated(e, Constraints.USER_SUBSCRIPTION_USER)) {
+                throw new ResourceNotFoundException("Пользователь с id " + userId + " не найден.");
+            }
+            if (ConstraintViolations.isViolated(e, Constraints.USER_SUBSCRIPTION_SUBSCRIPTION)) {
+                throw new ResourceNotFoundException("Подписка с id " + request.subscriptionId() + " не найдена.");
+            }
+            throw e;
+        }
+        popularityService.adjustSubscribers(subscription.getId(), SubscriptionStatus.ACTIVE, userSubscription.getSubscribedAt(), 1);
+        userSpendService.adjust(UserSpendDelta.subscribed(userId, SubscriptionStatus.ACTIVE, userSubscription.getPrice()));
 
         return UserSubscriptionResponse.toResponse(userSubscription);
     }
 
     @Override
-    public UserSubscriptionResponse changeUserSubscriptionStatus(Long userId, Long subscriptionId, ChangeSubscriptionStatusRequest request) {
+    public UserSubscriptionResponse changeUserSubscriptionStatus(
+            Long userId,
+            Long subscriptionId,
+            ChangeSubscriptionStatusRequest request,
+            Long expectedVersion
+    ) {
         UserSubscription userSubscription = userSubscriptionRepository.findByUserIdAndSubscriptionId(userId, subscriptionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользовтель с id " + userId + " не подписан на сервис с id " + subscriptionId));
+        if (expectedVersion != null && !expectedVersion.equals(userSubscription.getVersion())) {
+            throw new PreconditionFailedException("Подписка пользователя с id " + userId + " на сервис с id " + subscriptionId
+                    + " была изменена, текущая версия " + userSubscription.getVersion() + ".");
+        }
 
+        SubscriptionStatus previousStatus = userSubscription.getStatus();
         userSubscription.setStatus(request.subscriptionStatus());
 
-        return UserSubscriptionResponse.toResponse(userSubscriptionRepository.save(userSubscription));
+        if (previousStatus != request.subscriptionStatus()) {
+            popularityService.adjustSubscribers(subscriptionId, previousStatus, userSubscription.getSubscribedAt(), -1);
+            popularityService.adjustSubscribers(subscriptionId, request.subscriptionStatus(), userSubscription.getSubscribedAt(), 1);
+        }
+
+        UserSubscriptionResponse response = UserSubscriptionResponse.toResponse(userSubscriptionRepository.saveAndFlush(userSubscription));
+        userSpendService.adjust(UserSpendDelta.statusChanged(
+                userId, userSubscription.getPrice(), previousStatus, request.subscriptionStatus()
+        ));
+        return response;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public UserSubscriptionsResponse getUserSubscriptions(Long userId) {
-        if (!userRepository.existsById(userId)) {
+    public UserSubscriptionsResponse getUserSubscriptions(Long userId, KeysetRequest page) {
+        List<UserSubscription> userSubscriptions = userSubscriptionRepository.findPageWithSubscriptionByUserId(
+                userId, page.afterId(), page.probe()
+        );
+
+        if (userSubscriptions.isEmpty() && !userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("Пользователь с id " + userId + " не найден.");
         }
 
-        return UserSubscriptionsResponse.toResponse(userSubscriptionRepository.findAllByUserId(userId));
+        return UserSubscriptionsResponse.toResponse(KeysetSlice.of(userSubscriptions, page, UserSubscription::getId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getUserSubscriptionsETag(Long userId) {
+        return userSubscriptionRepository.findVersionByUserId(userId)
+                .map(version -> ETags.of(version.getCount(), version.getLastModified()));
     }
 
     @Override
@@ -75,5 +133,20 @@ public class UserSubscriptionServiceImpl implements UserSubscriptionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Пользовтель с id " + userId + " не подписан на сервис с id " + subscriptionId));
 
         userSubscriptionRepository.delete(userSubscription);
+        popularityService.adjustSubscribers(subscriptionId, userSubscription.getStatus(), userSubscription.getSubscribedAt(), -1);
+        userSpendService.adjust(UserSpendDelta.unsubscribed(userId, userSubscription.getStatus(), userSubscription.getPrice()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserSpendResponse getUserSpend(Long userId) {
+        return userSpendRepository.findById(userId)
+                .map(UserSpendResponse::toResponse)
+                .orElseGet(() -> {
+                    if (!userRepository.existsById(userId)) {
+                        throw new ResourceNotFoundException("Пользователь с id " + userId + " не найден.");
+                    }
+                    return UserSpendResponse.empty(userId);
+                });
     }
 }
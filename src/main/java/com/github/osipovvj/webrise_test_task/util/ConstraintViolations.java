@@ -0,0 +1,31 @@
+package com.github.osipovvj.webrise_test_task.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Проверяет, что исключение вызвано нарушением ограничения с указанным именем. Диалекты извлекают имя
+     * по-разному (H2 добавляет схему и может обрезать первый символ), поэтому имя ищется также в тексте ошибки драйвера.
+     * Ошибки без Hibernate (R2DBC) проверяются только по тексту драйвера.
+     */
+    public static boolean isViolated(final DataIntegrityViolationException exception, final String constraintName) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return contains(violation.getConstraintName(), constraintName)
+                        || contains(violation.getSQLException().getMessage(), constraintName);
+            }
+        }
+        return contains(exception.getMostSpecificCause().getMessage(), constraintName);
+    }
+
+    private static boolean contains(final String text, final String constraintName) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(constraintName);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.osipovvj.webrise_test_task.util;
+
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Сильный ETag из ключа (id записи или размер коллекции) и времени последнего изменения с точностью
+     * до микросекунды, как хранит PostgreSQL.
+     */
+    public static String of(final long key, final LocalDateTime modifiedAt) {
+        long micros = modifiedAt == null
+                ? 0
+                : modifiedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + modifiedAt.getNano() / 1_000;
+        return "\"" + Long.toHexString(key) + "-" + Long.toHexString(micros) + "\"";
+    }
+
+    /**
+     * Сильный ETag отдельной записи по её версии.
+     */
+    public static String ofVersion(final Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Версия из заголовка If-Match. Пусто, если заголовка нет или он равен "*".
+     * Слабые и нечисловые ETag не совпадают ни с одной версией.
+     */
+    public static Long expectedVersion(final String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new PreconditionFailedException("Заголовок If-Match " + tag + " не совпадает с текущей версией.");
+    }
+
+    /**
+     * Значение для Last-Modified. Отметки времени сущностей хранятся в часовом поясе JVM.
+     */
+    public static long lastModified(final LocalDateTime modifiedAt) {
+        return modifiedAt == null ? -1 : modifiedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
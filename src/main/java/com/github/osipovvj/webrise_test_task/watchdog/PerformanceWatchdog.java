@@ -0,0 +1,206 @@
+package com.github.osipovvj.webrise_test_task.watchdog;
+
+import com.github.osipovvj.webrise_test_task.config.WatchdogProperties;
+import com.github.osipovvj.webrise_test_task.datasource.SlowQueryDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Хранит последние медленные HTTP- и SQL-запросы. Для доли медленных SELECT в фоне снимается план
+ * EXPLAIN (ANALYZE, BUFFERS): запрос повторяется в транзакции только для чтения, которая затем откатывается.
+ * Значения параметров сохраняются, только если включено {@link WatchdogProperties#captureParameters()}.
+ */
+public class PerformanceWatchdog implements SlowQueryDataSource.SlowQueryListener {
+    private static final Logger log = LoggerFactory.getLogger(PerformanceWatchdog.class);
+    private static final int MAX_PARAMETER_LENGTH = 200;
+    private static final String MASK = "***";
+    private static final Pattern PLAIN_SELECT = Pattern.compile("^\\s*\\(*\\s*select\\b", Pattern.CASE_INSENSITIVE);
+    // повтор под EXPLAIN ANALYZE не должен сдвигать последовательности (откат этого не отменяет) и блокировать строки
+    private static final Pattern SIDE_EFFECTS = Pattern.compile(
+            "\\bfor\\s+(no\\s+key\\s+update|update|key\\s+share|share)\\b|\\b(nextval|setval)\\s*\\(", Pattern.CASE_INSENSITIVE
+    );
+
+    private final WatchdogProperties properties;
+    private final Clock clock;
+    private final Executor explainExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LinkedList<SlowRequest> slowRequests = new LinkedList<>();
+    private final LinkedList<SlowQuery> slowQueries = new LinkedList<>();
+
+    public PerformanceWatchdog(WatchdogProperties properties, Clock clock, Executor explainExecutor) {
+        this.properties = properties;
+        this.clock = clock;
+        this.explainExecutor = explainExecutor;
+    }
+
+    public void requestCompleted(HttpServletRequest request, int status, long elapsedNanos, int statements) {
+        if (elapsedNanos < properties.slowRequestThreshold().toNanos()) {
+            return;
+        }
+
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        @SuppressWarnings("unchecked")
+        Map<String, String> parameters = variables instanceof Map<?, ?> map ? Map.copyOf((Map<String, String>) map) : Map.of();
+        SlowRequest finding = new SlowRequest(
+                LocalDateTime.now(clock),
+                endpoint(request),
+                parameters,
+                maskQuery(request.getQueryString()),
+                status,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                statements
+        );
+        log.atWarn().addKeyValue("endpoint", finding.endpoint()).addKeyValue("durationMillis", finding.durationMillis())
+                .addKeyValue("statements", statements).log("Медленный HTTP-запрос");
+        append(slowRequests, finding);
+    }
+
+    @Override
+    public void slowQuery(DataSource target, String sql, List<Object> parameters, long elapsedNanos) {
+        SlowQuery finding = new SlowQuery(
+                sequence.incrementAndGet(),
+                LocalDateTime.now(clock),
+                currentEndpoint(),
+                sql,
+                parameters.stream().map(this::format).toList(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                null
+        );
+        log.atWarn().addKeyValue("endpoint", finding.endpoint()).addKeyValue("durationMillis", finding.durationMillis())
+                .addKeyValue("sql", sql).log("Медленный SQL-запрос");
+        append(slowQueries, finding);
+
+        if (isSelect(sql) && ThreadLocalRandom.current().nextDouble() < properties.explainRate()) {
+            List<Object> values = new ArrayList<>(parameters);
+            explainExecutor.execute(() -> attachPlan(finding.id(), explain(target, sql, values)));
+        }
+    }
+
+    public WatchdogReport report() {
+        synchronized (this) {
+            return new WatchdogReport(newestFirst(slowRequests), newestFirst(slowQueries));
+        }
+    }
+
+    public void clear() {
+        synchronized (this) {
+            slowRequests.clear();
+            slowQueries.clear();
+        }
+    }
+
+    private <T> void append(LinkedList<T> findings, T finding) {
+        synchronized (this) {
+            findings.addLast(finding);
+            if (findings.size() > properties.capacity()) {
+                findings.removeFirst();
+            }
+        }
+    }
+
+    private static <T> List<T> newestFirst(LinkedList<T> findings) {
+        List<T> copy = new ArrayList<>(findings.size());
+        findings.descendingIterator().forEachRemaining(copy::add);
+        return copy;
+    }
+
+    private void attachPlan(long id, String plan) {
+        synchronized (this) {
+            ListIterator<SlowQuery> iterator = slowQueries.listIterator();
+            while (iterator.hasNext()) {
+                SlowQuery finding = iterator.next();
+                if (finding.id() == id) {
+                    iterator.set(finding.withPlan(plan));
+                    return;
+                }
+            }
+        }
+    }
+
+    private String explain(DataSource target, String sql, List<Object> parameters) {
+        try (Connection connection = target.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                StringJoiner plan = new StringJoiner("\n");
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                }
+                return plan.toString();
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            log.debug("Не удалось получить план запроса: {}", sql, e);
+            return "План не получен: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Только обычные SELECT: CTE может содержать INSERT, UPDATE или DELETE, которые EXPLAIN ANALYZE выполнит.
+     */
+    static boolean isSelect(String sql) {
+        return PLAIN_SELECT.matcher(sql).find() && !SIDE_EFFECTS.matcher(sql).find();
+    }
+
+    private static String currentEndpoint() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? endpoint(attributes.getRequest())
+                : null;
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    private String maskQuery(String query) {
+        if (query == null || properties.captureParameters()) {
+            return query;
+        }
+
+        StringJoiner masked = new StringJoiner("&");
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            masked.add(separator < 0 ? parameter : parameter.substring(0, separator + 1) + MASK);
+        }
+        return masked.toString();
+    }
+
+    private String format(Object value) {
+        if (!properties.captureParameters()) {
+            return MASK;
+        }
+
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "…" : text;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.osipovvj.webrise_test_task.watchdog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * SQL-запрос дольше порога.
+ *
+ * @param endpoint   HTTP-запрос, в котором выполнялся SQL, или {@code null} для фоновых задач
+ * @param parameters значения параметров в порядке позиций, замаскированные, если их сохранение не включено
+ * @param plan       вывод EXPLAIN (ANALYZE, BUFFERS), если план снимался
+ */
+public record SlowQuery(
+        long id,
+        LocalDateTime detectedAt,
+        String endpoint,
+        String sql,
+        List<String> parameters,
+        long durationMillis,
+        String plan
+) {
+
+    SlowQuery withPlan(String plan) {
+        return new SlowQuery(id, detectedAt, endpoint, sql, parameters, durationMillis, plan);
+    }
+}
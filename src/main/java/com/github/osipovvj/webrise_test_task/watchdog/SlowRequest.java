@@ -0,0 +1,23 @@
+package com.github.osipovvj.webrise_test_task.watchdog;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * HTTP-запрос дольше порога.
+ *
+ * @param endpoint   метод и шаблон пути, например {@code GET /api/v1/users/{id}}
+ * @param parameters переменные пути
+ * @param query      строка запроса; значения параметров замаскированы, если их сохранение не включено
+ * @param statements число SQL-запросов Hibernate за время запроса
+ */
+public record SlowRequest(
+        LocalDateTime detectedAt,
+        String endpoint,
+        Map<String, String> parameters,
+        String query,
+        int status,
+        long durationMillis,
+        int statements
+) {
+}
@@ -0,0 +1,32 @@
+package com.github.osipovvj.webrise_test_task.watchdog;
+
+import com.github.osipovvj.webrise_test_task.metrics.SqlStatementCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Замеряет HTTP-запрос и передаёт его в {@link PerformanceWatchdog}. Должен стоять внутри
+ * фильтра метрик, который запускает {@link SqlStatementCounter}.
+ */
+@RequiredArgsConstructor
+public class SlowRequestFilter extends OncePerRequestFilter {
+    private final PerformanceWatchdog watchdog;
+    private final SqlStatementCounter counter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            watchdog.requestCompleted(request, response.getStatus(), System.nanoTime() - started, counter.current());
+        }
+    }
+}
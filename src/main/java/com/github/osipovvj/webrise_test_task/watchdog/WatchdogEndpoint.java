@@ -0,0 +1,26 @@
+package com.github.osipovvj.webrise_test_task.watchdog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@code GET /actuator/watchdog} — последние медленные HTTP- и SQL-запросы,
+ * {@code DELETE /actuator/watchdog} — очистить их.
+ */
+@Endpoint(id = "watchdog")
+@RequiredArgsConstructor
+public class WatchdogEndpoint {
+    private final PerformanceWatchdog watchdog;
+
+    @ReadOperation
+    public WatchdogReport report() {
+        return watchdog.report();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        watchdog.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.osipovvj.webrise_test_task.watchdog;
+
+import java.util.List;
+
+/**
+ * Последние медленные запросы, от новых к старым.
+ */
+public record WatchdogReport(
+        List<SlowRequest> slowRequests,
+        List<SlowQuery> slowQueries
+) {
+}
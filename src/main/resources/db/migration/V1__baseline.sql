@@ -0,0 +1,42 @@
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE subscriptions_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE user_subscription_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id bigint NOT NULL,
+    username varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    version bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE subscriptions (
+    id bigint NOT NULL,
+    subscription_name varchar(255) NOT NULL,
+    service_name varchar(255) NOT NULL,
+    service_url varchar(255) NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    version bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_subscriptions_subscription_name UNIQUE (subscription_name)
+);
+
+CREATE TABLE user_subscription (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    subscription_id bigint NOT NULL,
+    price numeric(38, 2),
+    status varchar(255) CHECK (status IN ('ACTIVE', 'INACTIVE')),
+    subscribed_at timestamp(6),
+    updated_at timestamp(6),
+    version bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_subscription_user_subscription UNIQUE (user_id, subscription_id),
+    CONSTRAINT fk_user_subscription_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_user_subscription_subscription FOREIGN KEY (subscription_id) REFERENCES subscriptions (id) ON DELETE CASCADE
+);
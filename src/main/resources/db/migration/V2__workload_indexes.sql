@@ -0,0 +1,10 @@
+-- Подписчики сервиса: каскадное удаление по внешнему ключу, пакетное удаление и смена статуса порциями по id,
+-- подсчёт подписчиков для популярности.
+CREATE INDEX ix_user_subscription_subscription ON user_subscription (subscription_id, id);
+
+-- Подписки пользователя: постраничный вывод по id и удаление порциями. Уникальный индекс (user_id, subscription_id)
+-- находит строки пользователя, но не отдаёт их в порядке id.
+CREATE INDEX ix_user_subscription_user ON user_subscription (user_id, id);
+
+-- Пересчёт популярности за окно: подписки с даты, без обращения к таблице.
+CREATE INDEX ix_user_subscription_subscribed_at ON user_subscription (subscribed_at) INCLUDE (subscription_id, status);
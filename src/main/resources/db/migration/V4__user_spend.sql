@@ -0,0 +1,17 @@
+CREATE TABLE user_spend (
+    user_id bigint NOT NULL,
+    active_spend numeric(38, 2) NOT NULL,
+    subscriptions bigint NOT NULL,
+    active_subscriptions bigint NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_spend_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+INSERT INTO user_spend (user_id, active_spend, subscriptions, active_subscriptions)
+SELECT u.id,
+       COALESCE(SUM(us.price) FILTER (WHERE us.status = 'ACTIVE'), 0),
+       COUNT(us.id),
+       COUNT(us.id) FILTER (WHERE us.status = 'ACTIVE')
+FROM users u
+LEFT JOIN user_subscription us ON us.user_id = u.id
+GROUP BY u.id;
@@ -0,0 +1,41 @@
+-- Профиль partitioned: user_subscription секционируется по хешу user_id. Первичный ключ секционированной таблицы
+-- обязан включать ключ секционирования, поэтому он становится (user_id, id) и заодно заменяет индекс (user_id, id).
+ALTER TABLE user_subscription RENAME TO user_subscription_unpartitioned;
+ALTER INDEX user_subscription_pkey RENAME TO user_subscription_unpartitioned_pkey;
+ALTER INDEX uk_user_subscription_user_subscription RENAME TO uk_user_subscription_unpartitioned;
+DROP INDEX ix_user_subscription_subscription, ix_user_subscription_user, ix_user_subscription_subscribed_at;
+
+CREATE TABLE user_subscription (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    subscription_id bigint NOT NULL,
+    price numeric(38, 2),
+    status varchar(255) CHECK (status IN ('ACTIVE', 'INACTIVE')),
+    subscribed_at timestamp(6),
+    updated_at timestamp(6),
+    version bigint NOT NULL,
+    CONSTRAINT user_subscription_pkey PRIMARY KEY (user_id, id),
+    CONSTRAINT uk_user_subscription_user_subscription UNIQUE (user_id, subscription_id),
+    CONSTRAINT fk_user_subscription_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_user_subscription_subscription FOREIGN KEY (subscription_id) REFERENCES subscriptions (id) ON DELETE CASCADE
+) PARTITION BY HASH (user_id);
+
+DO $$
+BEGIN
+    FOR remainder IN 0..${userSubscriptionPartitions} - 1 LOOP
+        EXECUTE format(
+                'CREATE TABLE user_subscription_p%s PARTITION OF user_subscription FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                remainder, ${userSubscriptionPartitions}, remainder);
+    END LOOP;
+END $$;
+
+INSERT INTO user_subscription (id, user_id, subscription_id, price, status, subscribed_at, updated_at, version)
+SELECT id, user_id, subscription_id, price, status, subscribed_at, updated_at, version
+FROM user_subscription_unpartitioned;
+
+DROP TABLE user_subscription_unpartitioned;
+
+CREATE INDEX ix_user_subscription_subscription ON user_subscription (subscription_id, id);
+CREATE INDEX ix_user_subscription_subscribed_at ON user_subscription (subscribed_at) INCLUDE (subscription_id, status);
+
+ANALYZE user_subscription;
@@ -0,0 +1,28 @@
+package com.github.osipovvj.webrise_test_task.reactive;
+
+import com.github.osipovvj.webrise_test_task.contract.ApiContractTest;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(
+        classes = ReactiveApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.web-application-type=reactive",
+                "spring.r2dbc.url=r2dbc:h2:mem:///contract;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password="
+        }
+)
+@ActiveProfiles(ReactiveApplication.PROFILE)
+class ReactiveApiContractTest extends ApiContractTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Override
+    protected int port() {
+        return port;
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.osipovvj.webrise_test_task.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+
+/**
+ * Неблокирующий вариант API на WebFlux и R2DBC. Сканирует только пакет reactive, а профиль не даёт основному
+ * приложению подхватить эти бины при сборке с профилем Maven reactive.
+ */
+@SpringBootApplication
+@EnableR2dbcAuditing
+@Profile(ReactiveApplication.PROFILE)
+public class ReactiveApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveApplication.class);
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.osipovvj.webrise_test_task.reactive.config;
+
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Tomcat остаётся в classpath вместе с основным приложением и выбирается автоконфигурацией первым.
+ * Явная фабрика оставляет реактивный стек на Netty с event loop по числу ядер.
+ */
+@Configuration
+@Profile(ReactiveApplication.PROFILE)
+public class NettyServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
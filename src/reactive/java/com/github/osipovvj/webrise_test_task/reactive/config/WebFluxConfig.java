@@ -0,0 +1,21 @@
+package com.github.osipovvj.webrise_test_task.reactive.config;
+
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Те же преобразования параметров запроса, что у {@code WebConfig} основного приложения.
+ */
+@Configuration
+@Profile(ReactiveApplication.PROFILE)
+public class WebFluxConfig implements WebFluxConfigurer {
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, PopularityWindow.class, PopularityWindow::fromValue);
+    }
+}
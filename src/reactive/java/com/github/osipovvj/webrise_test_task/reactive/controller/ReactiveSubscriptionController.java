@@ -0,0 +1,99 @@
+package com.github.osipovvj.webrise_test_task.reactive.controller;
+
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import com.github.osipovvj.webrise_test_task.reactive.service.ReactiveSubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ETags;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Тот же контракт /api/v1/subscriptions, что у {@code SubscriptionController}. Рейтинг /top считается
+ * SQL-агрегатом по подпискам пользователей, а не по рейтингу в памяти, как в основном приложении.
+ */
+@RestController
+@Profile(ReactiveApplication.PROFILE)
+@RequestMapping("/api/v1/subscriptions")
+@RequiredArgsConstructor
+public class ReactiveSubscriptionController {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveSubscriptionController.class);
+
+    private final ReactiveSubscriptionService subscriptionService;
+
+    @GetMapping(value = "/top", produces = {"application/json", "application/problem+json"})
+    public Mono<TopSubscriptionsResponse> getTopSubscriptions(
+            @RequestParam(defaultValue = "3") int limit,
+            @RequestParam(required = false) SubscriptionStatus status,
+            @RequestParam(defaultValue = "all") PopularityWindow window
+    ) {
+        log.atInfo().addKeyValue("limit", limit).addKeyValue("status", status).addKeyValue("window", window.getValue())
+                .log("Запрос на получение топа популярных сервисов");
+        return subscriptionService.getTopSubscriptions(limit, status, window)
+                .doOnSuccess(response -> log.atInfo().addKeyValue("limit", limit).addKeyValue("count", response.subscriptions().size())
+                        .log("Топ сервисов получен"))
+                .doOnError(e -> log.atError().addKeyValue("limit", limit).setCause(e).log("Ошибка при получении топа сервисов"));
+    }
+
+    @PostMapping(consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public Mono<SubscriptionResponse> createSubscription(@RequestBody SubscriptionRequest request) {
+        log.atInfo().addKeyValue("subscriptionName", request.subscriptionName()).log("Запрос на создание сервиса");
+        return subscriptionService.createSubscription(request)
+                .doOnSuccess(response -> log.atInfo().addKeyValue("subscriptionId", response.id()).log("Сервис создан"))
+                .doOnError(e -> log.atError().addKeyValue("subscriptionName", request.subscriptionName()).setCause(e)
+                        .log("Ошибка при создании сервиса"));
+    }
+
+    @GetMapping(produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<SubscriptionsResponse>> getSubscriptions(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerWebExchange exchange
+    ) {
+        log.atInfo().addKeyValue("after", after).addKeyValue("limit", limit).log("Запрос на получение страницы сервисов");
+        KeysetRequest page = KeysetRequest.of(after, limit);
+        return subscriptionService.getSubscriptionsETag()
+                .flatMap(eTag -> {
+                    if (exchange.checkNotModified(eTag)) {
+                        log.atInfo().log("Список сервисов не изменился");
+                        return Mono.<ResponseEntity<SubscriptionsResponse>>empty();
+                    }
+                    return subscriptionService.getSubscriptions(page).map(ResponseEntity::ok);
+                })
+                .doOnError(e -> log.atError().setCause(e).log("Ошибка при получении списка сервисов"));
+    }
+
+    @PutMapping(value = "/{id}", consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<SubscriptionResponse>> updateSubscription(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody SubscriptionRequest request
+    ) {
+        log.atInfo().addKeyValue("subscriptionId", id).addKeyValue("ifMatch", ifMatch).log("Запрос на изменение сервиса");
+        return subscriptionService.updateSubscription(id, request, ETags.expectedVersion(ifMatch))
+                .map(response -> ResponseEntity.ok().eTag(ETags.ofVersion(response.version())).body(response))
+                .doOnSuccess(response -> log.atInfo().addKeyValue("subscriptionId", id).log("Сервис изменён"))
+                .doOnError(e -> log.atError().addKeyValue("subscriptionId", id).setCause(e).log("Ошибка при изменении сервиса"));
+    }
+
+    @DeleteMapping(value = "/{id}", produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<Void>> deleteSubscription(@PathVariable Long id) {
+        log.atInfo().addKeyValue("subscriptionId", id).log("Запрос на удаление сервиса");
+        return subscriptionService.deleteSubscription(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().<Void>build()))
+                .doOnSuccess(response -> log.atInfo().addKeyValue("subscriptionId", id).log("Сервис удалён"))
+                .doOnError(e -> log.atError().addKeyValue("subscriptionId", id).setCause(e).log("Ошибка при удалении сервиса"));
+    }
+}
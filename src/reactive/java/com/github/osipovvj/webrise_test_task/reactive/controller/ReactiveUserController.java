@@ -0,0 +1,158 @@
+package com.github.osipovvj.webrise_test_task.reactive.controller;
+
+import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import com.github.osipovvj.webrise_test_task.reactive.service.ReactiveUserService;
+import com.github.osipovvj.webrise_test_task.reactive.service.ReactiveUserSubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ETags;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Тот же контракт /api/v1/users, что у {@code UserController}, без блокирующих вызовов.
+ * Пользователь удаляется сразу, каскадом по внешнему ключу, а не фоновой задачей.
+ */
+@RestController
+@Profile(ReactiveApplication.PROFILE)
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveUserController.class);
+
+    private final ReactiveUserService userService;
+    private final ReactiveUserSubscriptionService userSubscriptionService;
+
+    @PostMapping(consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public Mono<UserResponse> createUser(@Valid @RequestBody UserRequest request) {
+        log.atInfo().log("Запрос на создание пользователя");
+        return userService.createUser(request)
+                .doOnSuccess(response -> log.atInfo().addKeyValue("userId", response.id()).log("Пользователь создан"))
+                .doOnError(e -> log.atError().addKeyValue("username", request.username()).setCause(e).log("Ошибка при создании пользователя"));
+    }
+
+    @GetMapping(value = "/{id}", produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<UserResponse>> getUser(@PathVariable long id, ServerWebExchange exchange) {
+        log.atInfo().addKeyValue("userId", id).log("Запрос на получение пользователя");
+        return userService.getUserById(id)
+                .flatMap(response -> {
+                    Instant lastModified = Instant.ofEpochMilli(ETags.lastModified(response.updatedAt()));
+                    if (exchange.checkNotModified(ETags.ofVersion(response.version()), lastModified)) {
+                        log.atInfo().addKeyValue("userId", id).log("Пользователь не изменился");
+                        return Mono.empty();
+                    }
+                    log.atInfo().addKeyValue("userId", id).addKeyValue("version", response.version()).log("Пользователь получен");
+                    return Mono.just(ResponseEntity.ok(response));
+                })
+                .doOnError(e -> log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при получении пользователя"));
+    }
+
+    @PutMapping(value = "/{id}", consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<UserResponse>> updateUser(
+            @PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UserRequest request
+    ) {
+        log.atInfo().addKeyValue("userId", id).addKeyValue("ifMatch", ifMatch).log("Запрос на изменение пользователя");
+        return userService.updateUser(id, request, ETags.expectedVersion(ifMatch))
+                .map(response -> ResponseEntity.ok().eTag(ETags.ofVersion(response.version())).body(response))
+                .doOnSuccess(response -> log.atInfo().addKeyValue("userId", id).log("Пользователь изменён"))
+                .doOnError(e -> log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при изменении пользователя"));
+    }
+
+    @DeleteMapping(value = "/{id}", produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable long id) {
+        log.atInfo().addKeyValue("userId", id).log("Запрос на удаление пользователя");
+        return userService.deleteUser(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().<Void>build()))
+                .doOnSuccess(response -> log.atInfo().addKeyValue("userId", id).log("Пользователь удалён"))
+                .doOnError(e -> log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при удалении пользователя"));
+    }
+
+    @PostMapping(value = "/{id}/subscriptions", consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public Mono<UserSubscriptionResponse> addSubscription(
+            @PathVariable long id,
+            @RequestBody UserSubscriptionRequest request
+    ) {
+        log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", request.subscriptionId()).log("Запрос на добавление подписки пользователю");
+        return userSubscriptionService.addUserSubscription(id, request)
+                .doOnSuccess(response -> log.atInfo().addKeyValue("userId", id).addKeyValue("userSubscriptionId", response.id())
+                        .log("Подписка добавлена пользователю"))
+                .doOnError(e -> log.atError().addKeyValue("userId", id).addKeyValue("subscriptionId", request.subscriptionId()).setCause(e)
+                        .log("Ошибка при добавлении подписки пользователю"));
+    }
+
+    @GetMapping(value = "/{id}/subscriptions", produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<UserSubscriptionsResponse>> getUsersSubscriptions(
+            @PathVariable long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            ServerWebExchange exchange
+    ) {
+        log.atInfo().addKeyValue("userId", id).addKeyValue("after", after).addKeyValue("limit", limit).log("Запрос на получение подписок пользователя");
+        KeysetRequest page = KeysetRequest.of(after, limit);
+        return userService.getUserSubscriptionsETag(id)
+                .map(exchange::checkNotModified)
+                .defaultIfEmpty(false)
+                .flatMap(notModified -> {
+                    if (notModified) {
+                        log.atInfo().addKeyValue("userId", id).log("Подписки пользователя не изменились");
+                        return Mono.<ResponseEntity<UserSubscriptionsResponse>>empty();
+                    }
+                    return userService.getUserSubscriptions(id, page).map(ResponseEntity::ok);
+                })
+                .doOnError(e -> log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при получении подписок пользователя"));
+    }
+
+    @GetMapping(value = "/{id}/spend", produces = {"application/json", "application/problem+json"})
+    public Mono<UserSpendResponse> getUserSpend(@PathVariable long id) {
+        log.atInfo().addKeyValue("userId", id).log("Запрос на получение сводки трат пользователя");
+        return userSubscriptionService.getUserSpend(id)
+                .doOnSuccess(response -> log.atInfo().addKeyValue("userId", id).addKeyValue("activeSubscriptions", response.activeSubscriptionCount())
+                        .log("Сводка трат пользователя получена"))
+                .doOnError(e -> log.atError().addKeyValue("userId", id).setCause(e).log("Ошибка при получении сводки трат пользователя"));
+    }
+
+    @PatchMapping(value = "/{id}/subscription/{sub_id}", consumes = "application/json", produces = {"application/json", "application/problem+json"})
+    public Mono<ResponseEntity<UserSubscriptionResponse>> changeUserSubscriptionStatus(
+            @PathVariable Long id,
+            @PathVariable Long sub_id,
+            @RequestBody ChangeSubscriptionStatusRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).addKeyValue("status", request.subscriptionStatus())
+                .addKeyValue("ifMatch", ifMatch).log("Запрос на изменение статуса подписки");
+        return userSubscriptionService.changeUserSubscriptionStatus(id, sub_id, request, ETags.expectedVersion(ifMatch))
+                .map(response -> ResponseEntity.ok().eTag(ETags.ofVersion(response.version())).body(response))
+                .doOnSuccess(response -> log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id)
+                        .addKeyValue("status", request.subscriptionStatus()).log("Статус подписки изменён"))
+                .doOnError(e -> log.atError().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).setCause(e)
+                        .log("Ошибка при изменении статуса подписки"));
+    }
+
+    @DeleteMapping(value = "/{id}/subscriptions/{sub_id}", produces = "application/problem+json")
+    public Mono<ResponseEntity<Void>> removeSubscription(@PathVariable long id, @PathVariable long sub_id) {
+        log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).log("Запрос на удаление подписки");
+        return userSubscriptionService.removeUserSubscription(id, sub_id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().<Void>build()))
+                .doOnSuccess(response -> log.atInfo().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).log("Подписка удалена"))
+                .doOnError(e -> log.atError().addKeyValue("userId", id).addKeyValue("subscriptionId", sub_id).setCause(e)
+                        .log("Ошибка при удалении подписки"));
+    }
+}
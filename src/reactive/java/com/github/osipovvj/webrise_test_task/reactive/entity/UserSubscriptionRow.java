@@ -0,0 +1,40 @@
+package com.github.osipovvj.webrise_test_task.reactive.entity;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Table("user_subscription")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class UserSubscriptionRow {
+    @Id
+    private Long id;
+
+    private Long userId;
+
+    private Long subscriptionId;
+
+    private BigDecimal price;
+
+    private SubscriptionStatus status;
+
+    @CreatedDate
+    private LocalDateTime subscribedAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+}
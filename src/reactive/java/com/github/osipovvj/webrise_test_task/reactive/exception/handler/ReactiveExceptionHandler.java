@@ -0,0 +1,138 @@
+package com.github.osipovvj.webrise_test_task.reactive.exception.handler;
+
+import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Те же ответы об ошибках, что у {@code GlobalExceptionHandler}, для WebFlux.
+ */
+@RestControllerAdvice
+@Profile(ReactiveApplication.PROFILE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetailResponse handleValidationException(
+            WebExchangeBindException exception,
+            ServerHttpRequest request
+    ) {
+        List<ProblemDetailResponse.FieldErrorDetail> errors = exception
+                .getBindingResult()
+                .getFieldErrors()
+                .stream()
+                .map(fieldError -> new ProblemDetailResponse.FieldErrorDetail(
+                        fieldError.getField(), fieldError.getDefaultMessage()
+                ))
+                .toList();
+
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/errors/not-valid",
+                "Validation Failed",
+                HttpStatus.BAD_REQUEST.value(),
+                "Одно или несколько полей содержат ошибки.",
+                request.getPath().value(),
+                errors
+        );
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ProblemDetailResponse handleNotFoundException(
+            ResourceNotFoundException exception,
+            ServerHttpRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/not-found",
+                "Not Found Error",
+                HttpStatus.NOT_FOUND.value(),
+                exception.getMessage(),
+                request.getPath().value(),
+                null
+        );
+    }
+
+    @ExceptionHandler(AlreadyExistsException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ProblemDetailResponse handleAlreadyExistsException(
+            AlreadyExistsException exception,
+            ServerHttpRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/already-exists",
+                "Already Exists Error",
+                HttpStatus.CONFLICT.value(),
+                exception.getMessage(),
+                request.getPath().value(),
+                null
+        );
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ProblemDetailResponse handlePreconditionFailedException(
+            PreconditionFailedException exception,
+            ServerHttpRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/precondition-failed",
+                "Precondition Failed Error",
+                HttpStatus.PRECONDITION_FAILED.value(),
+                exception.getMessage(),
+                request.getPath().value(),
+                null
+        );
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ProblemDetailResponse handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException exception,
+            ServerHttpRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/concurrent-modification",
+                "Concurrent Modification Error",
+                HttpStatus.CONFLICT.value(),
+                "Данные были изменены параллельным запросом. Получите актуальную версию и повторите запрос.",
+                request.getPath().value(),
+                null
+        );
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetailResponse handleInvalidRequestException(
+            InvalidRequestException exception,
+            ServerHttpRequest request
+    ) {
+        return new ProblemDetailResponse(
+                LocalDateTime.now(),
+                "/error/bad-request",
+                "Bad Request Error",
+                HttpStatus.BAD_REQUEST.value(),
+                exception.getMessage(),
+                request.getPath().value(),
+                null
+        );
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.osipovvj.webrise_test_task.reactive.repository;
+
+import com.github.osipovvj.webrise_test_task.reactive.entity.SubscriptionRow;
+import com.github.osipovvj.webrise_test_task.reactive.repository.projection.VersionView;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ReactiveSubscriptionRepository extends R2dbcRepository<SubscriptionRow, Long> {
+
+    @Query("SELECT nextval('subscriptions_seq')")
+    Mono<Long> nextId();
+
+    @Query("SELECT * FROM subscriptions WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<SubscriptionRow> findPage(long afterId, int limit);
+
+    /**
+     * Рейтинг по числу подписок пользователей, как в исходном {@code findTop3ByPopularity}: сервисы без подписчиков
+     * тоже попадают в выборку, но в конец списка.
+     */
+    @Query("SELECT s.* FROM subscriptions s LEFT JOIN (" +
+            "SELECT subscription_id, COUNT(id) AS subscribers FROM user_subscription " +
+            "WHERE status IN (:statuses) GROUP BY subscription_id" +
+            ") t ON t.subscription_id = s.id ORDER BY COALESCE(t.subscribers, 0) DESC, s.id LIMIT :limit")
+    Flux<SubscriptionRow> findTop(Collection<String> statuses, int limit);
+
+    /**
+     * То же, что {@link #findTop}, но считаются только подписки, оформленные начиная с {@code since}.
+     */
+    @Query("SELECT s.* FROM subscriptions s JOIN (" +
+            "SELECT subscription_id, COUNT(id) AS subscribers FROM user_subscription " +
+            "WHERE status IN (:statuses) AND subscribed_at >= :since GROUP BY subscription_id" +
+            ") t ON t.subscription_id = s.id ORDER BY t.subscribers DESC, s.id LIMIT :limit")
+    Flux<SubscriptionRow> findTopSince(Collection<String> statuses, LocalDateTime since, int limit);
+
+    @Query("SELECT COUNT(id) AS count, MAX(updated_at) AS last_modified FROM subscriptions")
+    Mono<VersionView> findCatalogueVersion();
+
+    /**
+     * Подписки пользователей на сервис удаляются каскадом по внешнему ключу.
+     */
+    @Modifying
+    @Query("DELETE FROM subscriptions WHERE id = :id")
+    Mono<Integer> deleteSubscriptionById(Long id);
+}
@@ -0,0 +1,49 @@
+package com.github.osipovvj.webrise_test_task.reactive.repository;
+
+import com.github.osipovvj.webrise_test_task.reactive.entity.UserRow;
+import com.github.osipovvj.webrise_test_task.reactive.repository.projection.SpendView;
+import com.github.osipovvj.webrise_test_task.reactive.repository.projection.UserSubscriptionView;
+import com.github.osipovvj.webrise_test_task.reactive.repository.projection.VersionView;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository extends R2dbcRepository<UserRow, Long> {
+
+    @Query("SELECT nextval('users_seq')")
+    Mono<Long> nextId();
+
+    /**
+     * Подписки пользователя удаляются каскадом по внешнему ключу.
+     */
+    @Modifying
+    @Query("DELETE FROM users WHERE id = :id")
+    Mono<Integer> deleteUserById(Long id);
+
+    @Query("SELECT us.id, us.price, us.status, us.subscribed_at, us.updated_at, us.version, " +
+            "s.id AS subscription_id, s.subscription_name, s.service_name, s.service_url, " +
+            "s.created_at AS subscription_created_at, s.version AS subscription_version " +
+            "FROM user_subscription us JOIN subscriptions s ON s.id = us.subscription_id " +
+            "WHERE us.user_id = :userId AND us.id > :afterId ORDER BY us.id LIMIT :limit")
+    Flux<UserSubscriptionView> findSubscriptionsPage(Long userId, long afterId, int limit);
+
+    @Query("SELECT COUNT(us.id) AS count, " +
+            "MAX(CASE WHEN s.updated_at > us.updated_at THEN s.updated_at ELSE us.updated_at END) AS last_modified " +
+            "FROM users u LEFT JOIN user_subscription us ON us.user_id = u.id " +
+            "LEFT JOIN subscriptions s ON s.id = us.subscription_id " +
+            "WHERE u.id = :userId GROUP BY u.id")
+    Mono<VersionView> findSubscriptionsVersion(Long userId);
+
+    /**
+     * Пусто, если пользователя нет; без подписок сводка нулевая.
+     */
+    @Query("SELECT u.id AS user_id, " +
+            "SUM(CASE WHEN us.status = 'ACTIVE' THEN us.price ELSE 0 END) AS active_spend, " +
+            "COUNT(us.id) AS subscriptions, " +
+            "COUNT(CASE WHEN us.status = 'ACTIVE' THEN 1 END) AS active_subscriptions " +
+            "FROM users u LEFT JOIN user_subscription us ON us.user_id = u.id " +
+            "WHERE u.id = :userId GROUP BY u.id")
+    Mono<SpendView> findSpend(Long userId);
+}
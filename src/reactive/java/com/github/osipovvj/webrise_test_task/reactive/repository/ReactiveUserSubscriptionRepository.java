@@ -0,0 +1,19 @@
+package com.github.osipovvj.webrise_test_task.reactive.repository;
+
+import com.github.osipovvj.webrise_test_task.reactive.entity.UserSubscriptionRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserSubscriptionRepository extends R2dbcRepository<UserSubscriptionRow, Long> {
+
+    @Query("SELECT nextval('user_subscription_seq')")
+    Mono<Long> nextId();
+
+    Mono<UserSubscriptionRow> findByUserIdAndSubscriptionId(Long userId, Long subscriptionId);
+
+    @Modifying
+    @Query("DELETE FROM user_subscription WHERE user_id = :userId AND subscription_id = :subscriptionId")
+    Mono<Integer> deleteByUserIdAndSubscriptionId(Long userId, Long subscriptionId);
+}
@@ -0,0 +1,9 @@
+package com.github.osipovvj.webrise_test_task.reactive.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Сводка по подпискам пользователя, посчитанная агрегатом по его подпискам.
+ */
+public record SpendView(Long userId, BigDecimal activeSpend, long subscriptions, long activeSubscriptions) {
+}
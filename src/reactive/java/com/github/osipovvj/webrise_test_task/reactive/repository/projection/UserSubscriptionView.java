@@ -0,0 +1,25 @@
+package com.github.osipovvj.webrise_test_task.reactive.repository.projection;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Подписка пользователя вместе с сервисом одной строкой соединения.
+ */
+public record UserSubscriptionView(
+        Long id,
+        BigDecimal price,
+        SubscriptionStatus status,
+        LocalDateTime subscribedAt,
+        LocalDateTime updatedAt,
+        Long version,
+        Long subscriptionId,
+        String subscriptionName,
+        String serviceName,
+        String serviceUrl,
+        LocalDateTime subscriptionCreatedAt,
+        Long subscriptionVersion
+) {
+}
@@ -0,0 +1,9 @@
+package com.github.osipovvj.webrise_test_task.reactive.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Количество элементов коллекции и время последнего изменения для ETag.
+ */
+public record VersionView(long count, LocalDateTime lastModified) {
+}
@@ -0,0 +1,19 @@
+package com.github.osipovvj.webrise_test_task.reactive.service;
+
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveSubscriptionService {
+    Mono<SubscriptionResponse> createSubscription(SubscriptionRequest request);
+    Mono<SubscriptionResponse> updateSubscription(Long id, SubscriptionRequest request, Long expectedVersion);
+    Mono<SubscriptionsResponse> getSubscriptions(KeysetRequest page);
+    Mono<String> getSubscriptionsETag();
+    Mono<Void> deleteSubscription(Long id);
+    Mono<TopSubscriptionsResponse> getTopSubscriptions(int limit, SubscriptionStatus status, PopularityWindow window);
+}
@@ -0,0 +1,16 @@
+package com.github.osipovvj.webrise_test_task.reactive.service;
+
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+    Mono<UserResponse> createUser(UserRequest request);
+    Mono<UserResponse> getUserById(Long id);
+    Mono<UserResponse> updateUser(Long id, UserRequest request, Long expectedVersion);
+    Mono<Void> deleteUser(Long id);
+    Mono<UserSubscriptionsResponse> getUserSubscriptions(Long userId, KeysetRequest page);
+    Mono<String> getUserSubscriptionsETag(Long userId);
+}
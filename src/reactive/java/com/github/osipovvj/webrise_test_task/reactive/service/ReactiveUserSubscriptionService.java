@@ -0,0 +1,19 @@
+package com.github.osipovvj.webrise_test_task.reactive.service;
+
+import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserSubscriptionService {
+    Mono<UserSubscriptionResponse> addUserSubscription(Long userId, UserSubscriptionRequest request);
+    Mono<UserSubscriptionResponse> changeUserSubscriptionStatus(
+            Long userId,
+            Long subscriptionId,
+            ChangeSubscriptionStatusRequest request,
+            Long expectedVersion
+    );
+    Mono<Void> removeUserSubscription(Long userId, Long subscriptionId);
+    Mono<UserSpendResponse> getUserSpend(Long userId);
+}
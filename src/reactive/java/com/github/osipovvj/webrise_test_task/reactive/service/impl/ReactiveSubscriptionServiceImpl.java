@@ -0,0 +1,148 @@
+package com.github.osipovvj.webrise_test_task.reactive.service.impl;
+
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Constraints;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import com.github.osipovvj.webrise_test_task.reactive.entity.SubscriptionRow;
+import com.github.osipovvj.webrise_test_task.reactive.repository.ReactiveSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.reactive.service.ReactiveSubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ConstraintViolations;
+import com.github.osipovvj.webrise_test_task.util.ETags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@Profile(ReactiveApplication.PROFILE)
+@Transactional
+@RequiredArgsConstructor
+public class ReactiveSubscriptionServiceImpl implements ReactiveSubscriptionService {
+    private static final int MAX_TOP_SUBSCRIPTIONS_LIMIT = 100;
+
+    private final ReactiveSubscriptionRepository subscriptionRepository;
+
+    @Override
+    public Mono<SubscriptionResponse> createSubscription(SubscriptionRequest request) {
+        return subscriptionRepository.nextId()
+                .map(id -> SubscriptionRow.builder()
+                        .id(id)
+                        .subscriptionName(request.subscriptionName())
+                        .serviceName(request.serviceName())
+                        .serviceUrl(request.serviceUrl())
+                        .build())
+                .flatMap(subscriptionRepository::save)
+                .map(ReactiveSubscriptionServiceImpl::toResponse)
+                .onErrorMap(DataIntegrityViolationException.class, e ->
+                        ConstraintViolations.isViolated(e, Constraints.SUBSCRIPTIONS_NAME)
+                                ? new AlreadyExistsException("Сервис с именем " + request.subscriptionName() + " уже существует.")
+                                : e);
+    }
+
+    @Override
+    public Mono<SubscriptionResponse> updateSubscription(Long id, SubscriptionRequest request, Long expectedVersion) {
+        return subscriptionRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(subscription -> {
+                    if (expectedVersion != null && !expectedVersion.equals(subscription.getVersion())) {
+                        return Mono.error(new PreconditionFailedException(
+                                "Сервис с id " + id + " был изменён, текущая версия " + subscription.getVersion() + "."
+                        ));
+                    }
+                    subscription.setSubscriptionName(request.subscriptionName());
+                    subscription.setServiceName(request.serviceName());
+                    subscription.setServiceUrl(request.serviceUrl());
+                    return subscriptionRepository.save(subscription);
+                })
+                .map(ReactiveSubscriptionServiceImpl::toResponse)
+                .onErrorMap(DataIntegrityViolationException.class, e ->
+                        ConstraintViolations.isViolated(e, Constraints.SUBSCRIPTIONS_NAME)
+                                ? new AlreadyExistsException("Сервис с названием " + request.subscriptionName() + " уже существует.")
+                                : e);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<SubscriptionsResponse> getSubscriptions(KeysetRequest page) {
+        return subscriptionRepository.findPage(page.afterId(), page.probe().max())
+                .collectList()
+                .map(rows -> {
+                    KeysetSlice<SubscriptionRow> slice = KeysetSlice.of(rows, page, SubscriptionRow::getId);
+                    return new SubscriptionsResponse(
+                            slice.items().size(),
+                            slice.items()
+                                    .stream()
+                                    .map(ReactiveSubscriptionServiceImpl::toResponse)
+                                    .toList(),
+                            slice.nextCursor()
+                    );
+                });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<String> getSubscriptionsETag() {
+        return subscriptionRepository.findCatalogueVersion()
+                .map(version -> ETags.of(version.count(), version.lastModified()));
+    }
+
+    @Override
+    public Mono<Void> deleteSubscription(Long id) {
+        return subscriptionRepository.deleteSubscriptionById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(notFound(id)) : Mono.empty());
+    }
+
+    /**
+     * Окно отсчитывается от начала дня, как дневные корзины рейтинга в основном приложении.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<TopSubscriptionsResponse> getTopSubscriptions(int limit, SubscriptionStatus status, PopularityWindow window) {
+        if (limit < 1 || limit > MAX_TOP_SUBSCRIPTIONS_LIMIT) {
+            return Mono.error(new InvalidRequestException("Параметр limit должен быть от 1 до " + MAX_TOP_SUBSCRIPTIONS_LIMIT + "."));
+        }
+
+        List<String> statuses = status == null
+                ? Arrays.stream(SubscriptionStatus.values()).map(SubscriptionStatus::name).toList()
+                : List.of(status.name());
+        Flux<SubscriptionRow> top = window.isBounded()
+                ? subscriptionRepository.findTopSince(statuses, LocalDate.now().minusDays(window.getDays() - 1L).atStartOfDay(), limit)
+                : subscriptionRepository.findTop(statuses, limit);
+        return top.map(ReactiveSubscriptionServiceImpl::toResponse)
+                .collectList()
+                .map(TopSubscriptionsResponse::new);
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Сервис с id " + id + " не найден.");
+    }
+
+    static SubscriptionResponse toResponse(SubscriptionRow subscription) {
+        return new SubscriptionResponse(
+                subscription.getId(),
+                subscription.getSubscriptionName(),
+                subscription.getServiceName(),
+                subscription.getServiceUrl(),
+                subscription.getCreatedAt(),
+                subscription.getVersion()
+        );
+    }
+}
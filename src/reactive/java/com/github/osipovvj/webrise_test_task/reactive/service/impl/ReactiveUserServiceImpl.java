@@ -0,0 +1,150 @@
+package com.github.osipovvj.webrise_test_task.reactive.service.impl;
+
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Constraints;
+import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import com.github.osipovvj.webrise_test_task.reactive.entity.UserRow;
+import com.github.osipovvj.webrise_test_task.reactive.repository.ReactiveUserRepository;
+import com.github.osipovvj.webrise_test_task.reactive.repository.projection.UserSubscriptionView;
+import com.github.osipovvj.webrise_test_task.reactive.service.ReactiveUserService;
+import com.github.osipovvj.webrise_test_task.util.ConstraintViolations;
+import com.github.osipovvj.webrise_test_task.util.ETags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+@Profile(ReactiveApplication.PROFILE)
+@Transactional
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+
+    @Override
+    public Mono<UserResponse> createUser(UserRequest request) {
+        return userRepository.nextId()
+                .map(id -> UserRow.builder()
+                        .id(id)
+                        .username(request.username())
+                        .email(request.email())
+                        .build())
+                .flatMap(userRepository::save)
+                .map(ReactiveUserServiceImpl::toResponse)
+                .onErrorMap(DataIntegrityViolationException.class, e -> alreadyExists(e, request));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<UserResponse> getUserById(Long id) {
+        return findUser(id).map(ReactiveUserServiceImpl::toResponse);
+    }
+
+    @Override
+    public Mono<UserResponse> updateUser(Long id, UserRequest request, Long expectedVersion) {
+        return findUser(id)
+                .flatMap(user -> {
+                    if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+                        return Mono.error(new PreconditionFailedException(
+                                "Пользователь с id " + id + " был изменён, текущая версия " + user.getVersion() + "."
+                        ));
+                    }
+                    user.setUsername(request.username());
+                    user.setEmail(request.email());
+                    return userRepository.save(user);
+                })
+                .map(ReactiveUserServiceImpl::toResponse)
+                .onErrorMap(DataIntegrityViolationException.class, e -> alreadyExists(e, request));
+    }
+
+    @Override
+    public Mono<Void> deleteUser(Long id) {
+        return userRepository.deleteUserById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(notFound(id)) : Mono.empty());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<UserSubscriptionsResponse> getUserSubscriptions(Long userId, KeysetRequest page) {
+        return userRepository.findSubscriptionsPage(userId, page.afterId(), page.probe().max())
+                .collectList()
+                .flatMap(rows -> rows.isEmpty()
+                        ? userRepository.existsById(userId)
+                                .flatMap(exists -> exists ? Mono.just(rows) : Mono.error(notFound(userId)))
+                        : Mono.just(rows))
+                .map(rows -> toResponse(KeysetSlice.of(rows, page, UserSubscriptionView::id)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<String> getUserSubscriptionsETag(Long userId) {
+        return userRepository.findSubscriptionsVersion(userId)
+                .map(version -> ETags.of(version.count(), version.lastModified()));
+    }
+
+    private Mono<UserRow> findUser(Long id) {
+        return userRepository.findById(id).switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Пользователь с id " + id + " не найден.");
+    }
+
+    private static RuntimeException alreadyExists(DataIntegrityViolationException e, UserRequest request) {
+        if (ConstraintViolations.isViolated(e, Constraints.USERS_USERNAME)) {
+            return new AlreadyExistsException("Пользователь с именем " + request.username() + " уже существует.");
+        }
+        if (ConstraintViolations.isViolated(e, Constraints.USERS_EMAIL)) {
+            return new AlreadyExistsException("Пользователь с email " + request.email() + " уже существует.");
+        }
+        return e;
+    }
+
+    private static UserResponse toResponse(UserRow user) {
+        return new UserResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getCreatedAt(),
+                user.getUpdatedAt(),
+                user.getVersion()
+        );
+    }
+
+    private static UserSubscriptionsResponse toResponse(KeysetSlice<UserSubscriptionView> slice) {
+        List<UserSubscriptionResponse> subscriptions = slice.items()
+                .stream()
+                .map(row -> new UserSubscriptionResponse(
+                        row.id(),
+                        row.price(),
+                        row.status(),
+                        row.subscribedAt(),
+                        row.updatedAt(),
+                        row.version(),
+                        new SubscriptionResponse(
+                                row.subscriptionId(),
+                                row.subscriptionName(),
+                                row.serviceName(),
+                                row.serviceUrl(),
+                                row.subscriptionCreatedAt(),
+                                row.subscriptionVersion()
+                        )
+                ))
+                .toList();
+
+        return new UserSubscriptionsResponse(subscriptions.size(), subscriptions, slice.nextCursor());
+    }
+}
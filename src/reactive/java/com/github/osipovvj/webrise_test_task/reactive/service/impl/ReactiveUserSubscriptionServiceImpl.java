@@ -0,0 +1,130 @@
+package com.github.osipovvj.webrise_test_task.reactive.service.impl;
+
+import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.entity.Constraints;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.reactive.ReactiveApplication;
+import com.github.osipovvj.webrise_test_task.reactive.entity.SubscriptionRow;
+import com.github.osipovvj.webrise_test_task.reactive.entity.UserSubscriptionRow;
+import com.github.osipovvj.webrise_test_task.reactive.repository.ReactiveSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.reactive.repository.ReactiveUserRepository;
+import com.github.osipovvj.webrise_test_task.reactive.repository.ReactiveUserSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.reactive.service.ReactiveUserSubscriptionService;
+import com.github.osipovvj.webrise_test_task.util.ConstraintViolations;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+/**
+ * Сводка трат и рейтинг здесь не хранятся отдельно, а считаются агрегатами по {@code user_subscription},
+ * поэтому изменение подписки — одна вставка или обновление строки.
+ */
+@Service
+@Profile(ReactiveApplication.PROFILE)
+@Transactional
+@RequiredArgsConstructor
+public class ReactiveUserSubscriptionServiceImpl implements ReactiveUserSubscriptionService {
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveSubscriptionRepository subscriptionRepository;
+    private final ReactiveUserSubscriptionRepository userSubscriptionRepository;
+
+    @Override
+    public Mono<UserSubscriptionResponse> addUserSubscription(Long userId, UserSubscriptionRequest request) {
+        return findSubscription(request.subscriptionId())
+                .flatMap(subscription -> userSubscriptionRepository.nextId()
+                        .map(id -> UserSubscriptionRow.builder()
+                                .id(id)
+                                .userId(userId)
+                                .subscriptionId(subscription.getId())
+                                .price(request.price())
+                                .status(SubscriptionStatus.ACTIVE)
+                                .build())
+                        .flatMap(userSubscriptionRepository::save)
+                        .map(userSubscription -> toResponse(userSubscription, subscription)))
+                .onErrorMap(DataIntegrityViolationException.class, e -> {
+                    if (ConstraintViolations.isViolated(e, Constraints.USER_SUBSCRIPTION_UNIQUE)) {
+                        return new AlreadyExistsException("Пользователь с id " + userId + " уже подписан на сервис с id " + request.subscriptionId());
+                    }
+                    if (ConstraintViolations.isViolated(e, Constraints.USER_SUBSCRIPTION_USER)) {
+                        return new ResourceNotFoundException("Пользователь с id " + userId + " не найден.");
+                    }
+                    if (ConstraintViolations.isViolated(e, Constraints.USER_SUBSCRIPTION_SUBSCRIPTION)) {
+                        return subscriptionNotFound(request.subscriptionId());
+                    }
+                    return e;
+                });
+    }
+
+    @Override
+    public Mono<UserSubscriptionResponse> changeUserSubscriptionStatus(
+            Long userId,
+            Long subscriptionId,
+            ChangeSubscriptionStatusRequest request,
+            Long expectedVersion
+    ) {
+        return userSubscriptionRepository.findByUserIdAndSubscriptionId(userId, subscriptionId)
+                .switchIfEmpty(Mono.error(() -> notSubscribed(userId, subscriptionId)))
+                .flatMap(userSubscription -> {
+                    if (expectedVersion != null && !expectedVersion.equals(userSubscription.getVersion())) {
+                        return Mono.error(new PreconditionFailedException("Подписка пользователя с id " + userId
+                                + " на сервис с id " + subscriptionId + " была изменена, текущая версия " + userSubscription.getVersion() + "."));
+                    }
+                    userSubscription.setStatus(request.subscriptionStatus());
+                    return userSubscriptionRepository.save(userSubscription);
+                })
+                .zipWhen(userSubscription -> findSubscription(subscriptionId))
+                .map(rows -> toResponse(rows.getT1(), rows.getT2()));
+    }
+
+    @Override
+    public Mono<Void> removeUserSubscription(Long userId, Long subscriptionId) {
+        return userSubscriptionRepository.deleteByUserIdAndSubscriptionId(userId, subscriptionId)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(notSubscribed(userId, subscriptionId)) : Mono.empty());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<UserSpendResponse> getUserSpend(Long userId) {
+        return userRepository.findSpend(userId)
+                .map(spend -> new UserSpendResponse(
+                        spend.userId(),
+                        spend.activeSpend(),
+                        spend.subscriptions(),
+                        spend.activeSubscriptions()
+                ))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Пользователь с id " + userId + " не найден.")));
+    }
+
+    private Mono<SubscriptionRow> findSubscription(Long id) {
+        return subscriptionRepository.findById(id).switchIfEmpty(Mono.error(() -> subscriptionNotFound(id)));
+    }
+
+    private static ResourceNotFoundException subscriptionNotFound(Long id) {
+        return new ResourceNotFoundException("Подписка с id " + id + " не найдена.");
+    }
+
+    private static ResourceNotFoundException notSubscribed(Long userId, Long subscriptionId) {
+        return new ResourceNotFoundException("Пользовтель с id " + userId + " не подписан на сервис с id " + subscriptionId);
+    }
+
+    private static UserSubscriptionResponse toResponse(UserSubscriptionRow userSubscription, SubscriptionRow subscription) {
+        return new UserSubscriptionResponse(
+                userSubscription.getId(),
+                userSubscription.getPrice(),
+                userSubscription.getStatus(),
+                userSubscription.getSubscribedAt(),
+                userSubscription.getUpdatedAt(),
+                userSubscription.getVersion(),
+                ReactiveSubscriptionServiceImpl.toResponse(subscription)
+        );
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Пропускная способность и p99 основных эндпоинтов при фиксированном числе параллельных клиентов.
+ * Сравнение режимов: {@code mvn test -Pbenchmark -Dtest=EndpointLoadBenchmark} (потоки платформы) и
+ * {@code mvn test -Pbenchmark,java21 -Dtest=EndpointLoadBenchmark -Dspring.profiles.active=virtual-threads}.
+ * Для PostgreSQL добавить {@code -Dspring.test.database.replace=none -Dspring.datasource.url=...}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.github.osipovvj=WARN"
+})
+@AutoConfigureTestDatabase
+class EndpointLoadBenchmark {
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 64);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 3));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("benchmark.seconds", 10));
+    private static final int USERS = 200;
+    private static final int SUBSCRIPTIONS = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void throughputAndP99() throws Exception {
+        for (int i = 1; i <= SUBSCRIPTIONS; i++) {
+            send(post("/api/v1/subscriptions",
+                    "{\"subscriptionName\":\"S" + i + "\",\"serviceName\":\"Service " + i + "\",\"serviceUrl\":\"https://s" + i + ".com\"}"));
+        }
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String body = send(post("/api/v1/users", "{\"username\":\"load" + i + "\",\"email\":\"load" + i + "@example.com\"}")).body();
+            long userId = Long.parseLong(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+            userIds.add(userId);
+            send(post("/api/v1/users/" + userId + "/subscriptions",
+                    "{\"subscriptionId\":" + (i % SUBSCRIPTIONS + 1) + ",\"price\":9.99}"));
+        }
+
+        AtomicLong created = new AtomicLong();
+        List<Result> results = List.of(
+                run("GET /users/{id}/subscriptions", n -> get("/api/v1/users/" + userIds.get((int) (n % USERS)) + "/subscriptions")),
+                run("GET /subscriptions", n -> get("/api/v1/subscriptions?limit=20")),
+                run("POST /users", n -> {
+                    long id = created.incrementAndGet();
+                    return post("/api/v1/users", "{\"username\":\"new" + id + "\",\"email\":\"new" + id + "@example.com\"}");
+                })
+        );
+
+        System.out.printf("threads=%s clients=%d%n", virtualThreads ? "virtual" : "platform", CLIENTS);
+        System.out.printf("%-32s %10s %10s %10s %8s%n", "endpoint", "req/s", "p50 ms", "p99 ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-32s %10.0f %10.2f %10.2f %8d%n",
+                    result.name(), result.throughput(), result.percentileMillis(0.50), result.percentileMillis(0.99), result.errors());
+        }
+
+        assertThat(results).allSatisfy(result -> assertThat(result.latencies()).isNotEmpty());
+    }
+
+    private Result run(String name, LongFunction<HttpRequest> requests) throws Exception {
+        measure(name, requests, WARMUP);
+        return measure(name, requests, MEASUREMENT);
+    }
+
+    private Result measure(String name, LongFunction<HttpRequest> requests, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = requests.apply(sequence.getAndIncrement());
+                        long started = System.nanoTime();
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        long elapsed = System.nanoTime() - started;
+                        if (status >= 400) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = elapsed;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+            return new Result(name, all, errors.get(), duration);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(request.uri().toString()).isLessThan(400);
+        return response;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private record Result(String name, long[] latencies, long errors, Duration duration) {
+
+        double throughput() {
+            return latencies.length / (duration.toNanos() / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Сущности в памяти для бенчмарков без базы данных.
+ */
+final class Fixtures {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 5, 1, 10, 0);
+
+    private Fixtures() {
+    }
+
+    static List<Subscription> subscriptions(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> Subscription.builder()
+                        .id(id)
+                        .subscriptionName("Subscription " + id)
+                        .serviceName("Service " + id)
+                        .serviceUrl("https://service" + id + ".com")
+                        .createdAt(CREATED_AT)
+                        .updatedAt(CREATED_AT)
+                        .version(0L)
+                        .build())
+                .toList();
+    }
+
+    static List<UserSubscription> userSubscriptions(List<Subscription> subscriptions, int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> UserSubscription.builder()
+                        .id(id)
+                        .price(BigDecimal.valueOf(499, 2))
+                        .status(id % 4 == 0 ? SubscriptionStatus.INACTIVE : SubscriptionStatus.ACTIVE)
+                        .subscribedAt(CREATED_AT.plusDays(id))
+                        .updatedAt(CREATED_AT.plusDays(id))
+                        .version(0L)
+                        .subscription(subscriptions.get((int) ((id - 1) % subscriptions.size())))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Копия {@code User} с идентификатором IDENTITY для сравнения в {@link UserInsertBenchmark}. Отображение задано
+ * в {@code benchmark/identity-user-orm.xml} и подключается только в бенчмарке, остальные тесты её не видят.
+ */
+@NoArgsConstructor
+class IdentityUser {
+    private Long id;
+    private String username;
+    private String email;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+
+    IdentityUser(String username, String email) {
+        this.username = username;
+        this.email = email;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = createdAt;
+    }
+}
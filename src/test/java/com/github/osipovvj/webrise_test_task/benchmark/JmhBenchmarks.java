@@ -0,0 +1,34 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Запуск JMH-бенчмарков пакета и сохранение результатов в JSON для сравнения между релизами.
+ * Все: {@code mvn test -Pbenchmark -Dtest=JmhBenchmarks}. Выборочно по регулярному выражению: {@code -Djmh.include=ResponseMapping}.
+ * Файл результатов задаётся через {@code -Djmh.result=...}, по умолчанию {@code target/jmh-result.json}.
+ */
+@Tag("benchmark")
+class JmhBenchmarks {
+
+    @Test
+    void run() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(System.getProperty("jmh.include", JmhBenchmarks.class.getPackageName()))
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "target/jmh-result.json"))
+                .build()
+        ).run();
+
+        assertThat(results).isNotEmpty();
+    }
+}
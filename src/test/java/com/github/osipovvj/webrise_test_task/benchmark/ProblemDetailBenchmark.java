@@ -0,0 +1,57 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import com.github.osipovvj.webrise_test_task.controller.UserController;
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.exception.handler.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение problem detail в {@link GlobalExceptionHandler} для ошибки валидации и отсутствующей записи.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProblemDetailBenchmark {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    private MockHttpServletRequest request;
+    private MethodArgumentNotValidException validationException;
+    private ResourceNotFoundException notFoundException;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        request = new MockHttpServletRequest("POST", "/api/v1/users");
+
+        UserRequest userRequest = new UserRequest(null, "broken");
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(userRequest, "userRequest");
+        bindingResult.addError(new FieldError("userRequest", "username", "не должно равняться null"));
+        bindingResult.addError(new FieldError("userRequest", "email", "Неверный формат email."));
+        validationException = new MethodArgumentNotValidException(
+                new MethodParameter(UserController.class.getMethod("createUser", UserRequest.class), 0),
+                bindingResult
+        );
+        notFoundException = new ResourceNotFoundException("Пользователь с id 42 не найден.");
+    }
+
+    @Benchmark
+    public ProblemDetailResponse validationProblem() {
+        return handler.handleValidationException(validationException, request);
+    }
+
+    @Benchmark
+    public ProblemDetailResponse notFoundProblem() {
+        return handler.handleNotFoundException(notFoundException, request);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование сущностей в ответы API для страницы подписок пользователя и топа сервисов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+    @Param({"20", "100"})
+    public int size;
+
+    private KeysetSlice<UserSubscription> userSubscriptions;
+    private List<Subscription> subscriptions;
+
+    @Setup
+    public void setUp() {
+        subscriptions = Fixtures.subscriptions(size);
+        userSubscriptions = KeysetSlice.of(
+                Fixtures.userSubscriptions(subscriptions, size + 1),
+                KeysetRequest.of(null, size),
+                UserSubscription::getId
+        );
+    }
+
+    @Benchmark
+    public UserSubscriptionsResponse userSubscriptionsResponse() {
+        return UserSubscriptionsResponse.toResponse(userSubscriptions);
+    }
+
+    @Benchmark
+    public TopSubscriptionsResponse topSubscriptionsResponse() {
+        return TopSubscriptionsResponse.toResponse(subscriptions);
+    }
+}
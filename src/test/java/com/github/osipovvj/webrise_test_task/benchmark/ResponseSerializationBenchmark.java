@@ -0,0 +1,76 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
+import com.github.osipovvj.webrise_test_task.exception.dto.ProblemDetailResponse;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetSlice;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов в JSON тем же набором модулей и настроек дат, что у ObjectMapper Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private UserSubscriptionsResponse userSubscriptions;
+    private SubscriptionsResponse subscriptions;
+    private ProblemDetailResponse problemDetail;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        List<Subscription> catalogue = Fixtures.subscriptions(size + 1);
+        KeysetRequest page = KeysetRequest.of(null, size);
+        userSubscriptions = UserSubscriptionsResponse.toResponse(
+                KeysetSlice.of(Fixtures.userSubscriptions(catalogue, size + 1), page, UserSubscription::getId)
+        );
+        subscriptions = SubscriptionsResponse.toResponse(KeysetSlice.of(catalogue, page, Subscription::getId));
+        problemDetail = new ProblemDetailResponse(
+                LocalDateTime.of(2025, 5, 1, 10, 0),
+                "/errors/not-valid",
+                "Validation Failed",
+                400,
+                "Одно или несколько полей содержат ошибки.",
+                "/api/v1/users",
+                List.of(new ProblemDetailResponse.FieldErrorDetail("email", "Неверный формат email."))
+        );
+    }
+
+    @Benchmark
+    public byte[] userSubscriptionsResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userSubscriptions);
+    }
+
+    @Benchmark
+    public byte[] subscriptionsResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(subscriptions);
+    }
+
+    @Benchmark
+    public byte[] problemDetailResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(problemDetail);
+    }
+}
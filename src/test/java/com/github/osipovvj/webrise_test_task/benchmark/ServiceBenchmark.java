@@ -0,0 +1,106 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import com.github.osipovvj.webrise_test_task.WebriseTestTaskApplication;
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.service.SubscriptionService;
+import com.github.osipovvj.webrise_test_task.service.UserService;
+import com.github.osipovvj.webrise_test_task.service.UserSubscriptionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Методы сервисов вместе с кэшами и запросами к встроенной H2. Контекст поднимается один раз на форк.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+    private static final int USERS = 200;
+    private static final int CATALOGUE = 50;
+    private static final int SUBSCRIPTIONS_PER_USER = 20;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserSubscriptionService userSubscriptionService;
+    private SubscriptionService subscriptionService;
+    private List<Long> userIds;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(WebriseTestTaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--spring.docker.compose.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.github.osipovvj=WARN"
+                );
+        userService = context.getBean(UserService.class);
+        userSubscriptionService = context.getBean(UserSubscriptionService.class);
+        subscriptionService = context.getBean(SubscriptionService.class);
+
+        List<Long> subscriptionIds = new ArrayList<>();
+        for (int i = 0; i < CATALOGUE; i++) {
+            subscriptionIds.add(subscriptionService.createSubscription(
+                    new SubscriptionRequest("Subscription " + i, "Service " + i, "https://service" + i + ".com")
+            ).id());
+        }
+
+        userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            Long userId = userService.createUser(new UserRequest("jmh" + i, "jmh" + i + "@example.com")).id();
+            for (int j = 0; j < SUBSCRIPTIONS_PER_USER; j++) {
+                userSubscriptionService.addUserSubscription(userId, new UserSubscriptionRequest(
+                        subscriptionIds.get((i + j) % CATALOGUE), BigDecimal.valueOf(499, 2)
+                ));
+            }
+            userIds.add(userId);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(randomUserId());
+    }
+
+    @Benchmark
+    public UserSubscriptionsResponse getUserSubscriptions() {
+        return userSubscriptionService.getUserSubscriptions(randomUserId(), KeysetRequest.of(null, SUBSCRIPTIONS_PER_USER));
+    }
+
+    @Benchmark
+    public SubscriptionsResponse getSubscriptions() {
+        return subscriptionService.getSubscriptions(KeysetRequest.of(null, KeysetRequest.DEFAULT_LIMIT));
+    }
+
+    private Long randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.osipovvj.webrise_test_task.benchmark;
+
+import com.github.osipovvj.webrise_test_task.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Скорость вставки пользователей с идентификатором IDENTITY (как до перехода на последовательности: INSERT сразу
+ * при persist, пакеты отключены) и из последовательности без пакетной отправки и с JDBC batch.
+ * Запуск: {@code mvn test -Pbenchmark -Dtest=UserInsertBenchmark}. Для PostgreSQL добавить
+ * {@code -Dspring.test.database.replace=none -Dspring.datasource.url=...}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.mapping-resources=benchmark/identity-user-orm.xml"
+})
+class UserInsertBenchmark {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void insertRate() {
+        run("warmup", BATCH_SIZE, ROWS / 10, UserInsertBenchmark::identityUser);
+        run("warmup", 1, ROWS / 10, UserInsertBenchmark::sequenceUser);
+        run("warmup", BATCH_SIZE, ROWS / 10, UserInsertBenchmark::sequenceUser);
+
+        Result identity = run("identity", BATCH_SIZE, ROWS, UserInsertBenchmark::identityUser);
+        Result unbatched = run("unbatched", 1, ROWS, UserInsertBenchmark::sequenceUser);
+        Result batched = run("batched", BATCH_SIZE, ROWS, UserInsertBenchmark::sequenceUser);
+
+        System.out.printf("%-10s %10s %12s %12s%n", "mode", "rows/s", "statements", "ms");
+        for (Result result : new Result[]{identity, unbatched, batched}) {
+            System.out.printf("%-10s %10.0f %12d %12d%n",
+                    result.mode(), result.rowsPerSecond(), result.statements(), result.millis());
+        }
+
+        assertThat(batched.statements()).isLessThan(unbatched.statements());
+        assertThat(batched.statements()).isLessThan(identity.statements());
+    }
+
+    private Result run(String mode, int batchSize, int rows, Function<String, Object> user) {
+        Session session = entityManager.unwrap(Session.class);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        session.setJdbcBatchSize(batchSize);
+        statistics.clear();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            String name = mode + "-" + batchSize + "-" + i + "-" + started;
+            entityManager.persist(user.apply(name));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        return new Result(mode, rows * 1000.0 / millis, statistics.getPrepareStatementCount(), millis);
+    }
+
+    private static Object identityUser(String name) {
+        return new IdentityUser(name, name + "@example.com");
+    }
+
+    private static Object sequenceUser(String name) {
+        return User.builder().username(name).email(name + "@example.com").build();
+    }
+
+    private record Result(String mode, double rowsPerSecond, long statements, long millis) {
+    }
+}
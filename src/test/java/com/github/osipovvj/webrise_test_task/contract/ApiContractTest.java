@@ -0,0 +1,337 @@
+package com.github.osipovvj.webrise_test_task.contract;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Общий контракт /api/v1/users и /api/v1/subscriptions. Запускается против каждого стека через HTTP,
+ * поэтому не зависит от того, блокирующий сервер или нет.
+ */
+public abstract class ApiContractTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    protected abstract int port();
+
+    @Test
+    void createUser_returnsStoredUser() throws Exception {
+        String username = unique("user");
+
+        Reply reply = send("POST", "/api/v1/users", user(username), Map.of());
+
+        assertThat(reply.status()).isEqualTo(200);
+        assertThat(reply.json().get("id").asLong()).isPositive();
+        assertThat(reply.json().get("username").asText()).isEqualTo(username);
+        assertThat(reply.json().get("email").asText()).isEqualTo(username + "@example.com");
+        assertThat(reply.json().get("version").asLong()).isZero();
+    }
+
+    @Test
+    void createUser_invalidEmail() throws Exception {
+        Reply reply = send("POST", "/api/v1/users", "{\"username\":\"" + unique("user") + "\",\"email\":\"broken\"}", Map.of());
+
+        assertThat(reply.status()).isEqualTo(400);
+        assertThat(reply.json().get("errors").get(0).get("field").asText()).isEqualTo("email");
+        assertThat(reply.json().get("instance").asText()).isEqualTo("/api/v1/users");
+    }
+
+    @Test
+    void createUser_duplicateUsername() throws Exception {
+        String username = unique("user");
+        send("POST", "/api/v1/users", user(username), Map.of());
+
+        Reply reply = send("POST", "/api/v1/users",
+                "{\"username\":\"" + username + "\",\"email\":\"" + unique("other") + "@example.com\"}", Map.of());
+
+        assertThat(reply.status()).isEqualTo(409);
+        assertThat(reply.json().get("detail").asText()).isEqualTo("Пользователь с именем " + username + " уже существует.");
+    }
+
+    @Test
+    void getUser_notModifiedForCurrentETag() throws Exception {
+        long id = createUser(unique("user"));
+
+        Reply first = send("GET", "/api/v1/users/" + id, null, Map.of());
+        Reply second = send("GET", "/api/v1/users/" + id, null, Map.of("If-None-Match", first.eTag()));
+
+        assertThat(first.status()).isEqualTo(200);
+        assertThat(first.eTag()).isEqualTo("\"0\"");
+        assertThat(second.status()).isEqualTo(304);
+    }
+
+    @Test
+    void getUser_notFound() throws Exception {
+        Reply reply = send("GET", "/api/v1/users/" + Long.MAX_VALUE, null, Map.of());
+
+        assertThat(reply.status()).isEqualTo(404);
+        assertThat(reply.json().get("detail").asText()).isEqualTo("Пользователь с id " + Long.MAX_VALUE + " не найден.");
+    }
+
+    @Test
+    void updateUser_checksIfMatch() throws Exception {
+        String username = unique("user");
+        long id = createUser(username);
+
+        Reply stale = send("PUT", "/api/v1/users/" + id, user(username), Map.of("If-Match", "\"7\""));
+        Reply updated = send("PUT", "/api/v1/users/" + id, user(username + "-renamed"), Map.of("If-Match", "\"0\""));
+
+        assertThat(stale.status()).isEqualTo(412);
+        assertThat(updated.status()).isEqualTo(200);
+        assertThat(updated.eTag()).isEqualTo("\"1\"");
+        assertThat(updated.json().get("username").asText()).isEqualTo(username + "-renamed");
+    }
+
+    @Test
+    void deleteUser_thenNotFound() throws Exception {
+        long id = createUser(unique("user"));
+
+        assertThat(send("DELETE", "/api/v1/users/" + id, null, Map.of()).status()).isEqualTo(204);
+        assertThat(send("GET", "/api/v1/users/" + id, null, Map.of()).status()).isEqualTo(404);
+        assertThat(send("DELETE", "/api/v1/users/" + id, null, Map.of()).status()).isEqualTo(404);
+    }
+
+    @Test
+    void getUserSubscriptions_emptyForNewUser() throws Exception {
+        long id = createUser(unique("user"));
+
+        Reply reply = send("GET", "/api/v1/users/" + id + "/subscriptions", null, Map.of());
+        Reply missing = send("GET", "/api/v1/users/" + Long.MAX_VALUE + "/subscriptions", null, Map.of());
+
+        assertThat(reply.status()).isEqualTo(200);
+        assertThat(reply.json().get("count").asInt()).isZero();
+        assertThat(reply.json().get("nextCursor").isNull()).isTrue();
+        assertThat(missing.status()).isEqualTo(404);
+    }
+
+    @Test
+    void getSubscriptions_pagesWithCursor() throws Exception {
+        List<String> created = List.of(createSubscription(), createSubscription(), createSubscription());
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            Reply page = send("GET", "/api/v1/subscriptions?limit=2" + (cursor == null ? "" : "&after=" + cursor), null, Map.of());
+            assertThat(page.status()).isEqualTo(200);
+            assertThat(page.json().get("count").asInt()).isLessThanOrEqualTo(2);
+            page.json().get("subscriptions").forEach(node -> names.add(node.get("subscriptionName").asText()));
+            cursor = page.json().get("nextCursor").isNull() ? null : page.json().get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(names).containsSubsequence(created);
+        assertThat(send("GET", "/api/v1/subscriptions?limit=0", null, Map.of()).status()).isEqualTo(400);
+        assertThat(send("GET", "/api/v1/subscriptions?after=broken", null, Map.of()).status()).isEqualTo(400);
+    }
+
+    @Test
+    void getSubscriptions_notModifiedUntilCatalogueChanges() throws Exception {
+        createSubscription();
+        Reply first = send("GET", "/api/v1/subscriptions", null, Map.of());
+        String eTag = first.eTag();
+
+        assertThat(eTag).isNotNull();
+        assertThat(send("GET", "/api/v1/subscriptions", null, Map.of("If-None-Match", eTag)).status()).isEqualTo(304);
+
+        createSubscription();
+
+        assertThat(send("GET", "/api/v1/subscriptions", null, Map.of("If-None-Match", eTag)).status()).isEqualTo(200);
+    }
+
+    @Test
+    void updateSubscription_duplicateNameAndVersion() throws Exception {
+        String taken = createSubscription();
+        String name = createSubscription();
+        long id = findSubscriptionId(name);
+
+        Reply duplicate = send("PUT", "/api/v1/subscriptions/" + id, subscription(taken), Map.of());
+        Reply updated = send("PUT", "/api/v1/subscriptions/" + id, subscription(name + "-renamed"), Map.of("If-Match", "\"0\""));
+        Reply stale = send("PUT", "/api/v1/subscriptions/" + id, subscription(name), Map.of("If-Match", "\"0\""));
+
+        assertThat(duplicate.status()).isEqualTo(409);
+        assertThat(updated.status()).isEqualTo(200);
+        assertThat(updated.json().get("version").asLong()).isEqualTo(1);
+        assertThat(stale.status()).isEqualTo(412);
+    }
+
+    @Test
+    void deleteSubscription_thenNotFound() throws Exception {
+        long id = findSubscriptionId(createSubscription());
+
+        assertThat(send("DELETE", "/api/v1/subscriptions/" + id, null, Map.of()).status()).isEqualTo(204);
+        assertThat(send("DELETE", "/api/v1/subscriptions/" + id, null, Map.of()).status()).isEqualTo(404);
+    }
+
+    @Test
+    void addUserSubscription_updatesSpendAndRejectsDuplicate() throws Exception {
+        long userId = createUser(unique("user"));
+        long subscriptionId = findSubscriptionId(createSubscription());
+
+        Reply added = send("POST", "/api/v1/users/" + userId + "/subscriptions", userSubscription(subscriptionId, "4.50"), Map.of());
+        Reply duplicate = send("POST", "/api/v1/users/" + userId + "/subscriptions", userSubscription(subscriptionId, "4.50"), Map.of());
+        Reply missing = send("POST", "/api/v1/users/" + userId + "/subscriptions", userSubscription(Long.MAX_VALUE, "4.50"), Map.of());
+        Reply spend = send("GET", "/api/v1/users/" + userId + "/spend", null, Map.of());
+
+        assertThat(added.status()).isEqualTo(200);
+        assertThat(added.json().get("status").asText()).isEqualTo("ACTIVE");
+        assertThat(added.json().get("version").asLong()).isZero();
+        assertThat(added.json().get("subscription").get("id").asLong()).isEqualTo(subscriptionId);
+        assertThat(duplicate.status()).isEqualTo(409);
+        assertThat(missing.status()).isEqualTo(404);
+        assertThat(spend.status()).isEqualTo(200);
+        assertThat(spend.json().get("userId").asLong()).isEqualTo(userId);
+        assertThat(spend.json().get("totalActiveSpend").decimalValue()).isEqualByComparingTo("4.50");
+        assertThat(spend.json().get("subscriptionCount").asLong()).isEqualTo(1);
+        assertThat(spend.json().get("activeSubscriptionCount").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    void getUserSpend_emptyForNewUserAndNotFoundForMissing() throws Exception {
+        long userId = createUser(unique("user"));
+
+        Reply spend = send("GET", "/api/v1/users/" + userId + "/spend", null, Map.of());
+        Reply missing = send("GET", "/api/v1/users/" + Long.MAX_VALUE + "/spend", null, Map.of());
+
+        assertThat(spend.status()).isEqualTo(200);
+        assertThat(spend.json().get("totalActiveSpend").decimalValue()).isEqualByComparingTo("0");
+        assertThat(spend.json().get("subscriptionCount").asLong()).isZero();
+        assertThat(missing.status()).isEqualTo(404);
+        assertThat(missing.json().get("detail").asText()).isEqualTo("Пользователь с id " + Long.MAX_VALUE + " не найден.");
+    }
+
+    @Test
+    void changeUserSubscriptionStatus_checksIfMatch() throws Exception {
+        long userId = createUser(unique("user"));
+        long subscriptionId = findSubscriptionId(createSubscription());
+        String path = "/api/v1/users/" + userId + "/subscription/" + subscriptionId;
+        send("POST", "/api/v1/users/" + userId + "/subscriptions", userSubscription(subscriptionId, "4.50"), Map.of());
+
+        Reply stale = send("PATCH", path, "{\"subscriptionStatus\":\"INACTIVE\"}", Map.of("If-Match", "\"7\""));
+        Reply changed = send("PATCH", path, "{\"subscriptionStatus\":\"INACTIVE\"}", Map.of("If-Match", "\"0\""));
+        Reply missing = send("PATCH", "/api/v1/users/" + userId + "/subscription/" + Long.MAX_VALUE,
+                "{\"subscriptionStatus\":\"INACTIVE\"}", Map.of());
+        Reply spend = send("GET", "/api/v1/users/" + userId + "/spend", null, Map.of());
+
+        assertThat(stale.status()).isEqualTo(412);
+        assertThat(changed.status()).isEqualTo(200);
+        assertThat(changed.eTag()).isEqualTo("\"1\"");
+        assertThat(changed.json().get("status").asText()).isEqualTo("INACTIVE");
+        assertThat(changed.json().get("subscription").get("id").asLong()).isEqualTo(subscriptionId);
+        assertThat(missing.status()).isEqualTo(404);
+        assertThat(spend.json().get("totalActiveSpend").decimalValue()).isEqualByComparingTo("0");
+        assertThat(spend.json().get("subscriptionCount").asLong()).isEqualTo(1);
+        assertThat(spend.json().get("activeSubscriptionCount").asLong()).isZero();
+    }
+
+    @Test
+    void removeUserSubscription_thenNotFound() throws Exception {
+        long userId = createUser(unique("user"));
+        long subscriptionId = findSubscriptionId(createSubscription());
+        String path = "/api/v1/users/" + userId + "/subscriptions/" + subscriptionId;
+        Map<String, String> problem = Map.of("Accept", "application/problem+json");
+        send("POST", "/api/v1/users/" + userId + "/subscriptions", userSubscription(subscriptionId, "4.50"), Map.of());
+
+        assertThat(send("DELETE", path, null, problem).status()).isEqualTo(204);
+        assertThat(send("DELETE", path, null, problem).status()).isEqualTo(404);
+        assertThat(send("GET", "/api/v1/users/" + userId + "/subscriptions", null, Map.of()).json().get("count").asInt()).isZero();
+        assertThat(send("GET", "/api/v1/users/" + userId + "/spend", null, Map.of()).json().get("subscriptionCount").asLong()).isZero();
+    }
+
+    @Test
+    void getTopSubscriptions_ordersBySubscribers() throws Exception {
+        String popular = createSubscription();
+        String other = createSubscription();
+        long popularId = findSubscriptionId(popular);
+        long otherId = findSubscriptionId(other);
+        for (long subscriptionId : List.of(popularId, otherId)) {
+            long userId = createUser(unique("user"));
+            send("POST", "/api/v1/users/" + userId + "/subscriptions", userSubscription(subscriptionId, "1.00"), Map.of());
+        }
+        long userId = createUser(unique("user"));
+        send("POST", "/api/v1/users/" + userId + "/subscriptions", userSubscription(popularId, "1.00"), Map.of());
+
+        Reply top = send("GET", "/api/v1/subscriptions/top?limit=100&window=7d", null, Map.of());
+
+        assertThat(top.status()).isEqualTo(200);
+        List<String> names = new ArrayList<>();
+        top.json().get("subscriptions").forEach(node -> names.add(node.get("subscriptionName").asText()));
+        assertThat(names).containsSubsequence(popular, other);
+        assertThat(send("GET", "/api/v1/subscriptions/top?limit=0", null, Map.of()).status()).isEqualTo(400);
+    }
+
+    private long createUser(String username) throws Exception {
+        Reply reply = send("POST", "/api/v1/users", user(username), Map.of());
+        assertThat(reply.status()).isEqualTo(200);
+        return reply.json().get("id").asLong();
+    }
+
+    private String createSubscription() throws Exception {
+        String name = unique("service");
+        Reply reply = send("POST", "/api/v1/subscriptions", subscription(name), Map.of());
+        assertThat(reply.status()).isEqualTo(200);
+        return name;
+    }
+
+    private long findSubscriptionId(String name) throws Exception {
+        String cursor = null;
+        do {
+            Reply page = send("GET", "/api/v1/subscriptions?limit=100" + (cursor == null ? "" : "&after=" + cursor), null, Map.of());
+            for (JsonNode node : page.json().get("subscriptions")) {
+                if (node.get("subscriptionName").asText().equals(name)) {
+                    return node.get("id").asLong();
+                }
+            }
+            cursor = page.json().get("nextCursor").isNull() ? null : page.json().get("nextCursor").asText();
+        } while (cursor != null);
+        throw new AssertionError("Сервис " + name + " не найден в каталоге");
+    }
+
+    private Reply send(String method, String path, String body, Map<String, String> headers)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Accept", "application/json");
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        headers.forEach(request::header);
+
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        return new Reply(response.statusCode(), response.body(), response.headers().firstValue("ETag").orElse(null));
+    }
+
+    private static String user(String username) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\"}";
+    }
+
+    private static String subscription(String name) {
+        return "{\"subscriptionName\":\"" + name + "\",\"serviceName\":\"" + name + " service\",\"serviceUrl\":\"https://" + name + ".com\"}";
+    }
+
+    private static String userSubscription(long subscriptionId, String price) {
+        return "{\"subscriptionId\":" + subscriptionId + ",\"price\":" + price + "}";
+    }
+
+    private static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private record Reply(int status, String body, String eTag) {
+
+        JsonNode json() throws IOException {
+            return MAPPER.readTree(body);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.osipovvj.webrise_test_task.contract;
+
+import com.github.osipovvj.webrise_test_task.postgres.TestPostgres;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Контракт на PostgreSQL: каскадное удаление пользователей и сервисов использует DELETE ... RETURNING.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MvcApiContractTest extends ApiContractTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "api_contract");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Override
+    protected int port() {
+        return port;
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.osipovvj.webrise_test_task.controller;
+
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.postgres.TestPostgres;
+import com.github.osipovvj.webrise_test_task.service.SubscriptionService;
+import com.github.osipovvj.webrise_test_task.service.UserService;
+import com.github.osipovvj.webrise_test_task.service.UserSubscriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ExportControllerTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "export_controller");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private UserSubscriptionService userSubscriptionService;
+
+    private String subscriptionName;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        subscriptionName = "Music, \"Pro\"\nEdition " + suffix;
+        Long userId = userService.createUser(new UserRequest("export_" + suffix, "export_" + suffix + "@mail.com")).id();
+        Long subscriptionId = subscriptionService.createSubscription(
+                new SubscriptionRequest(subscriptionName, "Music service", "https://music.com")
+        ).id();
+        userSubscriptionService.addUserSubscription(userId, new UserSubscriptionRequest(subscriptionId, new BigDecimal("4.50")));
+    }
+
+    @Test
+    void exportUsers_csvQuotesCommaQuoteAndNewline() throws Exception {
+        String body = mockMvc.perform(get("/api/v1/users:export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(body).startsWith("user_id,username,email,");
+        assertThat(body).contains(",\"" + subscriptionName.replace("\"", "\"\"") + "\",Music service,4.50,ACTIVE,");
+    }
+
+    @Test
+    void exportUsers_gzipWhenAccepted() throws Exception {
+        String plain = mockMvc.perform(get("/api/v1/users:export").param("format", "csv"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users:export")
+                        .param("format", "csv")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, GZIP"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        assertThat(gunzip(result.getResponse().getContentAsByteArray())).isEqualTo(plain);
+    }
+
+    @Test
+    void exportUsers_fromNotBeforeTo_badRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/users:export")
+                        .param("format", "csv")
+                        .param("from", "2025-10-01T00:00:00")
+                        .param("to", "2025-10-01T00:00:00")
+                        .header(HttpHeaders.ACCEPT, "text/csv")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith("application/problem+json"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.detail").value("Параметр from должен быть раньше to."))
+                .andExpect(jsonPath("$.instance").value("/api/v1/users:export"));
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
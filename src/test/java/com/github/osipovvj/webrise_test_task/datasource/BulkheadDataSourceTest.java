@@ -0,0 +1,56 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+import com.github.osipovvj.webrise_test_task.exception.DatabaseBusyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BulkheadDataSourceTest {
+
+    private DataSource target;
+    private BulkheadDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new BulkheadDataSource(target, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_rejectedWhenPermitsExhausted() throws SQLException {
+        Connection connection = dataSource.getConnection();
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(DatabaseBusyException.class);
+
+        connection.close();
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        dataSource.getConnection().close();
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void close_releasesPermitOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_permitReturnedWhenTargetFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool timeout"));
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLException.class);
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+}
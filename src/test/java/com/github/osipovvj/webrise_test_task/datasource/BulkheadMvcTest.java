@@ -0,0 +1,56 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+import com.github.osipovvj.webrise_test_task.postgres.TestPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Отказ семафора происходит при открытии транзакции, где Spring оборачивает его в
+ * {@link org.springframework.transaction.CannotCreateTransactionException}: клиент всё равно получает 503.
+ */
+@SpringBootTest(properties = {
+        "app.db-bulkhead.enabled=true",
+        "app.db-bulkhead.permits=2",
+        "app.db-bulkhead.acquire-timeout=50ms"
+})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BulkheadMvcTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "bulkhead_mvc");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void getUser_serviceUnavailableWhenPermitsExhausted() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            mockMvc.perform(get("/api/v1/users/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.type").value("/error/service-unavailable"))
+                    .andExpect(jsonPath("$.status").value(503))
+                    .andExpect(jsonPath("$.detail").value("Все соединения с БД заняты, повторите запрос позже."))
+                    .andExpect(jsonPath("$.instance").value("/api/v1/users/1"));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource first;
+    private DataSource second;
+    private Connection primaryConnection;
+    private Connection firstConnection;
+    private Connection secondConnection;
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        first = mock(DataSource.class);
+        second = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        firstConnection = mock(Connection.class);
+        secondConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("first", first);
+        replicas.put("second", second);
+        readYourWrites = new ReadYourWrites();
+        dataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(10), readYourWrites);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        readYourWrites.release();
+    }
+
+    @Test
+    void getConnection_writeTransactionUsesPrimary() throws SQLException {
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void getConnection_readOnlyTransactionsRoundRobinReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_pinnedReadUsesPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        readYourWrites.pin();
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void getConnection_failedReplicaEjectedUntilHealthy() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.availableReplicas()).isEqualTo(1);
+        verify(first, times(1)).getConnection();
+
+        reset(first);
+        replicaLag(first, 0);
+        replicaLag(second, 0);
+        dataSource.checkReplicas();
+
+        assertThat(dataSource.availableReplicas()).isEqualTo(2);
+    }
+
+    @Test
+    void getConnection_noAvailableReplicasFallsBackToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        replicaLag(first, 30);
+        when(second.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        dataSource.checkReplicas();
+
+        assertThat(dataSource.availableReplicas()).isZero();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void close_closesPoolsUnderWrappers() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                Map.of("replica", new SlowQueryDataSource(pool, Duration.ofMillis(100), (target, sql, parameters, elapsedNanos) -> {
+                })),
+                Duration.ofSeconds(10), readYourWrites);
+
+        routing.close();
+
+        assertThat(pool.isClosed()).isTrue();
+        verifyNoInteractions(primary);
+    }
+
+    private static void replicaLag(DataSource replica, double seconds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rows = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rows);
+        when(rows.next()).thenReturn(true);
+        when(rows.getDouble(1)).thenReturn(seconds);
+    }
+}
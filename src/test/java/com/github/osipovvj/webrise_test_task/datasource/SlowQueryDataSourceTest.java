@@ -0,0 +1,74 @@
+package com.github.osipovvj.webrise_test_task.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SlowQueryDataSourceTest {
+
+    private DataSource target;
+    private Connection connection;
+    private List<String> reported;
+    private List<List<Object>> reportedParameters;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        reported = new ArrayList<>();
+        reportedParameters = new ArrayList<>();
+    }
+
+    @Test
+    void executeQuery_reportsSqlWithParameters() throws SQLException {
+        DataSource dataSource = new SlowQueryDataSource(target, Duration.ZERO, this::record);
+
+        try (Connection proxy = dataSource.getConnection();
+             PreparedStatement statement = proxy.prepareStatement("select * from users where id = ? and email = ?")) {
+            statement.setString(2, "a@b.c");
+            statement.setLong(1, 42L);
+            statement.executeQuery();
+            statement.clearParameters();
+            statement.setNull(1, Types.BIGINT);
+            statement.executeUpdate();
+        }
+
+        assertThat(reported).containsExactly(
+                "select * from users where id = ? and email = ?",
+                "select * from users where id = ? and email = ?"
+        );
+        assertThat(reportedParameters.get(0)).containsExactly(42L, "a@b.c");
+        assertThat(reportedParameters.get(1)).containsExactly((Object) null);
+        verify(connection).close();
+    }
+
+    @Test
+    void executeQuery_fastQueryNotReported() throws SQLException {
+        DataSource dataSource = new SlowQueryDataSource(target, Duration.ofMinutes(1), this::record);
+
+        try (Connection proxy = dataSource.getConnection()) {
+            proxy.prepareStatement("select 1").executeQuery();
+        }
+
+        assertThat(reported).isEmpty();
+    }
+
+    private void record(DataSource source, String sql, List<Object> parameters, long elapsedNanos) {
+        assertThat(source).isSameAs(target);
+        reported.add(sql);
+        reportedParameters.add(parameters);
+    }
+}
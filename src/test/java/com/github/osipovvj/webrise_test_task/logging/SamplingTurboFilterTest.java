@@ -0,0 +1,59 @@
+package com.github.osipovvj.webrise_test_task.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+    private static final String SAMPLED = "com.example.HotController";
+    private static final int EVENTS = 10_000;
+
+    private LoggerContext context;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerName(SAMPLED);
+        filter.setRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+    }
+
+    @Test
+    void decide_keepsAboutOneOfRateInfoEvents() {
+        Logger logger = context.getLogger(SAMPLED);
+        for (int i = 0; i < EVENTS / 2; i++) {
+            logger.info("Запрос id={}", i);
+            logger.atInfo().addKeyValue("id", i).log("Запрос");
+        }
+
+        assertThat(appender.list).hasSizeBetween(EVENTS / 20, EVENTS / 5);
+    }
+
+    @Test
+    void decide_keepsWarningsAndOtherLoggers() {
+        Logger sampled = context.getLogger(SAMPLED);
+        Logger other = context.getLogger("com.example.ColdController");
+        for (int i = 0; i < 100; i++) {
+            sampled.warn("Предупреждение");
+            sampled.atError().log("Ошибка");
+            other.info("Запрос");
+        }
+
+        assertThat(appender.list).hasSize(300);
+        assertThat(sampled.isWarnEnabled()).isTrue();
+    }
+}
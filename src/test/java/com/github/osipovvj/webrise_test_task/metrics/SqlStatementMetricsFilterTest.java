@@ -0,0 +1,65 @@
+package com.github.osipovvj.webrise_test_task.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SqlStatementMetricsFilterTest {
+
+    private SqlStatementCounter counter;
+    private SimpleMeterRegistry registry;
+    private SqlStatementMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new SqlStatementCounter();
+        registry = new SimpleMeterRegistry();
+        filter = new SqlStatementMetricsFilter(counter, registry);
+    }
+
+    @Test
+    void doFilter_recordsStatementsPerRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1/subscriptions");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/users/{id}/subscriptions");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                counter.inspect("select 1");
+                counter.inspect("select 2");
+                counter.inspect("select 3");
+            }
+        }));
+
+        DistributionSummary summary = registry.get(SqlStatementMetricsFilter.METRIC)
+                .tags("method", "GET", "uri", "/api/v1/users/{id}/subscriptions", "status", "200")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void inspect_ignoresStatementsOutsideRequest() throws ServletException, IOException {
+        counter.inspect("select 1");
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/missing"), new MockHttpServletResponse(), new MockFilterChain());
+        counter.inspect("select 2");
+
+        DistributionSummary summary = registry.get(SqlStatementMetricsFilter.METRIC).tag("uri", "UNKNOWN").summary();
+        assertThat(summary.totalAmount()).isZero();
+        assertThat(counter.stop()).isZero();
+    }
+}
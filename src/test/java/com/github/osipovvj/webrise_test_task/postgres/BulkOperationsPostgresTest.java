@@ -0,0 +1,216 @@
+package com.github.osipovvj.webrise_test_task.postgres;
+
+import com.github.osipovvj.webrise_test_task.dto.request.BulkChangeStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkSubscribeRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkUsersRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkItemResult;
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.service.CascadeDeleteService;
+import com.github.osipovvj.webrise_test_task.service.SubscriptionService;
+import com.github.osipovvj.webrise_test_task.service.UserImportService;
+import com.github.osipovvj.webrise_test_task.service.UserSubscriptionBulkService;
+import com.github.osipovvj.webrise_test_task.service.UserSubscriptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Импорт, пакетные операции и каскадное удаление на PostgreSQL: пакеты меньше числа строк, чтобы пройти
+ * несколько транзакций, а сводки user_spend после каждого шага сверяются с user_subscription.
+ */
+@SpringBootTest(properties = "app.bulk.chunk-size=3")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BulkOperationsPostgresTest {
+    private static final int USERS = 8;
+    private static final int THREADS = 8;
+    private static final BigDecimal PRICE = new BigDecimal("2.50");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "bulk_operations");
+    }
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private UserSubscriptionService userSubscriptionService;
+
+    @Autowired
+    private UserSubscriptionBulkService bulkService;
+
+    @Autowired
+    private CascadeDeleteService cascadeDeleteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importSubscribeChangeStatusAndDelete_keepSpendConsistent() throws IOException {
+        List<Long> userIds = importUsers("pipeline");
+        Long music = createSubscription("Pipeline music");
+        Long video = createSubscription("Pipeline video");
+
+        assertThat(bulkService.subscribe(music, new BulkSubscribeRequest(userIds, PRICE)).applied()).isEqualTo(USERS);
+        assertThat(bulkService.subscribe(video, new BulkSubscribeRequest(userIds.subList(0, 5), PRICE)).applied()).isEqualTo(5);
+        assertSpendConsistent();
+        assertThat(activeSpend(userIds.get(0))).isEqualByComparingTo("5.00");
+
+        bulkService.changeStatus(music, new BulkChangeStatusRequest(SubscriptionStatus.INACTIVE, null));
+        assertSpendConsistent();
+        assertThat(activeSpend(userIds.get(0))).isEqualByComparingTo("2.50");
+
+        bulkService.changeStatus(music, new BulkChangeStatusRequest(SubscriptionStatus.ACTIVE, userIds.subList(0, 2)));
+        bulkService.unsubscribe(video, new BulkUsersRequest(List.of(userIds.get(4))));
+        assertSpendConsistent();
+
+        cascadeDeleteService.deleteSubscription(music);
+        assertSpendConsistent();
+        assertThat(count("SELECT count(*) FROM user_subscription WHERE subscription_id = ?", music)).isZero();
+        assertThat(activeSpend(userIds.get(0))).isEqualByComparingTo("2.50");
+
+        cascadeDeleteService.deleteUser(userIds.get(0));
+        assertSpendConsistent();
+        assertThat(count("SELECT count(*) FROM users WHERE id = ?", userIds.get(0))).isZero();
+        assertThat(count("SELECT count(*) FROM user_spend WHERE user_id = ?", userIds.get(0))).isZero();
+    }
+
+    /**
+     * Первые подписки пользователя без строки сводки и пакеты с теми же пользователями в обратном порядке
+     * выполняются одновременно: ни одна транзакция не должна упасть на взаимоблокировке.
+     */
+    @Test
+    void concurrentSubscriptions_doNotDeadlockAndKeepSpendConsistent() throws Exception {
+        Long bypassed = jdbcTemplate.queryForObject("""
+                INSERT INTO users (id, username, email, created_at, updated_at, version)
+                VALUES (nextval('users_seq'), 'bypassed', 'bypassed@mail.com', now(), now(), 0)
+                RETURNING id
+                """, Long.class);
+        Long imported = importUsers("concurrent").get(0);
+        List<Long> single = IntStream.range(0, THREADS).mapToObj(i -> createSubscription("Single " + i)).toList();
+        List<Long> bulk = IntStream.range(0, THREADS).mapToObj(i -> createSubscription("Bulk " + i)).toList();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Long subscriptionId = single.get(i);
+                List<Long> users = i % 2 == 0 ? List.of(bypassed, imported) : List.of(imported, bypassed);
+                List<Long> reversed = List.of(users.get(1), users.get(0));
+                results.add(executor.submit(() -> {
+                    start.await();
+                    users.forEach(userId -> userSubscriptionService.addUserSubscription(
+                            userId, new UserSubscriptionRequest(subscriptionId, PRICE)
+                    ));
+                    return null;
+                }));
+
+                Long bulkId = bulk.get(i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return bulkService.subscribe(bulkId, new BulkSubscribeRequest(reversed, PRICE));
+                }));
+            }
+            start.countDown();
+
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertSpendConsistent();
+        assertThat(count("SELECT subscriptions FROM user_spend WHERE user_id = ?", bypassed)).isEqualTo(THREADS * 2L);
+        assertThat(count("SELECT subscriptions FROM user_spend WHERE user_id = ?", imported)).isEqualTo(THREADS * 2L);
+    }
+
+    @Test
+    void importJsonArray_reportsDuplicatesAcrossChunks() throws IOException {
+        String body = IntStream.range(0, USERS)
+                .mapToObj(i -> user("array_" + i % 5))
+                .collect(Collectors.joining(",", "[", "]"));
+        List<BulkItemResult> results = new ArrayList<>();
+
+        userImportService.importJsonArray(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), results::add);
+
+        assertThat(results).extracting(BulkItemResult::status)
+                .containsOnly(BulkItemStatus.CREATED, BulkItemStatus.DUPLICATE)
+                .filteredOn(BulkItemStatus.CREATED::equals)
+                .hasSize(5);
+        assertThat(count("SELECT count(*) FROM users WHERE username LIKE 'array_%'")).isEqualTo(5);
+    }
+
+    private List<Long> importUsers(String prefix) throws IOException {
+        String body = IntStream.range(0, USERS)
+                .mapToObj(i -> user(prefix + "_" + i))
+                .collect(Collectors.joining("\n"));
+        List<BulkItemResult> results = new ArrayList<>();
+
+        userImportService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), results::add);
+
+        assertThat(results).extracting(BulkItemResult::status).containsOnly(BulkItemStatus.CREATED);
+        return results.stream().map(BulkItemResult::id).toList();
+    }
+
+    private Long createSubscription(String name) {
+        return subscriptionService.createSubscription(new SubscriptionRequest(name, name + " service", "https://example.com")).id();
+    }
+
+    private void assertSpendConsistent() {
+        List<String> mismatches = jdbcTemplate.queryForList("""
+                SELECT u.id FROM users u
+                LEFT JOIN user_spend s ON s.user_id = u.id
+                LEFT JOIN (
+                    SELECT user_id,
+                           COALESCE(SUM(price) FILTER (WHERE status = 'ACTIVE'), 0) AS active_spend,
+                           COUNT(*) AS subscriptions,
+                           COUNT(*) FILTER (WHERE status = 'ACTIVE') AS active_subscriptions
+                    FROM user_subscription GROUP BY user_id
+                ) a ON a.user_id = u.id
+                WHERE COALESCE(s.active_spend, 0) <> COALESCE(a.active_spend, 0)
+                   OR COALESCE(s.subscriptions, 0) <> COALESCE(a.subscriptions, 0)
+                   OR COALESCE(s.active_subscriptions, 0) <> COALESCE(a.active_subscriptions, 0)
+                """, String.class);
+        assertThat(mismatches).as("пользователи с расхождением сводки").isEmpty();
+    }
+
+    private BigDecimal activeSpend(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT active_spend FROM user_spend WHERE user_id = ?", BigDecimal.class, userId);
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    private static String user(String username) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@mail.com\"}";
+    }
+}
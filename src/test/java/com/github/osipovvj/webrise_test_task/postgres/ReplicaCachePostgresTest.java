@@ -0,0 +1,145 @@
+package com.github.osipovvj.webrise_test_task.postgres;
+
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.service.SubscriptionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Реплика — отдельная база, в которую изменения основной БД не доходят, то есть реплика с бесконечным
+ * отставанием. Устаревшие строки с неё не должны попадать в общий кэш второго уровня и кэш запросов.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReplicaCachePostgresTest {
+    private static String replicaUrl;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "replica_cache_primary");
+        replicaUrl = TestPostgres.migratedDatabase("replica_cache_replica");
+        registry.add("app.replicas.enabled", () -> "true");
+        registry.add("app.replicas.urls", () -> replicaUrl);
+    }
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "postgres", ""));
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    /**
+     * Кэш-менеджер JCache один на JVM, а идентификаторы в базах разных тестовых классов совпадают.
+     */
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void readOnlyTransaction_doesNotCacheStaleEntityFromReplica() {
+        SubscriptionResponse created = create("Lagging original");
+        copyToReplica(created);
+        subscriptionService.updateSubscription(created.id(),
+                new SubscriptionRequest("Lagging renamed", "Lagging service", "https://example.com"), null);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        assertThat(findName(created.id(), true)).isEqualTo("Lagging original");
+        assertThat(findName(created.id(), false)).isEqualTo("Lagging renamed");
+    }
+
+    @Test
+    void readOnlyTransaction_doesNotCacheStaleQueryResultFromReplica() {
+        copyToReplica(create("Query first"));
+        create("Query second");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        long replicaCount = inTransaction(true, () -> subscriptionRepository.findCatalogueVersion().getCount());
+        long primaryCount = inTransaction(false, () -> subscriptionRepository.findCatalogueVersion().getCount());
+
+        assertThat(replicaCount).isEqualTo(count(replica));
+        assertThat(primaryCount).isEqualTo(count(jdbcTemplate)).isGreaterThan(replicaCount);
+    }
+
+    @Test
+    void catalogue_readFromPrimary() {
+        SubscriptionResponse created = create("Catalogue first");
+        copyToReplica(created);
+        String eTag = subscriptionService.getSubscriptionsETag();
+        assertThat(subscriptionService.getSubscriptions(new KeysetRequest(0, 100)).subscriptions())
+                .extracting(SubscriptionResponse::subscriptionName)
+                .contains("Catalogue first");
+
+        create("Catalogue second");
+
+        assertThat(subscriptionService.getSubscriptionsETag()).isNotEqualTo(eTag);
+        assertThat(subscriptionService.getSubscriptions(new KeysetRequest(0, 100)).subscriptions())
+                .extracting(SubscriptionResponse::subscriptionName)
+                .contains("Catalogue first", "Catalogue second");
+    }
+
+    private SubscriptionResponse create(String name) {
+        return subscriptionService.createSubscription(new SubscriptionRequest(name, name + " service", "https://example.com"));
+    }
+
+    private void copyToReplica(SubscriptionResponse subscription) {
+        replica.update("""
+                INSERT INTO subscriptions (id, subscription_name, service_name, service_url, created_at, updated_at, version)
+                VALUES (?, ?, ?, ?, now(), now(), ?)
+                """, subscription.id(), subscription.subscriptionName(), subscription.serviceName(),
+                subscription.serviceUrl(), subscription.version());
+    }
+
+    private static long count(JdbcTemplate database) {
+        return database.queryForObject("SELECT count(*) FROM subscriptions", Long.class);
+    }
+
+    private String findName(Long id, boolean readOnly) {
+        return inTransaction(readOnly, () -> subscriptionRepository.findById(id)
+                .map(Subscription::getSubscriptionName)
+                .orElseThrow());
+    }
+
+    private <T> T inTransaction(boolean readOnly, Supplier<T> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> action.get());
+    }
+}
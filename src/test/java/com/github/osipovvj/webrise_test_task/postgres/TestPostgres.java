@@ -0,0 +1,72 @@
+package com.github.osipovvj.webrise_test_task.postgres;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Встроенный PostgreSQL для проверки SQL, которого нет в H2. Один сервер на запуск тестов, у каждого тестового
+ * класса своя база, схема создаётся миграциями Flyway и сверяется Hibernate, как в приложении.
+ */
+public final class TestPostgres {
+    private static final Set<String> DATABASES = new HashSet<>();
+    private static EmbeddedPostgres postgres;
+
+    private TestPostgres() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry, String database) {
+        String url = jdbcUrl(database);
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    /**
+     * Отдельная база со схемой приложения, например для реплики, которую приложение само не мигрирует.
+     */
+    public static String migratedDatabase(String database) {
+        String url = jdbcUrl(database);
+        Flyway.configure().dataSource(url, "postgres", "").load().migrate();
+        return url;
+    }
+
+    private static synchronized String jdbcUrl(String database) {
+        try {
+            if (postgres == null) {
+                postgres = EmbeddedPostgres.builder().start();
+                Runtime.getRuntime().addShutdownHook(new Thread(TestPostgres::stop));
+            }
+            if (DATABASES.add(database)) {
+                try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("DROP DATABASE IF EXISTS " + database);
+                    statement.execute("CREATE DATABASE " + database);
+                }
+            }
+            return postgres.getJdbcUrl("postgres", database);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось создать базу " + database, e);
+        }
+    }
+
+    private static void stop() {
+        try {
+            postgres.close();
+        } catch (IOException ignored) {
+            // сервер останавливается вместе с JVM
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.osipovvj.webrise_test_task.repository;
+
+import com.github.osipovvj.webrise_test_task.dto.request.SubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
+import com.github.osipovvj.webrise_test_task.service.impl.SubscriptionServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SubscriptionServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SubscriptionRepositoryTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private SubscriptionServiceImpl subscriptionService;
+
+    @MockitoBean
+    private PopularityService popularityService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriptionRepository.deleteAll();
+    }
+
+    @Test
+    void findById_servedFromSecondLevelCache() {
+        Long id = persist("Cached").getId();
+        subscriptionRepository.findById(id);
+        statistics.clear();
+
+        Subscription subscription = subscriptionRepository.findById(id).orElseThrow();
+
+        assertThat(subscription.getSubscriptionName()).isEqualTo("Cached");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateSubscription_invalidatesCachedEntity() {
+        Long id = persist("Before").getId();
+        subscriptionRepository.findById(id);
+
+        subscriptionService.updateSubscription(id, new SubscriptionRequest("After", "Service", "https://after.com"), null);
+
+        assertThat(subscriptionRepository.findById(id).orElseThrow().getSubscriptionName()).isEqualTo("After");
+    }
+
+    @Test
+    void save_staleCopyRejectedByVersion() {
+        Subscription first = persist("Versioned");
+        Subscription stale = subscriptionRepository.findById(first.getId()).orElseThrow();
+
+        first.setServiceName("First writer");
+        assertThat(subscriptionRepository.save(first).getVersion()).isEqualTo(1L);
+
+        stale.setServiceName("Second writer");
+        assertThatThrownBy(() -> subscriptionRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(subscriptionRepository.findById(first.getId()).orElseThrow().getServiceName()).isEqualTo("First writer");
+    }
+
+    @Test
+    void getSubscriptions_servedFromQueryCacheUntilCatalogueChanges() {
+        persist("First");
+        persist("Second");
+        subscriptionService.getSubscriptions(KeysetRequest.of(null, null));
+        statistics.clear();
+
+        SubscriptionsResponse cached = subscriptionService.getSubscriptions(KeysetRequest.of(null, null));
+
+        assertThat(cached.count()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        subscriptionService.createSubscription(new SubscriptionRequest("Third", "Service", "https://third.com"));
+
+        assertThat(subscriptionService.getSubscriptions(KeysetRequest.of(null, null)).count()).isEqualTo(3);
+    }
+
+    private Subscription persist(String name) {
+        return subscriptionRepository.save(Subscription.builder()
+                .subscriptionName(name)
+                .serviceName(name + " service")
+                .serviceUrl("https://" + name.toLowerCase() + ".com")
+                .build());
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.osipovvj.webrise_test_task.repository;
+
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.entity.User;
+import com.github.osipovvj.webrise_test_task.entity.UserSpend;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.postgres.TestPostgres;
+import com.github.osipovvj.webrise_test_task.repository.projection.ChangedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.DeletedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserSubscriptionBulkRepository.class)
+class UserSubscriptionBulkRepositoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 12, 0);
+    private static final BigDecimal PRICE = new BigDecimal("4.50");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "bulk_repository");
+    }
+
+    @Autowired
+    private UserSubscriptionBulkRepository bulkRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private UserSpendRepository userSpendRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long subscriptionId;
+    private List<Long> userIds;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionId = subscriptionRepository.saveAndFlush(Subscription.builder()
+                .subscriptionName("Bulk")
+                .serviceName("Bulk service")
+                .serviceUrl("https://bulk.com")
+                .build()).getId();
+        userIds = LongStream.range(0, 3)
+                .mapToObj(i -> userRepository.saveAndFlush(User.builder()
+                        .username("bulk_" + i)
+                        .email("bulk_" + i + "@mail.com")
+                        .build()).getId())
+                .toList();
+    }
+
+    @Test
+    void subscribe_takesIdsFromSequenceAndSkipsExistingAndMissingUsers() {
+        bulkRepository.subscribe(subscriptionId, List.of(userIds.get(0)), PRICE, NOW);
+        Long missing = userIds.get(2) + 1000;
+
+        List<ChangedUserSubscription> rows = bulkRepository.subscribe(subscriptionId, List.of(userIds.get(0), userIds.get(1), missing), PRICE, NOW);
+
+        assertThat(rows).containsExactly(new ChangedUserSubscription(userIds.get(1), SubscriptionStatus.ACTIVE, NOW, PRICE));
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM user_subscription ORDER BY id", Long.class);
+        assertThat(ids).hasSize(2).doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('user_subscription_seq')", Long.class))
+                .isGreaterThan(ids.get(1));
+    }
+
+    @Test
+    void unsubscribe_returnsDeletedRows() {
+        bulkRepository.subscribe(subscriptionId, userIds, PRICE, NOW);
+
+        List<ChangedUserSubscription> rows = bulkRepository.unsubscribe(subscriptionId, List.of(userIds.get(0), userIds.get(0) + 1000));
+
+        assertThat(rows).extracting(ChangedUserSubscription::userId).containsExactly(userIds.get(0));
+        assertThat(countSubscriptions()).isEqualTo(2);
+    }
+
+    @Test
+    void changeStatus_returnsPreviousStatus() {
+        bulkRepository.subscribe(subscriptionId, userIds, PRICE, NOW);
+
+        List<ChangedUserSubscription> rows = bulkRepository.changeStatus(subscriptionId, List.of(userIds.get(1)), SubscriptionStatus.INACTIVE, NOW);
+
+        assertThat(rows).containsExactly(new ChangedUserSubscription(userIds.get(1), SubscriptionStatus.ACTIVE, NOW, PRICE));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT status FROM user_subscription WHERE user_id = ?", String.class, userIds.get(1)
+        )).isEqualTo("INACTIVE");
+    }
+
+    @Test
+    void changeStatusForAll_skipsRowsAlreadyInStatusAndRespectsLimit() {
+        bulkRepository.subscribe(subscriptionId, userIds, PRICE, NOW);
+        bulkRepository.changeStatus(subscriptionId, List.of(userIds.get(0)), SubscriptionStatus.INACTIVE, NOW);
+
+        List<ChangedUserSubscription> first = bulkRepository.changeStatusForAll(subscriptionId, SubscriptionStatus.INACTIVE, 1, NOW);
+        List<ChangedUserSubscription> second = bulkRepository.changeStatusForAll(subscriptionId, SubscriptionStatus.INACTIVE, 10, NOW);
+
+        assertThat(first).hasSize(1);
+        assertThat(second).hasSize(1);
+        assertThat(bulkRepository.changeStatusForAll(subscriptionId, SubscriptionStatus.INACTIVE, 10, NOW)).isEmpty();
+    }
+
+    @Test
+    void deleteByUserId_deletesInChunks() {
+        Long other = subscriptionRepository.saveAndFlush(Subscription.builder()
+                .subscriptionName("Other")
+                .serviceName("Other service")
+                .serviceUrl("https://other.com")
+                .build()).getId();
+        bulkRepository.subscribe(subscriptionId, List.of(userIds.get(0)), PRICE, NOW);
+        bulkRepository.subscribe(other, List.of(userIds.get(0)), PRICE, NOW);
+
+        List<DeletedUserSubscription> first = bulkRepository.deleteByUserId(userIds.get(0), 1);
+        List<DeletedUserSubscription> second = bulkRepository.deleteByUserId(userIds.get(0), 1);
+
+        assertThat(List.of(first.get(0).subscriptionId(), second.get(0).subscriptionId()))
+                .containsExactlyInAnyOrder(subscriptionId, other);
+        assertThat(bulkRepository.deleteByUserId(userIds.get(0), 1)).isEmpty();
+    }
+
+    @Test
+    void deleteBySubscriptionId_deletesInChunks() {
+        bulkRepository.subscribe(subscriptionId, userIds, PRICE, NOW);
+
+        List<ChangedUserSubscription> first = bulkRepository.deleteBySubscriptionId(subscriptionId, 2);
+        List<ChangedUserSubscription> second = bulkRepository.deleteBySubscriptionId(subscriptionId, 2);
+
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1);
+        assertThat(countSubscriptions()).isZero();
+    }
+
+    @Test
+    void adjustSpend_appliesDeltasAndCreatesMissingRows() {
+        userSpendRepository.saveAndFlush(new UserSpend(userIds.get(0), new BigDecimal("10.00"), 2, 2));
+
+        bulkRepository.adjustSpend(List.of(
+                UserSpendDelta.unsubscribed(userIds.get(0), SubscriptionStatus.ACTIVE, PRICE),
+                UserSpendDelta.subscribed(userIds.get(1), SubscriptionStatus.INACTIVE, PRICE)
+        ));
+
+        assertThat(spend(userIds.get(0))).containsEntry("active_spend", new BigDecimal("5.50"))
+                .containsEntry("subscriptions", 1L)
+                .containsEntry("active_subscriptions", 1L);
+        assertThat(spend(userIds.get(1))).containsEntry("active_spend", new BigDecimal("0.00"))
+                .containsEntry("subscriptions", 1L)
+                .containsEntry("active_subscriptions", 0L);
+    }
+
+    @Test
+    void findExistingUserIds_filtersMissingUsers() {
+        assertThat(bulkRepository.findExistingUserIds(List.of(userIds.get(0), userIds.get(2) + 1000)))
+                .containsExactly(userIds.get(0));
+    }
+
+    private Map<String, Object> spend(Long userId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT active_spend, subscriptions, active_subscriptions FROM user_spend WHERE user_id = ?", userId
+        );
+    }
+
+    private long countSubscriptions() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM user_subscription", Long.class);
+    }
+}
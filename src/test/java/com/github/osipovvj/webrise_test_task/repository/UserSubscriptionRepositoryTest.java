@@ -0,0 +1,261 @@
+package com.github.osipovvj.webrise_test_task.repository;
+
+import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.entity.User;
+import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSubscriptionExportRow;
+import com.github.osipovvj.webrise_test_task.service.PopularityService;
+import com.github.osipovvj.webrise_test_task.service.impl.UserSpendServiceImpl;
+import com.github.osipovvj.webrise_test_task.service.impl.UserSubscriptionServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({UserSubscriptionServiceImpl.class, UserSpendServiceImpl.class, UserSubscriptionBulkRepository.class})
+class UserSubscriptionRepositoryTest {
+    private static final int SUBSCRIPTIONS = 150;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserSubscriptionServiceImpl userSubscriptionService;
+
+    @Autowired
+    private UserSubscriptionRepository userSubscriptionRepository;
+
+    @MockitoBean
+    private PopularityService popularityService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getUserSubscriptions_singleStatement() {
+        User user = entityManager.persist(User.builder().username("user").email("user@example.com").build());
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            Subscription subscription = entityManager.persist(Subscription.builder()
+                    .subscriptionName("S" + i)
+                    .serviceName("Service " + i)
+                    .serviceUrl("https://service" + i + ".com")
+                    .build());
+            entityManager.persist(UserSubscription.builder()
+                    .user(user)
+                    .subscription(subscription)
+                    .price(BigDecimal.ONE)
+                    .status(SubscriptionStatus.ACTIVE)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        UserSubscriptionsResponse firstPage = userSubscriptionService.getUserSubscriptions(user.getId(), KeysetRequest.of(null, 100));
+
+        assertThat(firstPage.count()).isEqualTo(100);
+        assertThat(firstPage.subscriptions()).allSatisfy(subscription -> assertThat(subscription.subscription().subscriptionName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        UserSubscriptionsResponse lastPage = userSubscriptionService.getUserSubscriptions(user.getId(), KeysetRequest.of(firstPage.nextCursor(), 100));
+
+        assertThat(lastPage.count()).isEqualTo(SUBSCRIPTIONS - 100);
+        assertThat(lastPage.subscriptions().get(0).id()).isGreaterThan(firstPage.subscriptions().get(99).id());
+        assertThat(lastPage.nextCursor()).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getUserSubscriptions_emptyUser() {
+        User user = entityManager.persist(User.builder().username("empty").email("empty@example.com").build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        UserSubscriptionsResponse response = userSubscriptionService.getUserSubscriptions(user.getId(), KeysetRequest.of(null, null));
+
+        assertThat(response.count()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getUserSubscriptionsETag_changesWithSubscriptions() {
+        User user = entityManager.persist(User.builder().username("etag").email("etag@example.com").build());
+        Subscription subscription = entityManager.persist(Subscription.builder()
+                .subscriptionName("ETag")
+                .serviceName("ETag service")
+                .serviceUrl("https://etag.com")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        String empty = userSubscriptionService.getUserSubscriptionsETag(user.getId()).orElseThrow();
+        assertThat(userSubscriptionService.getUserSubscriptionsETag(user.getId())).contains(empty);
+
+        userSubscriptionService.addUserSubscription(user.getId(), new UserSubscriptionRequest(subscription.getId(), BigDecimal.ONE));
+        entityManager.clear();
+
+        assertThat(userSubscriptionService.getUserSubscriptionsETag(user.getId())).isPresent().get().isNotEqualTo(empty);
+        assertThat(userSubscriptionService.getUserSubscriptionsETag(-1L)).isEmpty();
+    }
+
+    @Test
+    void addUserSubscription_duplicateTranslatedFromUniqueConstraint() {
+        User user = entityManager.persist(User.builder().username("dup").email("dup@example.com").build());
+        Subscription subscription = entityManager.persist(Subscription.builder()
+                .subscriptionName("Dup")
+                .serviceName("Dup service")
+                .serviceUrl("https://dup.com")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        userSubscriptionService.addUserSubscription(user.getId(), new UserSubscriptionRequest(subscription.getId(), BigDecimal.ONE));
+
+        assertThatThrownBy(() -> userSubscriptionService.addUserSubscription(
+                user.getId(), new UserSubscriptionRequest(subscription.getId(), BigDecimal.ONE)
+        )).isInstanceOf(AlreadyExistsException.class);
+    }
+
+    @Test
+    void addUserSubscription_unknownUserTranslatedFromForeignKey() {
+        Subscription subscription = entityManager.persist(Subscription.builder()
+                .subscriptionName("Orphan")
+                .serviceName("Orphan service")
+                .serviceUrl("https://orphan.com")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThatThrownBy(() -> userSubscriptionService.addUserSubscription(
+                -1L, new UserSubscriptionRequest(subscription.getId(), BigDecimal.ONE)
+        )).isInstanceOf(ResourceNotFoundException.class).hasMessageContaining("Пользователь с id -1 не найден.");
+    }
+
+    @Test
+    void getUserSpend_followsSubscriptionChanges() {
+        User user = entityManager.persist(User.builder().username("spend").email("spend@example.com").build());
+        Subscription music = entityManager.persist(Subscription.builder()
+                .subscriptionName("Music")
+                .serviceName("Music service")
+                .serviceUrl("https://music.com")
+                .build());
+        Subscription video = entityManager.persist(Subscription.builder()
+                .subscriptionName("Video")
+                .serviceName("Video service")
+                .serviceUrl("https://video.com")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(userSubscriptionService.getUserSpend(user.getId())).isEqualTo(UserSpendResponse.empty(user.getId()));
+
+        userSubscriptionService.addUserSubscription(user.getId(), new UserSubscriptionRequest(music.getId(), new BigDecimal("4.99")));
+        userSubscriptionService.addUserSubscription(user.getId(), new UserSubscriptionRequest(video.getId(), new BigDecimal("9.50")));
+        entityManager.clear();
+
+        assertThat(userSubscriptionService.getUserSpend(user.getId())).satisfies(spend -> {
+            assertThat(spend.totalActiveSpend()).isEqualByComparingTo("14.49");
+            assertThat(spend.subscriptionCount()).isEqualTo(2);
+            assertThat(spend.activeSubscriptionCount()).isEqualTo(2);
+        });
+
+        userSubscriptionService.changeUserSubscriptionStatus(
+                user.getId(), video.getId(), new ChangeSubscriptionStatusRequest(SubscriptionStatus.INACTIVE), null
+        );
+        entityManager.clear();
+
+        assertThat(userSubscriptionService.getUserSpend(user.getId())).satisfies(spend -> {
+            assertThat(spend.totalActiveSpend()).isEqualByComparingTo("4.99");
+            assertThat(spend.subscriptionCount()).isEqualTo(2);
+            assertThat(spend.activeSubscriptionCount()).isEqualTo(1);
+        });
+
+        userSubscriptionService.removeUserSubscription(user.getId(), music.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(userSubscriptionService.getUserSpend(user.getId())).satisfies(spend -> {
+            assertThat(spend.totalActiveSpend()).isEqualByComparingTo("0");
+            assertThat(spend.subscriptionCount()).isEqualTo(1);
+            assertThat(spend.activeSubscriptionCount()).isZero();
+        });
+        assertThatThrownBy(() -> userSubscriptionService.getUserSpend(-1L)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void streamExportRows_filtersWithoutLoadingEntities() {
+        User subscriber = entityManager.persist(User.builder().username("export").email("export@example.com").build());
+        User idle = entityManager.persist(User.builder().username("idle").email("idle@example.com").build());
+        for (SubscriptionStatus status : SubscriptionStatus.values()) {
+            Subscription subscription = entityManager.persist(Subscription.builder()
+                    .subscriptionName("Export " + status)
+                    .serviceName("Export service")
+                    .serviceUrl("https://export.com/" + status)
+                    .build());
+            entityManager.persist(UserSubscription.builder()
+                    .user(subscriber)
+                    .subscription(subscription)
+                    .price(BigDecimal.TEN)
+                    .status(status)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<UserSubscriptionExportRow> all;
+        try (Stream<UserSubscriptionExportRow> rows = userSubscriptionRepository.streamExportRows(null, null, null)) {
+            all = rows.toList();
+        }
+
+        assertThat(all).hasSize(SubscriptionStatus.values().length + 1);
+        assertThat(all).filteredOn(row -> row.userId().equals(idle.getId()))
+                .singleElement()
+                .satisfies(row -> assertThat(row.userSubscriptionId()).isNull());
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        try (Stream<UserSubscriptionExportRow> rows = userSubscriptionRepository.streamExportRows(
+                SubscriptionStatus.ACTIVE, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1))) {
+            assertThat(rows.toList()).singleElement().satisfies(row -> {
+                assertThat(row.userId()).isEqualTo(subscriber.getId());
+                assertThat(row.subscriptionName()).isEqualTo("Export ACTIVE");
+                assertThat(row.price()).isEqualByComparingTo(BigDecimal.TEN);
+            });
+        }
+
+        try (Stream<UserSubscriptionExportRow> rows = userSubscriptionRepository.streamExportRows(
+                null, LocalDateTime.now().plusDays(1), null)) {
+            assertThat(rows).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.osipovvj.webrise_test_task.config.BulkProperties;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.entity.User;
+import com.github.osipovvj.webrise_test_task.enums.JobType;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionBulkRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.ChangedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.DeletedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import com.github.osipovvj.webrise_test_task.service.impl.CascadeDeleteServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CascadeDeleteServiceTest {
+    private static final LocalDateTime DAY_1 = LocalDateTime.of(2025, 5, 1, 10, 0);
+    private static final BigDecimal PRICE = new BigDecimal("4.50");
+
+    private UserRepository userRepository;
+    private SubscriptionRepository subscriptionRepository;
+    private UserSubscriptionBulkRepository bulkRepository;
+    private PopularityService popularityService;
+    private UserSpendService userSpendService;
+    private JobService jobService;
+    private Cache<Long, Optional<UserResponse>> userResponseCache;
+    private CascadeDeleteServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        bulkRepository = mock(UserSubscriptionBulkRepository.class);
+        popularityService = mock(PopularityService.class);
+        userSpendService = mock(UserSpendService.class);
+        jobService = mock(JobService.class);
+        userResponseCache = Caffeine.newBuilder().build();
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        service = new CascadeDeleteServiceImpl(
+                userRepository,
+                subscriptionRepository,
+                bulkRepository,
+                popularityService,
+                userSpendService,
+                jobService,
+                transactionTemplate,
+                new BulkProperties(2),
+                userResponseCache
+        );
+    }
+
+    @Test
+    void deleteUser_deletesSubscriptionsInChunksThenUser() {
+        Long id = 5L;
+        User user = User.builder().id(id).username("User5").email("user5@example.com").build();
+        when(userRepository.findForUpdateById(id)).thenReturn(Optional.of(user));
+        when(bulkRepository.deleteByUserId(id, 2))
+                .thenReturn(List.of(deleted(1L, SubscriptionStatus.ACTIVE), deleted(1L, SubscriptionStatus.ACTIVE)))
+                .thenReturn(List.of(deleted(2L, SubscriptionStatus.INACTIVE)));
+        userResponseCache.put(id, Optional.of(UserResponse.toResponse(user)));
+
+        service.deleteUser(id);
+
+        verify(bulkRepository, times(2)).deleteByUserId(id, 2);
+        verify(userRepository, times(1)).delete(user);
+        verify(popularityService).adjustSubscribers(1L, SubscriptionStatus.ACTIVE, DAY_1.toLocalDate().atStartOfDay(), -2);
+        verify(popularityService).adjustSubscribers(2L, SubscriptionStatus.INACTIVE, DAY_1.toLocalDate().atStartOfDay(), -1);
+        verify(userSpendService).adjust(new UserSpendDelta(id, new BigDecimal("-9.00"), -2, -2));
+        assertThat(userResponseCache.getIfPresent(id)).isNull();
+    }
+
+    @Test
+    void deleteUser_notFound() {
+        when(userRepository.findForUpdateById(123L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.deleteUser(123L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Пользователь с id 123 не найден.");
+        verifyNoInteractions(bulkRepository);
+    }
+
+    @Test
+    void deleteSubscription_deletesSubscriptionsInChunksThenSubscription() {
+        Long id = 5L;
+        Subscription subscription = Subscription.builder().id(id).subscriptionName("Netflix").build();
+        when(bulkRepository.deleteBySubscriptionId(id, 2)).thenReturn(
+                List.of(changed(1L, SubscriptionStatus.ACTIVE), changed(2L, SubscriptionStatus.INACTIVE)),
+                List.of(changed(3L, SubscriptionStatus.ACTIVE), changed(4L, SubscriptionStatus.ACTIVE)),
+                List.of(changed(5L, SubscriptionStatus.ACTIVE)),
+                List.of(changed(6L, SubscriptionStatus.ACTIVE))
+        );
+        when(subscriptionRepository.findForUpdateById(id)).thenReturn(Optional.of(subscription));
+
+        service.deleteSubscription(id);
+
+        verify(bulkRepository, times(4)).deleteBySubscriptionId(id, 2);
+        verify(userSpendService).adjustAll(List.of(
+                new UserSpendDelta(1L, PRICE.negate(), -1, -1),
+                new UserSpendDelta(2L, BigDecimal.ZERO, -1, 0)
+        ));
+        verify(userSpendService).adjustAll(List.of(new UserSpendDelta(6L, PRICE.negate(), -1, -1)));
+        verify(subscriptionRepository).delete(subscription);
+        verify(popularityService).removeSubscription(id);
+    }
+
+    @Test
+    void deleteSubscription_notFound() {
+        when(bulkRepository.deleteBySubscriptionId(123L, 2)).thenReturn(List.of());
+        when(subscriptionRepository.findForUpdateById(123L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.deleteSubscription(123L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Сервис с id 123 не найден.");
+        verifyNoInteractions(popularityService);
+    }
+
+    @Test
+    void deleteSubscriptionAsync_notFoundBeforeSubmit() {
+        when(subscriptionRepository.existsById(123L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.deleteSubscriptionAsync(123L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(jobService, never()).submit(eq(JobType.DELETE_SUBSCRIPTION), any());
+    }
+
+    private static DeletedUserSubscription deleted(Long subscriptionId, SubscriptionStatus status) {
+        return new DeletedUserSubscription(subscriptionId, status, DAY_1, PRICE);
+    }
+
+    private static ChangedUserSubscription changed(Long userId, SubscriptionStatus status) {
+        return new ChangedUserSubscription(userId, status, DAY_1, PRICE);
+    }
+}
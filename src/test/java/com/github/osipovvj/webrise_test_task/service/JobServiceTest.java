@@ -0,0 +1,89 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.config.JobProperties;
+import com.github.osipovvj.webrise_test_task.dto.response.JobResponse;
+import com.github.osipovvj.webrise_test_task.enums.JobStatus;
+import com.github.osipovvj.webrise_test_task.enums.JobType;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.service.impl.JobServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JobServiceTest {
+
+    private ExecutorService executor;
+    private JobServiceImpl jobService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        jobService = new JobServiceImpl(executor, new JobProperties(1, Duration.ofHours(1)), Clock.systemDefaultZone());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit_tracksProgressUntilCompleted() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+
+        JobResponse submitted = jobService.submit(JobType.DELETE_SUBSCRIPTION, progress -> {
+            progress.accept(1000);
+            awaitQuietly(release);
+            progress.accept(500);
+        });
+
+        assertThat(submitted.status()).isEqualTo(JobStatus.RUNNING);
+        release.countDown();
+        awaitTermination();
+
+        JobResponse finished = jobService.getJob(submitted.id());
+        assertThat(finished.status()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(finished.processed()).isEqualTo(1500);
+        assertThat(finished.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void submit_failureIsRecorded() throws InterruptedException {
+        JobResponse submitted = jobService.submit(JobType.DELETE_USER, progress -> {
+            throw new IllegalStateException("boom");
+        });
+        awaitTermination();
+
+        JobResponse failed = jobService.getJob(submitted.id());
+        assertThat(failed.status()).isEqualTo(JobStatus.FAILED);
+        assertThat(failed.error()).isEqualTo("boom");
+    }
+
+    @Test
+    void getJob_notFound() {
+        assertThatThrownBy(() -> jobService.getJob(UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void awaitTermination() throws InterruptedException {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
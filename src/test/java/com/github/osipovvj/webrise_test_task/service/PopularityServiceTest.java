@@ -0,0 +1,173 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.DailyPopularityView;
+import com.github.osipovvj.webrise_test_task.repository.projection.SubscriptionPopularityView;
+import com.github.osipovvj.webrise_test_task.service.impl.PopularityServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PopularityServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 20);
+
+    private SubscriptionRepository subscriptionRepository;
+    private UserSubscriptionRepository userSubscriptionRepository;
+    private PopularityServiceImpl popularityService;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        userSubscriptionRepository = mock(UserSubscriptionRepository.class);
+        Clock clock = Clock.fixed(TODAY.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        popularityService = new PopularityServiceImpl(subscriptionRepository, userSubscriptionRepository, clock);
+        when(userSubscriptionRepository.countDailySubscribers(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void getTopSubscriptionIds_loadsSnapshotOnce() {
+        when(subscriptionRepository.countSubscribers()).thenReturn(List.of(
+                total(1L, SubscriptionStatus.ACTIVE, 5),
+                total(2L, SubscriptionStatus.ACTIVE, 10),
+                total(3L, null, 0)
+        ));
+
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.ALL)).containsExactly(2L, 1L, 3L);
+        assertThat(popularityService.getTopSubscriptionIds(2, null, PopularityWindow.ALL)).containsExactly(2L, 1L);
+
+        verify(subscriptionRepository, times(1)).countSubscribers();
+    }
+
+    @Test
+    void getTopSubscriptionIds_byStatus() {
+        when(subscriptionRepository.countSubscribers()).thenReturn(List.of(
+                total(1L, SubscriptionStatus.ACTIVE, 1),
+                total(1L, SubscriptionStatus.INACTIVE, 9),
+                total(2L, SubscriptionStatus.ACTIVE, 4)
+        ));
+
+        assertThat(popularityService.getTopSubscriptionIds(2, null, PopularityWindow.ALL)).containsExactly(1L, 2L);
+        assertThat(popularityService.getTopSubscriptionIds(2, SubscriptionStatus.ACTIVE, PopularityWindow.ALL)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void getTopSubscriptionIds_mergesDailyBucketsInWindow() {
+        when(subscriptionRepository.countSubscribers()).thenReturn(List.of(
+                total(1L, SubscriptionStatus.ACTIVE, 10),
+                total(2L, SubscriptionStatus.ACTIVE, 4)
+        ));
+        when(userSubscriptionRepository.countDailySubscribers(TODAY.minusDays(29).atStartOfDay())).thenReturn(List.of(
+                daily(1L, SubscriptionStatus.ACTIVE, TODAY.minusDays(20), 10),
+                daily(2L, SubscriptionStatus.ACTIVE, TODAY.minusDays(1), 3),
+                daily(2L, SubscriptionStatus.INACTIVE, TODAY, 1)
+        ));
+
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.LAST_30_DAYS)).containsExactly(1L, 2L);
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.LAST_7_DAYS)).containsExactly(2L);
+        assertThat(popularityService.getTopSubscriptionIds(3, SubscriptionStatus.INACTIVE, PopularityWindow.LAST_7_DAYS)).containsExactly(2L);
+    }
+
+    @Test
+    void adjustSubscribers_updatesAllRollups() {
+        when(subscriptionRepository.countSubscribers()).thenReturn(List.of(
+                total(1L, SubscriptionStatus.ACTIVE, 2),
+                total(2L, SubscriptionStatus.ACTIVE, 1),
+                total(3L, SubscriptionStatus.ACTIVE, 1)
+        ));
+        popularityService.reconcile();
+        LocalDateTime now = TODAY.atTime(10, 0);
+
+        popularityService.adjustSubscribers(3L, SubscriptionStatus.ACTIVE, now, 2);
+        popularityService.adjustSubscribers(1L, SubscriptionStatus.ACTIVE, now.minusDays(60), -1);
+        popularityService.adjustSubscribers(2L, SubscriptionStatus.ACTIVE, now, 1);
+        popularityService.adjustSubscribers(2L, SubscriptionStatus.ACTIVE, now, -1);
+        popularityService.adjustSubscribers(2L, SubscriptionStatus.INACTIVE, now, 1);
+
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.ALL)).containsExactly(3L, 2L, 1L);
+        assertThat(popularityService.getTopSubscriptionIds(3, SubscriptionStatus.ACTIVE, PopularityWindow.ALL)).containsExactly(3L, 1L, 2L);
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.LAST_7_DAYS)).containsExactly(3L, 2L);
+        assertThat(popularityService.getTopSubscriptionIds(3, SubscriptionStatus.ACTIVE, PopularityWindow.LAST_7_DAYS)).containsExactly(3L);
+    }
+
+    @Test
+    void registerAndRemoveSubscription_boundary() {
+        when(subscriptionRepository.countSubscribers()).thenReturn(List.of(total(1L, SubscriptionStatus.ACTIVE, 1)));
+        popularityService.reconcile();
+
+        popularityService.registerSubscription(2L);
+        popularityService.removeSubscription(1L);
+
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.ALL)).containsExactly(2L);
+        assertThat(popularityService.getTopSubscriptionIds(3, SubscriptionStatus.INACTIVE, PopularityWindow.ALL)).containsExactly(2L);
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.LAST_30_DAYS)).isEmpty();
+    }
+
+    @Test
+    void reconcile_fixesDrift() {
+        when(subscriptionRepository.countSubscribers())
+                .thenReturn(List.of(total(1L, SubscriptionStatus.ACTIVE, 1), total(2L, SubscriptionStatus.ACTIVE, 3)))
+                .thenReturn(List.of(total(1L, SubscriptionStatus.ACTIVE, 4), total(2L, SubscriptionStatus.ACTIVE, 3)));
+        popularityService.reconcile();
+        popularityService.adjustSubscribers(2L, SubscriptionStatus.ACTIVE, TODAY.atStartOfDay(), 10);
+
+        popularityService.reconcile();
+
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.ALL)).containsExactly(1L, 2L);
+        assertThat(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.LAST_7_DAYS)).isEmpty();
+    }
+
+    private static SubscriptionPopularityView total(Long subscriptionId, SubscriptionStatus status, long subscribers) {
+        return new SubscriptionPopularityView() {
+            @Override
+            public Long getSubscriptionId() {
+                return subscriptionId;
+            }
+
+            @Override
+            public SubscriptionStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getSubscribers() {
+                return subscribers;
+            }
+        };
+    }
+
+    private static DailyPopularityView daily(Long subscriptionId, SubscriptionStatus status, LocalDate day, long subscribers) {
+        return new DailyPopularityView() {
+            @Override
+            public Long getSubscriptionId() {
+                return subscriptionId;
+            }
+
+            @Override
+            public SubscriptionStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDate getDay() {
+                return day;
+            }
+
+            @Override
+            public Long getSubscribers() {
+                return subscribers;
+            }
+        };
+    }
+}
@@ -5,15 +5,25 @@ import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.SubscriptionsResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.TopSubscriptionsResponse;
 import com.github.osipovvj.webrise_test_task.entity.Subscription;
+import com.github.osipovvj.webrise_test_task.enums.PopularityWindow;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
 import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
 import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.pagination.Cursors;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
 import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.CollectionVersionView;
 import com.github.osipovvj.webrise_test_task.service.impl.SubscriptionServiceImpl;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -24,12 +34,14 @@ import static org.mockito.Mockito.*;
 class SubscriptionServiceTest {
 
     private SubscriptionRepository subscriptionRepository;
+    private PopularityService popularityService;
     private SubscriptionServiceImpl subscriptionService;
 
     @BeforeEach
     void setUp() {
         subscriptionRepository = mock(SubscriptionRepository.class);
-        subscriptionService = new SubscriptionServiceImpl(subscriptionRepository);
+        popularityService = mock(PopularityService.class);
+        subscriptionService = new SubscriptionServiceImpl(subscriptionRepository, popularityService);
     }
 
     @Test
@@ -43,8 +55,7 @@ class SubscriptionServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(subscriptionRepository.existsBySubscriptionName("Netflix")).thenReturn(false);
-        when(subscriptionRepository.save(ArgumentMatchers.any(Subscription.class))).thenReturn(subscription);
+        when(subscriptionRepository.saveAndFlush(ArgumentMatchers.any(Subscription.class))).thenReturn(subscription);
 
         SubscriptionResponse response = subscriptionService.createSubscription(request);
 
@@ -52,16 +63,19 @@ class SubscriptionServiceTest {
         assertThat(response.serviceName()).isEqualTo("Netflix Premium");
         assertThat(response.serviceUrl()).isEqualTo("https://netflix.com/premium");
         assertThat(response.id()).isEqualTo(1L);
+        verify(popularityService).registerSubscription(1L);
     }
 
     @Test
     void createSubscription_alreadyExists() {
         SubscriptionRequest request = new SubscriptionRequest("Netflix", "Netflix Premium", "https://netflix.com/premium");
-        when(subscriptionRepository.existsBySubscriptionName("Netflix")).thenReturn(true);
+        when(subscriptionRepository.saveAndFlush(ArgumentMatchers.any(Subscription.class)))
+                .thenThrow(violation("uk_subscriptions_subscription_name"));
 
         assertThatThrownBy(() -> subscriptionService.createSubscription(request))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Сервис с именем Netflix уже существует.");
+        verify(popularityService, never()).registerSubscription(any());
     }
 
     @Test
@@ -86,9 +100,9 @@ class SubscriptionServiceTest {
 
         when(subscriptionRepository.findById(id)).thenReturn(Optional.of(existing));
         when(subscriptionRepository.existsBySubscriptionNameAndIdNot("NewName", id)).thenReturn(false);
-        when(subscriptionRepository.save(existing)).thenReturn(updated);
+        when(subscriptionRepository.saveAndFlush(existing)).thenReturn(updated);
 
-        SubscriptionResponse response = subscriptionService.updateSubscription(id, request);
+        SubscriptionResponse response = subscriptionService.updateSubscription(id, request, null);
 
         assertThat(response.subscriptionName()).isEqualTo("NewName");
         assertThat(response.serviceName()).isEqualTo("New Service");
@@ -109,51 +123,78 @@ class SubscriptionServiceTest {
         when(subscriptionRepository.findById(id)).thenReturn(Optional.of(existing));
         when(subscriptionRepository.existsBySubscriptionNameAndIdNot("OtherName", id)).thenReturn(true);
 
-        assertThatThrownBy(() -> subscriptionService.updateSubscription(id, request))
+        assertThatThrownBy(() -> subscriptionService.updateSubscription(id, request, null))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Сервис с названием OtherName уже существует.");
     }
 
+    @Test
+    void updateSubscription_staleVersion() {
+        Long id = 10L;
+        Subscription existing = Subscription.builder().id(id).subscriptionName("OldName").version(2L).build();
+
+        when(subscriptionRepository.findById(id)).thenReturn(Optional.of(existing));
+
+        assertThatThrownBy(() -> subscriptionService.updateSubscription(
+                id, new SubscriptionRequest("NewName", "New Service", "https://new.com"), 1L
+        )).isInstanceOf(PreconditionFailedException.class);
+        verify(subscriptionRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     void updateSubscription_notFound() {
         when(subscriptionRepository.findById(100L)).thenReturn(Optional.empty());
         SubscriptionRequest request = new SubscriptionRequest("Any", "Any", "https://any.com");
 
-        assertThatThrownBy(() -> subscriptionService.updateSubscription(100L, request))
+        assertThatThrownBy(() -> subscriptionService.updateSubscription(100L, request, null))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Сервис с id 100 не найден.");
     }
 
     @Test
-    void deleteSubscription_success() {
-        Long id = 5L;
-        when(subscriptionRepository.existsById(id)).thenReturn(true);
+    void getSubscriptions_success() {
+        Subscription s1 = Subscription.builder().id(1L).subscriptionName("A").serviceName("A1").serviceUrl("url1").createdAt(LocalDateTime.now()).build();
+        Subscription s2 = Subscription.builder().id(2L).subscriptionName("B").serviceName("B1").serviceUrl("url2").createdAt(LocalDateTime.now()).build();
+
+        when(subscriptionRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of(s1, s2));
 
-        subscriptionService.deleteSubscription(id);
+        SubscriptionsResponse response = subscriptionService.getSubscriptions(KeysetRequest.of(null, null));
 
-        verify(subscriptionRepository).deleteById(id);
+        assertThat(response.count()).isEqualTo(2);
+        assertThat(response.subscriptions()).extracting("subscriptionName").containsExactly("A", "B");
+        assertThat(response.nextCursor()).isNull();
     }
 
     @Test
-    void deleteSubscription_notFound() {
-        when(subscriptionRepository.existsById(123L)).thenReturn(false);
+    void getSubscriptionsETag_builtFromCountAndLastModified() {
+        CollectionVersionView version = mock(CollectionVersionView.class);
+        when(version.getCount()).thenReturn(2L);
+        when(version.getLastModified()).thenReturn(LocalDateTime.of(1970, 1, 1, 0, 0, 1));
+        when(subscriptionRepository.findCatalogueVersion()).thenReturn(version);
 
-        assertThatThrownBy(() -> subscriptionService.deleteSubscription(123L))
-                .isInstanceOf(ResourceNotFoundException.class)
-                .hasMessageContaining("Сервис с id 123 не найден.");
+        assertThat(subscriptionService.getSubscriptionsETag()).isEqualTo("\"2-f4240\"");
     }
 
     @Test
-    void getSubscriptions_success() {
-        Subscription s1 = Subscription.builder().id(1L).subscriptionName("A").serviceName("A1").serviceUrl("url1").createdAt(LocalDateTime.now()).build();
-        Subscription s2 = Subscription.builder().id(2L).subscriptionName("B").serviceName("B1").serviceUrl("url2").createdAt(LocalDateTime.now()).build();
+    void getSubscriptions_hasNextPage() {
+        Subscription s3 = Subscription.builder().id(3L).subscriptionName("C").build();
+        Subscription s4 = Subscription.builder().id(4L).subscriptionName("D").build();
+        Subscription s5 = Subscription.builder().id(5L).subscriptionName("E").build();
 
-        when(subscriptionRepository.findAll()).thenReturn(List.of(s1, s2));
+        when(subscriptionRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(List.of(s3, s4, s5));
 
-        SubscriptionsResponse response = subscriptionService.getSubscriptions();
+        SubscriptionsResponse response = subscriptionService.getSubscriptions(KeysetRequest.of(Cursors.encode(2L), 2));
 
-        assertThat(response.count()).isEqualTo(2);
-        assertThat(response.subscriptions()).extracting("subscriptionName").containsExactly("A", "B");
+        assertThat(response.subscriptions()).extracting("subscriptionName").containsExactly("C", "D");
+        assertThat(Cursors.decode(response.nextCursor())).isEqualTo(4L);
+    }
+
+    @Test
+    void getSubscriptions_limitCappedAndInvalidCursor() {
+        assertThat(KeysetRequest.of(null, 1000).limit()).isEqualTo(KeysetRequest.MAX_LIMIT);
+        assertThatThrownBy(() -> KeysetRequest.of("not-a-cursor", 10))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("Некорректный курсор");
     }
 
     @Test
@@ -162,9 +203,10 @@ class SubscriptionServiceTest {
         Subscription s2 = Subscription.builder().id(2L).subscriptionName("B").serviceName("B1").serviceUrl("url2").createdAt(LocalDateTime.now()).build();
         Subscription s3 = Subscription.builder().id(3L).subscriptionName("C").serviceName("C1").serviceUrl("url3").createdAt(LocalDateTime.now()).build();
 
-        when(subscriptionRepository.findTop3ByPopularity(PageRequest.of(0, 3))).thenReturn(List.of(s1, s2, s3));
+        when(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.ALL)).thenReturn(List.of(1L, 2L, 3L));
+        when(subscriptionRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(s3, s1, s2));
 
-        TopSubscriptionsResponse response = subscriptionService.getTopSubscriptions();
+        TopSubscriptionsResponse response = subscriptionService.getTopSubscriptions(3, null, PopularityWindow.ALL);
 
         assertThat(response.subscriptions()).hasSize(3);
         assertThat(response.subscriptions()).extracting("subscriptionName").containsExactly("A", "B", "C");
@@ -174,11 +216,38 @@ class SubscriptionServiceTest {
     void getTopSubscriptions_lessThanThree() {
         Subscription s1 = Subscription.builder().id(1L).subscriptionName("A").serviceName("A1").serviceUrl("url1").createdAt(LocalDateTime.now()).build();
 
-        when(subscriptionRepository.findTop3ByPopularity(PageRequest.of(0, 3))).thenReturn(List.of(s1));
+        when(popularityService.getTopSubscriptionIds(3, null, PopularityWindow.ALL)).thenReturn(List.of(1L));
+        when(subscriptionRepository.findAllById(List.of(1L))).thenReturn(List.of(s1));
 
-        TopSubscriptionsResponse response = subscriptionService.getTopSubscriptions();
+        TopSubscriptionsResponse response = subscriptionService.getTopSubscriptions(3, null, PopularityWindow.ALL);
 
         assertThat(response.subscriptions()).hasSize(1);
         assertThat(response.subscriptions().get(0).subscriptionName()).isEqualTo("A");
     }
+
+    @Test
+    void getTopSubscriptions_filteredWindow() {
+        Subscription s2 = Subscription.builder().id(2L).subscriptionName("B").serviceName("B1").serviceUrl("url2").createdAt(LocalDateTime.now()).build();
+
+        when(popularityService.getTopSubscriptionIds(5, SubscriptionStatus.ACTIVE, PopularityWindow.LAST_7_DAYS)).thenReturn(List.of(2L));
+        when(subscriptionRepository.findAllById(List.of(2L))).thenReturn(List.of(s2));
+
+        TopSubscriptionsResponse response = subscriptionService.getTopSubscriptions(5, SubscriptionStatus.ACTIVE, PopularityWindow.LAST_7_DAYS);
+
+        assertThat(response.subscriptions()).extracting("subscriptionName").containsExactly("B");
+    }
+
+    @Test
+    void getTopSubscriptions_invalidLimit() {
+        assertThatThrownBy(() -> subscriptionService.getTopSubscriptions(0, null, PopularityWindow.ALL))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("Параметр limit должен быть от 1 до 100.");
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException(
+                "constraint violation",
+                new ConstraintViolationException("constraint violation", new SQLException(), constraintName)
+        );
+    }
 }
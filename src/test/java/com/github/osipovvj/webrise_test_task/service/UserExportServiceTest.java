@@ -0,0 +1,71 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.dto.request.UserExportFilter;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.InvalidRequestException;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSubscriptionExportRow;
+import com.github.osipovvj.webrise_test_task.service.impl.UserExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserExportServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 9, 1, 10, 0);
+
+    private UserSubscriptionRepository userSubscriptionRepository;
+    private UserExportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        userSubscriptionRepository = mock(UserSubscriptionRepository.class);
+        service = new UserExportServiceImpl(userSubscriptionRepository);
+    }
+
+    @Test
+    void exportUserSubscriptions_passesRowsAndClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userSubscriptionRepository.streamExportRows(SubscriptionStatus.ACTIVE, NOW, null))
+                .thenReturn(Stream.of(row(1L), row(2L)).onClose(() -> closed.set(true)));
+        List<UserSubscriptionExportRow> exported = new ArrayList<>();
+
+        long count = service.exportUserSubscriptions(UserExportFilter.of(SubscriptionStatus.ACTIVE, NOW, null), exported::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).extracting(UserSubscriptionExportRow::userId).containsExactly(1L, 2L);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportUserSubscriptions_closesStreamWhenWriterFails() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userSubscriptionRepository.streamExportRows(null, null, null))
+                .thenReturn(Stream.of(row(1L)).onClose(() -> closed.set(true)));
+
+        assertThatThrownBy(() -> service.exportUserSubscriptions(UserExportFilter.of(null, null, null), row -> {
+            throw new IllegalStateException("client gone");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void of_emptyRangeRejected() {
+        assertThatThrownBy(() -> UserExportFilter.of(null, NOW, NOW))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Параметр from должен быть раньше to.");
+    }
+
+    private static UserSubscriptionExportRow row(Long userId) {
+        return new UserSubscriptionExportRow(userId, "user" + userId, "user" + userId + "@example.com", userId, 1L,
+                "Netflix", "Streaming", BigDecimal.ONE, SubscriptionStatus.ACTIVE, NOW, NOW);
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.osipovvj.webrise_test_task.config.BulkProperties;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkItemResult;
+import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
+import com.github.osipovvj.webrise_test_task.entity.User;
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
+import com.github.osipovvj.webrise_test_task.service.impl.UserImportServiceImpl;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+    private UserRepository userRepository;
+    private UserSpendRepository userSpendRepository;
+    private Cache<Long, Optional<UserResponse>> userResponseCache;
+    private UserImportServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userSpendRepository = mock(UserSpendRepository.class);
+        userResponseCache = Caffeine.newBuilder().build();
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+
+        AtomicLong ids = new AtomicLong();
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(ids.incrementAndGet()));
+            return users;
+        });
+
+        service = new UserImportServiceImpl(
+                userRepository,
+                userSpendRepository,
+                transactionTemplate,
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new BulkProperties(2),
+                userResponseCache
+        );
+    }
+
+    @Test
+    void importNdjson_reportsEveryLine() throws Exception {
+        when(userRepository.findExistingUsernames(anyList())).thenReturn(Set.of("taken"));
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        String body = """
+                {"username":"u1","email":"u1@example.com"}
+                {"username":"taken","email":"taken@example.com"}
+
+                {"username":"u2","email":"not-an-email"}
+                {"username":"u3",
+                {"username":"u4","email":"u4@example.com"}
+                """;
+
+        List<BulkItemResult> results = new ArrayList<>();
+        service.importNdjson(stream(body), results::add);
+
+        assertThat(results).extracting(BulkItemResult::line).containsExactly(1L, 2L, 4L, 5L, 6L);
+        assertThat(results).extracting(BulkItemResult::status).containsExactly(
+                BulkItemStatus.CREATED,
+                BulkItemStatus.DUPLICATE,
+                BulkItemStatus.INVALID,
+                BulkItemStatus.INVALID,
+                BulkItemStatus.CREATED
+        );
+        assertThat(results.get(0).id()).isEqualTo(1L);
+        assertThat(results.get(1).message()).isEqualTo("Пользователь с именем taken уже существует.");
+        assertThat(results.get(2).message()).contains("email");
+        verify(userRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void importNdjson_duplicatesInsideChunk() throws Exception {
+        when(userRepository.findExistingUsernames(anyList())).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        String body = """
+                {"username":"u1","email":"same@example.com"}
+                {"username":"u2","email":"same@example.com"}
+                """;
+
+        List<BulkItemResult> results = new ArrayList<>();
+        service.importNdjson(stream(body), results::add);
+
+        assertThat(results).extracting(BulkItemResult::status).containsExactly(BulkItemStatus.CREATED, BulkItemStatus.DUPLICATE);
+        assertThat(results.get(1).message()).isEqualTo("Пользователь с email same@example.com уже существует.");
+    }
+
+    @Test
+    void importJsonArray_success() throws Exception {
+        when(userRepository.findExistingUsernames(anyList())).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of("u2@example.com"));
+        String body = """
+                [
+                  {"username":"u1","email":"u1@example.com"},
+                  {"username":"u2","email":"u2@example.com"},
+                  {"username":null,"email":"u3@example.com"}
+                ]
+                """;
+
+        List<BulkItemResult> results = new ArrayList<>();
+        service.importJsonArray(stream(body), results::add);
+
+        assertThat(results).extracting(BulkItemResult::status)
+                .containsExactly(BulkItemStatus.CREATED, BulkItemStatus.DUPLICATE, BulkItemStatus.INVALID);
+        verify(userSpendRepository).createEmpty(List.of(results.get(0).id()));
+    }
+
+    @Test
+    void importNdjson_evictsCachedMissesForCreatedUsers() throws Exception {
+        when(userRepository.findExistingUsernames(anyList())).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        userResponseCache.put(1L, Optional.empty());
+        userResponseCache.put(2L, Optional.empty());
+
+        service.importNdjson(stream("{\"username\":\"u1\",\"email\":\"u1@example.com\"}\n"), result -> {
+        });
+
+        assertThat(userResponseCache.getIfPresent(1L)).isNull();
+        assertThat(userResponseCache.getIfPresent(2L)).isNotNull();
+    }
+
+    @Test
+    void importJsonArray_notAnArray() throws Exception {
+        List<BulkItemResult> results = new ArrayList<>();
+        service.importJsonArray(stream("{\"username\":\"u1\"}"), results::add);
+
+        assertThat(results).singleElement().extracting(BulkItemResult::status).isEqualTo(BulkItemStatus.INVALID);
+        verifyNoInteractions(userRepository);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,18 +1,37 @@
 package com.github.osipovvj.webrise_test_task.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.osipovvj.webrise_test_task.dto.request.UserRequest;
 import com.github.osipovvj.webrise_test_task.dto.response.UserResponse;
 import com.github.osipovvj.webrise_test_task.entity.User;
 import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
 import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
 import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
 import com.github.osipovvj.webrise_test_task.service.impl.UserServiceImpl;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,12 +39,18 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
 
     private UserRepository userRepository;
+    private UserSpendRepository userSpendRepository;
+    private Cache<Long, Optional<UserResponse>> userResponseCache;
+    private PlatformTransactionManager transactionManager;
     private UserServiceImpl userService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        userSpendRepository = mock(UserSpendRepository.class);
+        userResponseCache = Caffeine.newBuilder().build();
+        transactionManager = mock(PlatformTransactionManager.class);
+        userService = new UserServiceImpl(userRepository, userSpendRepository, userResponseCache, new TransactionTemplate(transactionManager));
     }
 
     @Test
@@ -39,21 +64,31 @@ class UserServiceTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.existsByUsername("User_1")).thenReturn(false);
-        when(userRepository.existsByEmail("user1@example.com")).thenReturn(false);
-        when(userRepository.save(ArgumentMatchers.any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(ArgumentMatchers.any(User.class))).thenReturn(user);
 
         UserResponse response = userService.createUser(request);
 
         assertThat(response.username()).isEqualTo("User_1");
         assertThat(response.email()).isEqualTo("user1@example.com");
         assertThat(response.id()).isEqualTo(1L);
+        verify(userSpendRepository).createEmpty(List.of(1L));
+    }
+
+    @Test
+    void createUser_evictsCachedMiss() {
+        userResponseCache.put(1L, Optional.empty());
+        when(userRepository.saveAndFlush(ArgumentMatchers.any(User.class)))
+                .thenReturn(User.builder().id(1L).username("User_1").email("user1@example.com").build());
+
+        userService.createUser(new UserRequest("User_1", "user1@example.com"));
+
+        assertThat(userResponseCache.getIfPresent(1L)).isNull();
     }
 
     @Test
     void createUser_alreadyExistsByUsername() {
         UserRequest request = new UserRequest("User_1", "user1@example.com");
-        when(userRepository.existsByUsername("User_1")).thenReturn(true);
+        when(userRepository.saveAndFlush(ArgumentMatchers.any(User.class))).thenThrow(violation("uk_users_username"));
 
         assertThatThrownBy(() -> userService.createUser(request))
                 .isInstanceOf(AlreadyExistsException.class)
@@ -63,14 +98,22 @@ class UserServiceTest {
     @Test
     void createUser_alreadyExistsByEmail() {
         UserRequest request = new UserRequest("User_1", "user1@example.com");
-        when(userRepository.existsByUsername("User_1")).thenReturn(false);
-        when(userRepository.existsByEmail("user1@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(ArgumentMatchers.any(User.class))).thenThrow(violation("uk_users_email"));
 
         assertThatThrownBy(() -> userService.createUser(request))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Пользователь с email user1@example.com уже существует.");
     }
 
+    @Test
+    void createUser_otherViolationIsRethrown() {
+        UserRequest request = new UserRequest("User_1", "user1@example.com");
+        DataIntegrityViolationException violation = violation("users_pkey");
+        when(userRepository.saveAndFlush(ArgumentMatchers.any(User.class))).thenThrow(violation);
+
+        assertThatThrownBy(() -> userService.createUser(request)).isSameAs(violation);
+    }
+
     @Test
     void getUserById_success() {
         User user = User.builder()
@@ -89,6 +132,69 @@ class UserServiceTest {
         assertThat(response.username()).isEqualTo("User_2");
     }
 
+    @Test
+    void getUserById_missLoadedInWriteTransaction() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(User.builder().id(2L).username("User_2").build()));
+
+        userService.getUserById(2L);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        InOrder order = inOrder(transactionManager, userRepository);
+        order.verify(transactionManager).getTransaction(definition.capture());
+        order.verify(userRepository).findById(2L);
+        order.verify(transactionManager).commit(any());
+        assertThat(definition.getValue().isReadOnly()).isFalse();
+    }
+
+    @Test
+    void getUserById_servedFromCache() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(User.builder().id(2L).username("User_2").build()));
+
+        userService.getUserById(2L);
+        UserResponse response = userService.getUserById(2L);
+
+        assertThat(response.username()).isEqualTo("User_2");
+        verify(userRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void getUserById_notFoundIsCached() {
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getUserById(99L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> userService.getUserById(99L)).isInstanceOf(ResourceNotFoundException.class);
+
+        verify(userRepository, times(1)).findById(99L);
+    }
+
+    @Test
+    void getUserById_concurrentMissesLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(7L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(User.builder().id(7L).username("User_7").build());
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> userService.getUserById(7L)));
+            }
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            for (Future<UserResponse> response : responses) {
+                assertThat(response.get(5, TimeUnit.SECONDS).username()).isEqualTo("User_7");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(userRepository, times(1)).findById(7L);
+    }
+
     @Test
     void getUserById_notFound() {
         when(userRepository.findById(99L)).thenReturn(Optional.empty());
@@ -121,12 +227,15 @@ class UserServiceTest {
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
         when(userRepository.existsByUsernameAndIdNot("NewName", id)).thenReturn(false);
         when(userRepository.existsByEmailAndIdNot("new@example.com", id)).thenReturn(false);
-        when(userRepository.save(existing)).thenReturn(updated);
+        when(userRepository.saveAndFlush(existing)).thenReturn(updated);
+
+        userResponseCache.put(id, Optional.of(UserResponse.toResponse(existing)));
 
-        UserResponse response = userService.updateUser(id, request);
+        UserResponse response = userService.updateUser(id, request, null);
 
         assertThat(response.username()).isEqualTo("NewName");
         assertThat(response.email()).isEqualTo("new@example.com");
+        assertThat(userResponseCache.getIfPresent(id)).isNull();
     }
 
     @Test
@@ -142,7 +251,7 @@ class UserServiceTest {
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
         when(userRepository.existsByUsernameAndIdNot("OtherName", id)).thenReturn(true);
 
-        assertThatThrownBy(() -> userService.updateUser(id, request))
+        assertThatThrownBy(() -> userService.updateUser(id, request, null))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Пользователь с именем OtherName уже существует.");
     }
@@ -160,38 +269,44 @@ class UserServiceTest {
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
         when(userRepository.existsByEmailAndIdNot("other@example.com", id)).thenReturn(true);
 
-        assertThatThrownBy(() -> userService.updateUser(id, request))
+        assertThatThrownBy(() -> userService.updateUser(id, request, null))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Пользователь с email other@example.com уже существует.");
     }
 
+    @Test
+    void updateUser_staleVersion() {
+        Long id = 1L;
+        User existing = User.builder()
+                .id(id)
+                .username("OldName")
+                .email("old@example.com")
+                .version(4L)
+                .build();
+
+        when(userRepository.findById(id)).thenReturn(Optional.of(existing));
+
+        assertThatThrownBy(() -> userService.updateUser(id, new UserRequest("NewName", "old@example.com"), 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("текущая версия 4");
+        assertThat(existing.getUsername()).isEqualTo("OldName");
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     void updateUser_notFound() {
         when(userRepository.findById(100L)).thenReturn(Optional.empty());
         UserRequest request = new UserRequest("Any", "any@example.com");
 
-        assertThatThrownBy(() -> userService.updateUser(100L, request))
+        assertThatThrownBy(() -> userService.updateUser(100L, request, null))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Пользователь с id 100 не найден.");
     }
 
-    @Test
-    void deleteUserById_success() {
-        Long id = 5L;
-        User user = User.builder().id(id).username("User5").email("user5@example.com").build();
-        when(userRepository.findById(id)).thenReturn(Optional.of(user));
-
-        userService.deleteUserById(id);
-
-        verify(userRepository).delete(user);
-    }
-
-    @Test
-    void deleteUserById_notFound() {
-        when(userRepository.findById(123L)).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> userService.deleteUserById(123L))
-                .isInstanceOf(ResourceNotFoundException.class)
-                .hasMessageContaining("Пользователь с id 123 не найден.");
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException(
+                "constraint violation",
+                new ConstraintViolationException("constraint violation", new SQLException(), constraintName)
+        );
     }
 }
@@ -0,0 +1,62 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionBulkRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import com.github.osipovvj.webrise_test_task.service.impl.UserSpendServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class UserSpendServiceTest {
+    private static final BigDecimal PRICE = new BigDecimal("9.99");
+
+    private UserSpendRepository userSpendRepository;
+    private UserSubscriptionBulkRepository bulkRepository;
+    private UserSpendServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        userSpendRepository = mock(UserSpendRepository.class);
+        bulkRepository = mock(UserSubscriptionBulkRepository.class);
+        service = new UserSpendServiceImpl(userSpendRepository, bulkRepository);
+    }
+
+    @Test
+    void adjust_upsertsSummary() {
+        service.adjust(new UserSpendDelta(1L, PRICE, 1, 1));
+
+        verify(userSpendRepository).upsert(1L, PRICE, 1, 1);
+        verifyNoInteractions(bulkRepository);
+    }
+
+    @Test
+    void adjust_skipsEmptyDelta() {
+        service.adjust(UserSpendDelta.statusChanged(1L, PRICE, SubscriptionStatus.ACTIVE, SubscriptionStatus.ACTIVE));
+
+        verifyNoInteractions(userSpendRepository, bulkRepository);
+    }
+
+    @Test
+    void adjustAll_upsertsOnlyChangedSummaries() {
+        UserSpendDelta first = new UserSpendDelta(1L, PRICE, 1, 1);
+        UserSpendDelta second = new UserSpendDelta(2L, PRICE, 1, 1);
+
+        service.adjustAll(List.of(first, second, UserSpendDelta.none(3L)));
+
+        verify(bulkRepository).adjustSpend(List.of(first, second));
+        verifyNoInteractions(userSpendRepository);
+    }
+
+    @Test
+    void adjustAll_skipsWhenNothingChanged() {
+        service.adjustAll(List.of(UserSpendDelta.none(1L)));
+
+        verifyNoInteractions(userSpendRepository, bulkRepository);
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.osipovvj.webrise_test_task.service;
+
+import com.github.osipovvj.webrise_test_task.config.BulkProperties;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkChangeStatusRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkSubscribeRequest;
+import com.github.osipovvj.webrise_test_task.dto.request.BulkUsersRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkOperationResponse;
+import com.github.osipovvj.webrise_test_task.dto.response.BulkUserFailure;
+import com.github.osipovvj.webrise_test_task.enums.BulkItemStatus;
+import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
+import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionBulkRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.ChangedUserSubscription;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
+import com.github.osipovvj.webrise_test_task.service.impl.UserSubscriptionBulkServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserSubscriptionBulkServiceTest {
+    private static final Long SUBSCRIPTION_ID = 12L;
+    private static final LocalDateTime DAY_1 = LocalDateTime.of(2025, 5, 1, 10, 0);
+    private static final LocalDateTime DAY_2 = LocalDateTime.of(2025, 5, 2, 10, 0);
+    private static final BigDecimal PRICE = new BigDecimal("7.00");
+
+    private SubscriptionRepository subscriptionRepository;
+    private UserSubscriptionBulkRepository bulkRepository;
+    private PopularityService popularityService;
+    private UserSpendService userSpendService;
+    private UserSubscriptionBulkServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        bulkRepository = mock(UserSubscriptionBulkRepository.class);
+        popularityService = mock(PopularityService.class);
+        userSpendService = mock(UserSpendService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        when(subscriptionRepository.existsById(SUBSCRIPTION_ID)).thenReturn(true);
+
+        service = new UserSubscriptionBulkServiceImpl(
+                subscriptionRepository,
+                bulkRepository,
+                popularityService,
+                userSpendService,
+                transactionTemplate,
+                new BulkProperties(2),
+                Clock.fixed(Instant.parse("2025-05-20T00:00:00Z"), ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    void subscribe_reportsDuplicatesAndMissingUsers() {
+        when(bulkRepository.subscribe(eq(SUBSCRIPTION_ID), eq(List.of(1L, 2L)), any(), any()))
+                .thenReturn(List.of(changed(1L, SubscriptionStatus.ACTIVE, DAY_1)));
+        when(bulkRepository.subscribe(eq(SUBSCRIPTION_ID), eq(List.of(3L)), any(), any()))
+                .thenReturn(List.of());
+        when(bulkRepository.findExistingUserIds(List.of(2L))).thenReturn(List.of(2L));
+        when(bulkRepository.findExistingUserIds(List.of(3L))).thenReturn(List.of());
+
+        BulkOperationResponse response = service.subscribe(
+                SUBSCRIPTION_ID, new BulkSubscribeRequest(List.of(1L, 2L, 2L, 3L), BigDecimal.TEN)
+        );
+
+        assertThat(response.processed()).isEqualTo(3);
+        assertThat(response.applied()).isEqualTo(1);
+        assertThat(response.failures()).extracting(BulkUserFailure::userId, BulkUserFailure::status).containsExactly(
+                tuple(2L, BulkItemStatus.DUPLICATE),
+                tuple(3L, BulkItemStatus.NOT_FOUND)
+        );
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.ACTIVE, DAY_1.toLocalDate().atStartOfDay(), 1);
+        verifyNoMoreInteractions(popularityService);
+        verify(userSpendService).adjustAll(List.of(new UserSpendDelta(1L, PRICE, 1, 1)));
+    }
+
+    @Test
+    void subscribe_subscriptionNotFound() {
+        when(subscriptionRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.subscribe(99L, new BulkSubscribeRequest(List.of(1L), null)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(bulkRepository, popularityService);
+    }
+
+    @Test
+    void subscribe_failedChunkIsReportedAndOthersApplied() {
+        when(bulkRepository.subscribe(eq(SUBSCRIPTION_ID), eq(List.of(1L, 2L)), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("fk"));
+        when(bulkRepository.subscribe(eq(SUBSCRIPTION_ID), eq(List.of(3L)), any(), any()))
+                .thenReturn(List.of(changed(3L, SubscriptionStatus.ACTIVE, DAY_1)));
+
+        BulkOperationResponse response = service.subscribe(
+                SUBSCRIPTION_ID, new BulkSubscribeRequest(List.of(1L, 2L, 3L), BigDecimal.ONE)
+        );
+
+        assertThat(response.applied()).isEqualTo(1);
+        assertThat(response.failures()).extracting(BulkUserFailure::userId, BulkUserFailure::status).containsExactly(
+                tuple(1L, BulkItemStatus.FAILED),
+                tuple(2L, BulkItemStatus.FAILED)
+        );
+    }
+
+    @Test
+    void unsubscribe_decrementsCountersPerStatusAndDay() {
+        when(bulkRepository.unsubscribe(SUBSCRIPTION_ID, List.of(1L, 2L))).thenReturn(List.of(
+                changed(1L, SubscriptionStatus.ACTIVE, DAY_1),
+                changed(2L, SubscriptionStatus.ACTIVE, DAY_1.plusHours(3))
+        ));
+        when(bulkRepository.unsubscribe(SUBSCRIPTION_ID, List.of(3L))).thenReturn(List.of());
+
+        BulkOperationResponse response = service.unsubscribe(SUBSCRIPTION_ID, new BulkUsersRequest(List.of(1L, 2L, 3L)));
+
+        assertThat(response.applied()).isEqualTo(2);
+        assertThat(response.failures()).extracting(BulkUserFailure::userId, BulkUserFailure::status)
+                .containsExactly(tuple(3L, BulkItemStatus.NOT_FOUND));
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.ACTIVE, DAY_1.toLocalDate().atStartOfDay(), -2);
+        verifyNoMoreInteractions(popularityService);
+        verify(userSpendService).adjustAll(List.of(
+                new UserSpendDelta(1L, PRICE.negate(), -1, -1),
+                new UserSpendDelta(2L, PRICE.negate(), -1, -1)
+        ));
+    }
+
+    @Test
+    void changeStatus_movesOnlyChangedSubscriptions() {
+        when(bulkRepository.changeStatus(eq(SUBSCRIPTION_ID), eq(List.of(1L, 2L)), eq(SubscriptionStatus.INACTIVE), any()))
+                .thenReturn(List.of(
+                        changed(1L, SubscriptionStatus.ACTIVE, DAY_1),
+                        changed(2L, SubscriptionStatus.INACTIVE, DAY_2)
+                ));
+
+        BulkOperationResponse response = service.changeStatus(
+                SUBSCRIPTION_ID, new BulkChangeStatusRequest(SubscriptionStatus.INACTIVE, List.of(1L, 2L))
+        );
+
+        assertThat(response.applied()).isEqualTo(2);
+        assertThat(response.failures()).isEmpty();
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.ACTIVE, DAY_1.toLocalDate().atStartOfDay(), -1);
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.INACTIVE, DAY_1.toLocalDate().atStartOfDay(), 1);
+        verifyNoMoreInteractions(popularityService);
+        verify(userSpendService).adjustAll(List.of(new UserSpendDelta(1L, PRICE.negate(), 0, -1)));
+    }
+
+    @Test
+    void changeStatus_forAllSubscribersRunsChunksUntilExhausted() {
+        when(bulkRepository.changeStatusForAll(eq(SUBSCRIPTION_ID), eq(SubscriptionStatus.INACTIVE), anyInt(), any()))
+                .thenReturn(List.of(
+                        changed(1L, SubscriptionStatus.ACTIVE, DAY_1),
+                        changed(2L, SubscriptionStatus.ACTIVE, DAY_1)
+                ))
+                .thenReturn(List.of(changed(3L, SubscriptionStatus.ACTIVE, DAY_2)));
+
+        BulkOperationResponse response = service.changeStatus(
+                SUBSCRIPTION_ID, new BulkChangeStatusRequest(SubscriptionStatus.INACTIVE, null)
+        );
+
+        assertThat(response.processed()).isEqualTo(3);
+        assertThat(response.applied()).isEqualTo(3);
+        verify(bulkRepository, times(2)).changeStatusForAll(eq(SUBSCRIPTION_ID), eq(SubscriptionStatus.INACTIVE), eq(2), any());
+        verify(bulkRepository, never()).changeStatus(any(), anyList(), any(), any());
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.ACTIVE, DAY_1.toLocalDate().atStartOfDay(), -2);
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.INACTIVE, DAY_1.toLocalDate().atStartOfDay(), 2);
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.ACTIVE, DAY_2.toLocalDate().atStartOfDay(), -1);
+        verify(popularityService).adjustSubscribers(SUBSCRIPTION_ID, SubscriptionStatus.INACTIVE, DAY_2.toLocalDate().atStartOfDay(), 1);
+    }
+
+    private static ChangedUserSubscription changed(Long userId, SubscriptionStatus status, LocalDateTime subscribedAt) {
+        return new ChangedUserSubscription(userId, status, subscribedAt, PRICE);
+    }
+}
@@ -2,22 +2,32 @@ package com.github.osipovvj.webrise_test_task.service;
 
 import com.github.osipovvj.webrise_test_task.dto.request.ChangeSubscriptionStatusRequest;
 import com.github.osipovvj.webrise_test_task.dto.request.UserSubscriptionRequest;
+import com.github.osipovvj.webrise_test_task.dto.response.UserSpendResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionResponse;
 import com.github.osipovvj.webrise_test_task.dto.response.UserSubscriptionsResponse;
 import com.github.osipovvj.webrise_test_task.entity.Subscription;
 import com.github.osipovvj.webrise_test_task.entity.User;
+import com.github.osipovvj.webrise_test_task.entity.UserSpend;
 import com.github.osipovvj.webrise_test_task.entity.UserSubscription;
 import com.github.osipovvj.webrise_test_task.enums.SubscriptionStatus;
 import com.github.osipovvj.webrise_test_task.exception.AlreadyExistsException;
+import com.github.osipovvj.webrise_test_task.exception.PreconditionFailedException;
 import com.github.osipovvj.webrise_test_task.exception.ResourceNotFoundException;
+import com.github.osipovvj.webrise_test_task.pagination.KeysetRequest;
 import com.github.osipovvj.webrise_test_task.repository.SubscriptionRepository;
 import com.github.osipovvj.webrise_test_task.repository.UserRepository;
+import com.github.osipovvj.webrise_test_task.repository.UserSpendRepository;
 import com.github.osipovvj.webrise_test_task.repository.UserSubscriptionRepository;
+import com.github.osipovvj.webrise_test_task.repository.projection.UserSpendDelta;
 import com.github.osipovvj.webrise_test_task.service.impl.UserSubscriptionServiceImpl;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +40,9 @@ class UserSubscriptionServiceTest {
     private UserRepository userRepository;
     private SubscriptionRepository subscriptionRepository;
     private UserSubscriptionRepository userSubscriptionRepository;
+    private UserSpendRepository userSpendRepository;
+    private PopularityService popularityService;
+    private UserSpendService userSpendService;
     private UserSubscriptionServiceImpl service;
 
     @BeforeEach
@@ -37,7 +50,12 @@ class UserSubscriptionServiceTest {
         userRepository = mock(UserRepository.class);
         subscriptionRepository = mock(SubscriptionRepository.class);
         userSubscriptionRepository = mock(UserSubscriptionRepository.class);
-        service = new UserSubscriptionServiceImpl(userRepository, subscriptionRepository, userSubscriptionRepository);
+        userSpendRepository = mock(UserSpendRepository.class);
+        popularityService = mock(PopularityService.class);
+        userSpendService = mock(UserSpendService.class);
+        service = new UserSubscriptionServiceImpl(
+                userRepository, subscriptionRepository, userSubscriptionRepository, userSpendRepository, popularityService, userSpendService
+        );
     }
 
     @Test
@@ -57,10 +75,9 @@ class UserSubscriptionServiceTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(subscriptionRepository.findById(subscriptionId)).thenReturn(Optional.of(subscription));
-        when(userSubscriptionRepository.existsByUserIdAndSubscriptionId(userId, subscriptionId)).thenReturn(false);
-        when(userSubscriptionRepository.save(any(UserSubscription.class))).thenReturn(userSubscription);
+        when(userSubscriptionRepository.saveAndFlush(any(UserSubscription.class))).thenReturn(userSubscription);
 
         UserSubscriptionResponse response = service.addUserSubscription(userId, request);
 
@@ -68,6 +85,8 @@ class UserSubscriptionServiceTest {
         assertThat(response.price()).isEqualTo(new BigDecimal("9.99"));
         assertThat(response.status()).isEqualTo(SubscriptionStatus.ACTIVE);
         assertThat(response.subscription().id()).isEqualTo(subscriptionId);
+        verify(popularityService).adjustSubscribers(subscriptionId, SubscriptionStatus.ACTIVE, userSubscription.getSubscribedAt(), 1);
+        verify(userSpendService).adjust(new UserSpendDelta(userId, new BigDecimal("9.99"), 1, 1));
     }
 
     @Test
@@ -76,13 +95,14 @@ class UserSubscriptionServiceTest {
         Long subscriptionId = 2L;
         UserSubscriptionRequest request = new UserSubscriptionRequest(subscriptionId, new BigDecimal("9.99"));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(User.builder().id(userId).build()));
         when(subscriptionRepository.findById(subscriptionId)).thenReturn(Optional.of(Subscription.builder().id(subscriptionId).build()));
-        when(userSubscriptionRepository.existsByUserIdAndSubscriptionId(userId, subscriptionId)).thenReturn(true);
+        when(userSubscriptionRepository.saveAndFlush(any(UserSubscription.class)))
+                .thenThrow(violation("uk_user_subscription_user_subscription"));
 
         assertThatThrownBy(() -> service.addUserSubscription(userId, request))
                 .isInstanceOf(AlreadyExistsException.class)
                 .hasMessageContaining("Пользователь с id " + userId + " уже подписан на сервис с id " + subscriptionId);
+        verifyNoInteractions(popularityService);
     }
 
     @Test
@@ -91,7 +111,9 @@ class UserSubscriptionServiceTest {
         Long subscriptionId = 2L;
         UserSubscriptionRequest request = new UserSubscriptionRequest(subscriptionId, new BigDecimal("9.99"));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(subscriptionRepository.findById(subscriptionId)).thenReturn(Optional.of(Subscription.builder().id(subscriptionId).build()));
+        when(userSubscriptionRepository.saveAndFlush(any(UserSubscription.class)))
+                .thenThrow(violation("fk_user_subscription_user"));
 
         assertThatThrownBy(() -> service.addUserSubscription(userId, request))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -104,7 +126,6 @@ class UserSubscriptionServiceTest {
         Long subscriptionId = 2L;
         UserSubscriptionRequest request = new UserSubscriptionRequest(subscriptionId, new BigDecimal("9.99"));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(User.builder().id(userId).build()));
         when(subscriptionRepository.findById(subscriptionId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.addUserSubscription(userId, request))
@@ -122,16 +143,39 @@ class UserSubscriptionServiceTest {
                 .id(10L)
                 .user(user)
                 .subscription(subscription)
+                .price(new BigDecimal("9.99"))
                 .status(SubscriptionStatus.ACTIVE)
                 .build();
         ChangeSubscriptionStatusRequest request = new ChangeSubscriptionStatusRequest(SubscriptionStatus.INACTIVE);
 
         when(userSubscriptionRepository.findByUserIdAndSubscriptionId(userId, subscriptionId)).thenReturn(Optional.of(userSubscription));
-        when(userSubscriptionRepository.save(userSubscription)).thenReturn(userSubscription);
+        when(userSubscriptionRepository.saveAndFlush(userSubscription)).thenReturn(userSubscription);
 
-        UserSubscriptionResponse response = service.changeUserSubscriptionStatus(userId, subscriptionId, request);
+        UserSubscriptionResponse response = service.changeUserSubscriptionStatus(userId, subscriptionId, request, null);
 
         assertThat(response.status()).isEqualTo(SubscriptionStatus.INACTIVE);
+        verify(popularityService).adjustSubscribers(subscriptionId, SubscriptionStatus.ACTIVE, null, -1);
+        verify(popularityService).adjustSubscribers(subscriptionId, SubscriptionStatus.INACTIVE, null, 1);
+        verify(userSpendService).adjust(new UserSpendDelta(userId, new BigDecimal("-9.99"), 0, -1));
+    }
+
+    @Test
+    void changeUserSubscriptionStatus_staleVersion() {
+        Long userId = 1L;
+        Long subscriptionId = 2L;
+        UserSubscription userSubscription = UserSubscription.builder()
+                .id(10L)
+                .status(SubscriptionStatus.ACTIVE)
+                .version(7L)
+                .build();
+
+        when(userSubscriptionRepository.findByUserIdAndSubscriptionId(userId, subscriptionId)).thenReturn(Optional.of(userSubscription));
+
+        assertThatThrownBy(() -> service.changeUserSubscriptionStatus(
+                userId, subscriptionId, new ChangeSubscriptionStatusRequest(SubscriptionStatus.INACTIVE), 6L
+        )).isInstanceOf(PreconditionFailedException.class);
+        assertThat(userSubscription.getStatus()).isEqualTo(SubscriptionStatus.ACTIVE);
+        verifyNoInteractions(popularityService, userSpendService);
     }
 
     @Test
@@ -142,7 +186,7 @@ class UserSubscriptionServiceTest {
 
         when(userSubscriptionRepository.findByUserIdAndSubscriptionId(userId, subscriptionId)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> service.changeUserSubscriptionStatus(userId, subscriptionId, request))
+        assertThatThrownBy(() -> service.changeUserSubscriptionStatus(userId, subscriptionId, request, null))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Пользовтель с id " + userId + " не подписан на сервис с id " + subscriptionId);
     }
@@ -156,13 +200,13 @@ class UserSubscriptionServiceTest {
         UserSubscription us1 = UserSubscription.builder().id(1L).status(SubscriptionStatus.ACTIVE).user(user).subscription(subscription1).build();
         UserSubscription us2 = UserSubscription.builder().id(2L).status(SubscriptionStatus.INACTIVE).user(user).subscription(subscription2).build();
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(userSubscriptionRepository.findAllByUserId(userId)).thenReturn(List.of(us1, us2));
+        when(userSubscriptionRepository.findPageWithSubscriptionByUserId(userId, 0L, Limit.of(21))).thenReturn(List.of(us1, us2));
 
-        UserSubscriptionsResponse response = service.getUserSubscriptions(userId);
+        UserSubscriptionsResponse response = service.getUserSubscriptions(userId, KeysetRequest.of(null, null));
 
         assertThat(response.count()).isEqualTo(2);
         assertThat(response.subscriptions()).extracting("id").containsExactly(1L, 2L);
+        verify(userRepository, never()).existsById(userId);
     }
 
     @Test
@@ -170,7 +214,7 @@ class UserSubscriptionServiceTest {
         Long userId = 1L;
         when(userRepository.existsById(userId)).thenReturn(false);
 
-        assertThatThrownBy(() -> service.getUserSubscriptions(userId))
+        assertThatThrownBy(() -> service.getUserSubscriptions(userId, KeysetRequest.of(null, null)))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Пользователь с id " + userId + " не найден.");
     }
@@ -179,13 +223,21 @@ class UserSubscriptionServiceTest {
     void removeUserSubscription_success() {
         Long userId = 1L;
         Long subscriptionId = 2L;
-        UserSubscription us = UserSubscription.builder().id(10L).build();
+        LocalDateTime subscribedAt = LocalDateTime.now();
+        UserSubscription us = UserSubscription.builder()
+                .id(10L)
+                .price(new BigDecimal("4.50"))
+                .status(SubscriptionStatus.INACTIVE)
+                .subscribedAt(subscribedAt)
+                .build();
 
         when(userSubscriptionRepository.findByUserIdAndSubscriptionId(userId, subscriptionId)).thenReturn(Optional.of(us));
 
         service.removeUserSubscription(userId, subscriptionId);
 
         verify(userSubscriptionRepository).delete(us);
+        verify(popularityService).adjustSubscribers(subscriptionId, SubscriptionStatus.INACTIVE, subscribedAt, -1);
+        verify(userSpendService).adjust(new UserSpendDelta(userId, BigDecimal.ZERO, -1, 0));
     }
 
     @Test
@@ -199,4 +251,42 @@ class UserSubscriptionServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Пользовтель с id " + userId + " не подписан на сервис с id " + subscriptionId);
     }
+
+    @Test
+    void getUserSpend_readsSummaryRow() {
+        Long userId = 1L;
+        when(userSpendRepository.findById(userId)).thenReturn(Optional.of(new UserSpend(userId, new BigDecimal("14.49"), 3, 2)));
+
+        UserSpendResponse response = service.getUserSpend(userId);
+
+        assertThat(response).isEqualTo(new UserSpendResponse(userId, new BigDecimal("14.49"), 3, 2));
+        verifyNoInteractions(userSubscriptionRepository);
+    }
+
+    @Test
+    void getUserSpend_userWithoutSummary() {
+        Long userId = 1L;
+        when(userSpendRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        assertThat(service.getUserSpend(userId)).isEqualTo(UserSpendResponse.empty(userId));
+    }
+
+    @Test
+    void getUserSpend_userNotFound() {
+        Long userId = 1L;
+        when(userSpendRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.getUserSpend(userId))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Пользователь с id " + userId + " не найден.");
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException(
+                "constraint violation",
+                new ConstraintViolationException("constraint violation", new SQLException(), constraintName)
+        );
+    }
 }
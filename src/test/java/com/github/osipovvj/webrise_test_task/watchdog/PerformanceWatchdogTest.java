@@ -0,0 +1,76 @@
+package com.github.osipovvj.webrise_test_task.watchdog;
+
+import com.github.osipovvj.webrise_test_task.config.WatchdogProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PerformanceWatchdogTest {
+
+    @Test
+    void isSelect_acceptsOnlyPlainSelects() {
+        assertThat(PerformanceWatchdog.isSelect("  select * from users where id = ?")).isTrue();
+        assertThat(PerformanceWatchdog.isSelect("(SELECT id FROM users) UNION (SELECT id FROM users)")).isTrue();
+
+        assertThat(PerformanceWatchdog.isSelect("WITH target AS (SELECT id FROM user_subscription FOR UPDATE) UPDATE user_subscription SET status = ?")).isFalse();
+        assertThat(PerformanceWatchdog.isSelect("with d as (delete from user_subscription returning *) select * from d")).isFalse();
+        assertThat(PerformanceWatchdog.isSelect("select * from users where id = ? for update")).isFalse();
+        assertThat(PerformanceWatchdog.isSelect("select * from users where id = ? FOR NO KEY UPDATE")).isFalse();
+        assertThat(PerformanceWatchdog.isSelect("SELECT nextval('user_subscription_seq') FROM generate_series(1, ?)")).isFalse();
+        assertThat(PerformanceWatchdog.isSelect("update users set email = ? where id = ?")).isFalse();
+    }
+
+    @Test
+    void slowQuery_skipsExplainForDataModifyingCte() {
+        DataSource target = mock(DataSource.class);
+        PerformanceWatchdog watchdog = watchdog(false);
+
+        watchdog.slowQuery(target, "WITH target AS (SELECT id FROM users FOR UPDATE) DELETE FROM users", List.of(), 0);
+
+        verifyNoInteractions(target);
+        assertThat(watchdog.report().slowQueries()).hasSize(1);
+    }
+
+    @Test
+    void slowQuery_masksParametersByDefault() {
+        PerformanceWatchdog watchdog = watchdog(false);
+
+        watchdog.slowQuery(mock(DataSource.class), "insert into users (email) values (?)", List.of("user@example.com"), 0);
+
+        assertThat(watchdog.report().slowQueries().get(0).parameters()).containsExactly("***");
+    }
+
+    @Test
+    void slowQuery_capturesParametersWhenEnabled() {
+        PerformanceWatchdog watchdog = watchdog(true);
+
+        watchdog.slowQuery(mock(DataSource.class), "insert into users (email) values (?)", List.of("user@example.com"), 0);
+
+        assertThat(watchdog.report().slowQueries().get(0).parameters()).containsExactly("user@example.com");
+    }
+
+    @Test
+    void requestCompleted_masksQueryValuesByDefault() {
+        PerformanceWatchdog watchdog = watchdog(false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/export");
+        request.setQueryString("format=CSV&email=user@example.com&flag");
+
+        watchdog.requestCompleted(request, 200, Duration.ofSeconds(1).toNanos(), 1);
+
+        assertThat(watchdog.report().slowRequests().get(0).query()).isEqualTo("format=***&email=***&flag");
+    }
+
+    private static PerformanceWatchdog watchdog(boolean captureParameters) {
+        WatchdogProperties properties = new WatchdogProperties(
+                true, Duration.ZERO, Duration.ZERO, 10, 1, captureParameters
+        );
+        return new PerformanceWatchdog(properties, Clock.systemUTC(), Runnable::run);
+    }
+}